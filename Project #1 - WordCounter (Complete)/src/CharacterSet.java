@@ -0,0 +1,357 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set<Character>} represented as a bitset over the Basic Multilingual
+ * Plane (one bit per {@code char} value), with implementations of primary
+ * methods.
+ *
+ * <p>
+ * The 128 ASCII characters live in two {@code long}s, so the common case of
+ * {@code contains} on an ASCII character is a comparison, a shift, and a mask;
+ * the bits for the rest of the plane are only allocated once a non-ASCII
+ * character is added. {@code contains(char)} takes its argument unboxed, so a
+ * tokenizer that asks about every character of its input through a
+ * {@code CharacterSet} (rather than through a {@code Set<Character>}) neither
+ * boxes the character nor allocates anything else.
+ * </p>
+ *
+ * @convention <pre>
+ * ($this.otherBits = null  or
+ *  (|$this.otherBits| = CHARACTER_COUNT / 64  and
+ *   $this.otherBits[0] = 0  and  $this.otherBits[1] = 0))  and
+ * $this.size = [number of characters c such that BIT($this, c) = 1]
+ * </pre>
+ * @correspondence <pre>
+ * this = {c: character
+ *     where (BIT($this, c) = 1)
+ *   (c)}
+ * where BIT($this, c) is bit (c mod 64) of $this.lowBits if c < 64, of
+ * $this.highBits if 64 <= c < 128, and otherwise of
+ * $this.otherBits[c / 64] (or 0 if $this.otherBits = null)
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class CharacterSet extends SetSecondary<Character> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Number of {@code char} values.
+     */
+    private static final int CHARACTER_COUNT = Character.MAX_VALUE + 1;
+
+    /**
+     * Number of ASCII characters, i.e., the first {@code char} value not held
+     * in {@code lowBits} or {@code highBits}.
+     */
+    private static final int ASCII_COUNT = 2 * Long.SIZE;
+
+    /**
+     * Number of bits in a word, as a shift: {@code c >>> WORD_SHIFT} is the
+     * index of the word holding the bit for {@code c}.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * Bits for the characters 0 through 63.
+     */
+    private long lowBits;
+
+    /**
+     * Bits for the characters 64 through 127.
+     */
+    private long highBits;
+
+    /**
+     * Bits for the characters 128 and up, one word per 64 characters (the
+     * first two words are unused), or null if none has ever been added.
+     */
+    private long[] otherBits;
+
+    /**
+     * Size of {@code this}.
+     */
+    private int size;
+
+    /**
+     * Returns the word of bits holding the bit for the characters
+     * [64 * i, 64 * (i + 1)).
+     *
+     * @param i
+     *            the index of the word
+     * @return the word
+     * @requires 0 <= i < CHARACTER_COUNT / 64
+     * @ensures word = [the word holding the bits for those characters]
+     */
+    private long word(int i) {
+        long w;
+        if (i == 0) {
+            w = this.lowBits;
+        } else if (i == 1) {
+            w = this.highBits;
+        } else if (this.otherBits == null) {
+            w = 0;
+        } else {
+            w = this.otherBits[i];
+        }
+        return w;
+    }
+
+    /**
+     * Flips the bit for {@code c}.
+     *
+     * @param c
+     *            the character
+     * @updates this
+     * @ensures <pre>
+     * BIT(this, c) = 1 - BIT(#this, c)  and
+     * [the bits for all other characters are unchanged]
+     * </pre>
+     */
+    private void flip(char c) {
+        /*
+         * Shifts of a long use only the low six bits of the distance, so
+         * 1L << c is the mask of c within its word.
+         */
+        long mask = 1L << c;
+        if (c < Long.SIZE) {
+            this.lowBits ^= mask;
+        } else if (c < ASCII_COUNT) {
+            this.highBits ^= mask;
+        } else {
+            if (this.otherBits == null) {
+                this.otherBits = new long[CHARACTER_COUNT >>> WORD_SHIFT];
+            }
+            this.otherBits[c >>> WORD_SHIFT] ^= mask;
+        }
+    }
+
+    /**
+     * Returns the smallest character in {@code this} that is at least
+     * {@code from}, or {@code CHARACTER_COUNT} if there is none.
+     *
+     * @param from
+     *            the smallest character to consider
+     * @return the smallest such character, or {@code CHARACTER_COUNT}
+     * @requires 0 <= from <= CHARACTER_COUNT
+     * @ensures <pre>
+     * (nextFrom is in this  and  from <= nextFrom  and
+     *  [no character in this is at least from and less than nextFrom])  or
+     * (nextFrom = CHARACTER_COUNT  and
+     *  [no character in this is at least from])
+     * </pre>
+     */
+    private int nextFrom(int from) {
+        int words;
+        if (this.otherBits == null) {
+            words = 2;
+        } else {
+            words = this.otherBits.length;
+        }
+        int result = CHARACTER_COUNT;
+        int i = from >>> WORD_SHIFT;
+        if (i < words) {
+            long w = this.word(i) & (-1L << from);
+            while (w == 0 && i + 1 < words) {
+                i++;
+                w = this.word(i);
+            }
+            if (w != 0) {
+                result = (i << WORD_SHIFT) + Long.numberOfTrailingZeros(w);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.lowBits = 0;
+        this.highBits = 0;
+        this.otherBits = null;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public CharacterSet() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final Set<Character> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<Character> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof CharacterSet : ""
+                + "Violation of: source is of dynamic type CharacterSet";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case.
+         */
+        CharacterSet localSource = (CharacterSet) source;
+        this.lowBits = localSource.lowBits;
+        this.highBits = localSource.highBits;
+        this.otherBits = localSource.otherBits;
+        this.size = localSource.size;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(Character x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        this.flip(x);
+        this.size++;
+    }
+
+    @Override
+    public final Character remove(Character x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        this.flip(x);
+        this.size--;
+        return x;
+    }
+
+    @Override
+    public final Character removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        char x = (char) this.nextFrom(0);
+        this.flip(x);
+        this.size--;
+        return x;
+    }
+
+    @Override
+    public final boolean contains(Character x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.contains(x.charValue());
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Character> iterator() {
+        return new CharacterSetIterator();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports whether {@code c} is in {@code this}, without boxing it.
+     *
+     * @param c
+     *            the character to be checked
+     * @return true iff {@code c} is in {@code this}
+     * @ensures contains = (c is in this)
+     */
+    public final boolean contains(char c) {
+        long mask = 1L << c;
+        long w;
+        if (c < Long.SIZE) {
+            w = this.lowBits;
+        } else if (c < ASCII_COUNT) {
+            w = this.highBits;
+        } else if (this.otherBits == null) {
+            w = 0;
+        } else {
+            w = this.otherBits[c >>> WORD_SHIFT];
+        }
+        return (w & mask) != 0;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code CharacterSet},
+     * visiting the characters in increasing order.
+     */
+    private final class CharacterSetIterator implements Iterator<Character> {
+
+        /**
+         * Character that comes next, or {@code CHARACTER_COUNT} if all have
+         * been seen.
+         */
+        private int next;
+
+        /**
+         * No-argument constructor.
+         */
+        CharacterSetIterator() {
+            this.next = CharacterSet.this.nextFrom(0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < CHARACTER_COUNT;
+        }
+
+        @Override
+        public Character next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            char x = (char) this.next;
+            this.next = CharacterSet.this.nextFrom(this.next + 1);
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,383 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Map from {@code String} words to {@code int} counts, specialized for counting
+ * word occurrences, represented as a hash table using the same hashing scheme
+ * as {@code Map4} ({@code hashCode} mod a hash table size that starts at 101
+ * and grows to 2n + 1), but with the entries kept in parallel arrays and the
+ * buckets chained through entry indices instead of through {@code Map}s.
+ *
+ * <p>
+ * {@code increment} hashes its word once and either bumps the count in place
+ * or appends a new entry, so counting a token costs a single probe and
+ * allocates nothing (no {@code Integer}, no {@code Pair}, no bucket node).
+ * </p>
+ *
+ * @convention <pre>
+ * |$this.buckets| > 0  and
+ * |$this.words| = |$this.counts| = |$this.next|  and
+ * 0 <= $this.size <= |$this.words|  and
+ * [the words at positions [0, $this.size) of $this.words are not null and
+ *  all different]  and
+ * for all i: integer
+ *     where (0 <= i  and  i < $this.size)
+ *   ($this.counts[i] > 0  and
+ *    [the entry at position i is on the chain that starts at
+ *     $this.buckets[computed result of $this.words[i].hashCode()
+ *                   mod |$this.buckets|], and that continues through
+ *     $this.next, with -1 marking the end of a chain])
+ * </pre>
+ * @correspondence <pre>
+ * this = {(w, c): (string of character, integer)
+ *     where (there exists i: integer
+ *              (0 <= i  and  i < $this.size  and
+ *               <w> = $this.words[i, i+1)  and  <c> = $this.counts[i, i+1)))
+ *   ((w, c))}
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public final class StringCountMap implements Iterable<String> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 101;
+
+    /**
+     * Ratio of {@code size} to number of buckets above which the hash table
+     * grows.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Index of the first entry of each bucket's chain, or -1 if empty.
+     */
+    private int[] buckets;
+
+    /**
+     * Words, in the order they were first counted.
+     */
+    private String[] words;
+
+    /**
+     * Counts of the words at the same positions.
+     */
+    private int[] counts;
+
+    /**
+     * Index of the next entry on the same chain, or -1.
+     */
+    private int[] next;
+
+    /**
+     * Number of distinct words.
+     */
+    private int size;
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+        int r = a % b;
+        if (r < 0) {
+            r += b;
+        }
+        return r;
+    }
+
+    /**
+     * Returns a new array of {@code length} chain heads, all -1.
+     *
+     * @param length
+     *            the number of buckets
+     * @return the array of empty chains
+     * @requires length > 0
+     * @ensures <pre>
+     * |emptyBuckets| = length  and
+     * [every entry of emptyBuckets is -1]
+     * </pre>
+     */
+    private static int[] emptyBuckets(int length) {
+        int[] heads = new int[length];
+        for (int i = 0; i < length; i++) {
+            heads[i] = -1;
+        }
+        return heads;
+    }
+
+    /**
+     * Returns the index of the entry for {@code word}, or -1 if there is none.
+     *
+     * @param word
+     *            the word to look for
+     * @param bucket
+     *            the bucket of {@code word}
+     * @return the index of the entry for {@code word}, or -1
+     * @requires <pre>
+     * word is not null  and
+     * bucket = [computed result of word.hashCode()] mod |$this.buckets|
+     * </pre>
+     * @ensures <pre>
+     * if word is in DOMAIN(this) then
+     *   $this.words[indexOf, indexOf+1) = <word>
+     * else
+     *   indexOf = -1
+     * </pre>
+     */
+    private int indexOf(String word, int bucket) {
+        int i = this.buckets[bucket];
+        while (i >= 0 && !this.words[i].equals(word)) {
+            i = this.next[i];
+        }
+        return i;
+    }
+
+    /**
+     * Doubles the entry arrays and grows the hash table to 2n + 1 buckets,
+     * relinking every entry onto its new chain.
+     *
+     * @updates $this
+     * @ensures this = #this and |$this.buckets| = 2 * |#$this.buckets| + 1
+     */
+    private void grow() {
+        int capacity = 2 * this.words.length;
+        String[] newWords = new String[capacity];
+        int[] newCounts = new int[capacity];
+        System.arraycopy(this.words, 0, newWords, 0, this.size);
+        System.arraycopy(this.counts, 0, newCounts, 0, this.size);
+        this.words = newWords;
+        this.counts = newCounts;
+        this.next = new int[capacity];
+        this.buckets = emptyBuckets(2 * this.buckets.length + 1);
+        for (int i = 0; i < this.size; i++) {
+            int bucket = mod(this.words[i].hashCode(), this.buckets.length);
+            this.next[i] = this.buckets[bucket];
+            this.buckets[bucket] = i;
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        int capacity = (int) (MAX_LOAD_FACTOR * DEFAULT_HASH_TABLE_SIZE) + 1;
+        this.buckets = emptyBuckets(DEFAULT_HASH_TABLE_SIZE);
+        this.words = new String[capacity];
+        this.counts = new int[capacity];
+        this.next = new int[capacity];
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public StringCountMap() {
+        this.createNewRep();
+    }
+
+    /*
+     * Public methods ---------------------------------------------------------
+     */
+
+    /**
+     * Resets {@code this} to an initial value.
+     *
+     * @clears this
+     */
+    public void clear() {
+        this.createNewRep();
+    }
+
+    /**
+     * Adds {@code amount} to the count of {@code word}, which is treated as 0
+     * if {@code word} has not been counted before, and returns the new count.
+     *
+     * @param word
+     *            the word to count
+     * @param amount
+     *            the amount to add to the count
+     * @return the new count of {@code word}
+     * @updates this
+     * @requires word is not null and amount > 0
+     * @ensures <pre>
+     * if word is in DOMAIN(#this) then
+     *   this = (#this \ {(word, #this(word))}) union
+     *          {(word, #this(word) + amount)}
+     * else
+     *   this = #this union {(word, amount)}  and
+     * incrementBy = this(word)
+     * </pre>
+     */
+    public int incrementBy(String word, int amount) {
+        assert word != null : "Violation of: word is not null";
+        assert amount > 0 : "Violation of: amount > 0";
+
+        int bucket = mod(word.hashCode(), this.buckets.length);
+        int i = this.indexOf(word, bucket);
+        if (i < 0) {
+            if (this.size == this.words.length) {
+                this.grow();
+                bucket = mod(word.hashCode(), this.buckets.length);
+            }
+            i = this.size;
+            this.words[i] = word;
+            this.counts[i] = 0;
+            this.next[i] = this.buckets[bucket];
+            this.buckets[bucket] = i;
+            this.size++;
+        }
+        this.counts[i] += amount;
+        return this.counts[i];
+    }
+
+    /**
+     * Adds one to the count of {@code word}, which is treated as 0 if
+     * {@code word} has not been counted before, and returns the new count.
+     *
+     * @param word
+     *            the word to count
+     * @return the new count of {@code word}
+     * @updates this
+     * @requires word is not null
+     * @ensures <pre>
+     * if word is in DOMAIN(#this) then
+     *   this = (#this \ {(word, #this(word))}) union
+     *          {(word, #this(word) + 1)}
+     * else
+     *   this = #this union {(word, 1)}  and
+     * increment = this(word)
+     * </pre>
+     */
+    public int increment(String word) {
+        return this.incrementBy(word, 1);
+    }
+
+    /**
+     * Reports the count of {@code word}, or 0 if it has not been counted.
+     *
+     * @param word
+     *            the word
+     * @return the count of {@code word}
+     * @requires word is not null
+     * @ensures <pre>
+     * if word is in DOMAIN(this) then count = this(word) else count = 0
+     * </pre>
+     */
+    public int count(String word) {
+        assert word != null : "Violation of: word is not null";
+
+        int i = this.indexOf(word, mod(word.hashCode(), this.buckets.length));
+        int count = 0;
+        if (i >= 0) {
+            count = this.counts[i];
+        }
+        return count;
+    }
+
+    /**
+     * Reports whether {@code word} has been counted.
+     *
+     * @param word
+     *            the word
+     * @return true iff {@code word} is in DOMAIN(this)
+     * @requires word is not null
+     * @ensures hasKey = (word is in DOMAIN(this))
+     */
+    public boolean hasKey(String word) {
+        assert word != null : "Violation of: word is not null";
+
+        return this.indexOf(word,
+                mod(word.hashCode(), this.buckets.length)) >= 0;
+    }
+
+    /**
+     * Reports the number of distinct words counted.
+     *
+     * @return |this|
+     * @ensures size = |this|
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns an iterator over DOMAIN(this), in the order in which the words
+     * were first counted.
+     *
+     * @return an iterator over the words of {@code this}
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new StringCountMapIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code StringCountMap}.
+     */
+    private final class StringCountMapIterator implements Iterator<String> {
+
+        /**
+         * Index of the next word to return.
+         */
+        private int currentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        StringCountMapIterator() {
+            this.currentIndex = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.currentIndex < StringCountMap.this.size;
+        }
+
+        @Override
+        public String next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            String word = StringCountMap.this.words[this.currentIndex];
+            this.currentIndex++;
+            return word;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
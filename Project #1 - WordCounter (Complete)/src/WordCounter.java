@@ -1,11 +1,8 @@
 import java.util.Comparator;
 
-import components.map.Map;
-import components.map.Map1L;
 import components.queue.Queue;
 import components.queue.Queue1L;
 import components.set.Set;
-import components.set.Set1L;
 import components.simplereader.SimpleReader;
 import components.simplereader.SimpleReader1L;
 import components.simplewriter.SimpleWriter;
@@ -78,7 +75,7 @@ public final class WordCounter {
      * @param position
      *            the starting index
      * @param separators
-     *            the {@code Set} of separator characters
+     *            the {@code CharacterSet} of separator characters
      * @return the first word or separator string found in {@code text} starting
      *         at index {@code position}
      * @requires 0 <= position < |text|
@@ -99,7 +96,7 @@ public final class WordCounter {
      * </pre>
      */
     private static String nextWordOrSeparator(String text, int position,
-            Set<Character> separators) {
+            CharacterSet separators) {
         assert text != null : "Violation of: text is not null";
         assert separators != null : "Violation of: separators is not null";
         assert 0 <= position : "Violation of: 0 <= position";
@@ -127,22 +124,21 @@ public final class WordCounter {
      * and their corresponding counts in lexicographic (alphabetical) order.
      *
      * @param wordsAndCounts
-     *            the {@code String} word -> {@code Integer} count map
+     *            the {@code String} word -> {@code int} count map
      * @param words
      *            a {@code Queue<String>} lexicographically (alphabetically)
-     *            sorted queue of words
+     *            sorted queue of the words in {@code wordsAndCounts}
      * @param inputFileName
      *            the {@code String} name of the input file
      * @param outputFile
      *            the {@code SimpleWriter} output stream
-     * @clears wordsAndCounts
-     * @updates words
+     * @clears words
      * @requires <pre>
      * [the outputFile is open. wordsAndCounts, words, and
      *           outputFile are not null.]
      * </pre>
      */
-    private static void generateHTML(Map<String, Integer> wordsAndCounts,
+    private static void generateHTML(StringCountMap wordsAndCounts,
             Queue<String> words, String inputFileName,
             SimpleWriter outputFile) {
         assert wordsAndCounts != null : "Violation of: wordsAndCounts is not null";
@@ -175,18 +171,14 @@ public final class WordCounter {
         outputFile.println("</th>");
         outputFile.println("</tr>");
 
-        Map<String, Integer> temp = wordsAndCounts.newInstance();
-        temp.transferFrom(wordsAndCounts);
-
-        while (temp.size() > 0) {
+        while (words.length() > 0) {
             String word = words.dequeue();
-            Map.Pair<String, Integer> pair = temp.remove(word);
             outputFile.println("<tr>");
             outputFile.println("<td>");
-            outputFile.println(pair.key());
+            outputFile.println(word);
             outputFile.println("</td>");
             outputFile.println("<td>");
-            outputFile.println(pair.value());
+            outputFile.println(wordsAndCounts.count(word));
             outputFile.println("</td>");
             outputFile.println("</tr>");
         }
@@ -199,13 +191,15 @@ public final class WordCounter {
     }
 
     /**
-     * Generates a {@code Map<String, Integer>} of words and corresponding word
+     * Generates a {@code StringCountMap} of words and corresponding word
      * occurrence counts from a user-specified text (.txt) file.
      *
      * @param wordsAndCounts
-     *            the {@code String} word -> {@code Integer} count map
+     *            the {@code String} word -> {@code int} count map
      * @param inputFile
      *            the {@code SimpleReader} input stream
+     * @param separatorSet
+     *            the {@code CharacterSet} of separator characters
      * @updates wordsAndCounts
      * @requires <pre>
      * [the inputFile is open and not null]
@@ -213,20 +207,17 @@ public final class WordCounter {
      * @ensures [wordsAndCounts contains word -> count mapping from the
      *          inputFile]
      */
-    private static void generateMap(Map<String, Integer> wordsAndCounts,
-            SimpleReader inputFile) {
+    private static void generateMap(StringCountMap wordsAndCounts,
+            SimpleReader inputFile, CharacterSet separatorSet) {
         assert wordsAndCounts != null : "Violation of: wordsAndCounts is not null";
         assert inputFile != null : "Violation of: inputFile is not null";
         assert inputFile.isOpen() : "Violation of: inputFile.is_open";
+        assert separatorSet != null : "Violation of: separatorSet is not null";
 
         /*
          * This section is almost identical to the skeleton code from CSE 2221:
          * Software Components, Laboratory #23: Words and Separators.
          */
-        final String separatorStr = " `~!@#$%^&*()-_=+[{]}|;:',<.>/?";
-        Set<Character> separatorSet = new Set1L<>();
-        generateElements(separatorStr, separatorSet);
-
         String str = inputFile.nextLine();
 
         int position = 0;
@@ -234,23 +225,15 @@ public final class WordCounter {
             String token = nextWordOrSeparator(str, position, separatorSet)
                     .toLowerCase();
             /*
-             * If there is no intersection between {@code Set<Character>}
+             * If there is no intersection between {@code CharacterSet}
              * separatorSet and {@code String} token, then it is the first word.
              */
             if (!separatorSet.contains(token.charAt(0))) {
                 /*
-                 * If {@code Map<String, Integer>} wordsAndCounts does not
-                 * contain the {@code String} key, then add it to the map.
-                 * Otherwise, it is a duplicate: increment the occurrence count
-                 * and replace the existing value.
+                 * A single probe either adds the {@code String} token with a
+                 * count of one or increments the count it already has.
                  */
-                if (!wordsAndCounts.hasKey(token)) {
-                    wordsAndCounts.add(token, 1);
-                } else {
-                    int count = wordsAndCounts.value(token);
-                    count++;
-                    wordsAndCounts.replaceValue(token, count);
-                }
+                wordsAndCounts.increment(token);
             }
             position += token.length();
         }
@@ -285,14 +268,22 @@ public final class WordCounter {
         String outputFileName = in.nextLine();
         SimpleWriter outputFile = new SimpleWriter1L(outputFileName);
 
-        Map<String, Integer> wordsAndCounts = new Map1L<>();
+        /*
+         * The separator set is built once for the whole file; lookups in a
+         * {@code CharacterSet} take the character unboxed.
+         */
+        final String separatorStr = " `~!@#$%^&*()-_=+[{]}|;:',<.>/?";
+        CharacterSet separatorSet = new CharacterSet();
+        generateElements(separatorStr, separatorSet);
+
+        StringCountMap wordsAndCounts = new StringCountMap();
         while (!inputFile.atEOS()) {
-            generateMap(wordsAndCounts, inputFile);
+            generateMap(wordsAndCounts, inputFile, separatorSet);
         }
 
         Queue<String> words = new Queue1L<>();
-        for (Map.Pair<String, Integer> pair : wordsAndCounts) {
-            words.enqueue(pair.key());
+        for (String word : wordsAndCounts) {
+            words.enqueue(word);
         }
 
         Comparator<String> order = new StringLT();
@@ -0,0 +1,284 @@
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@code Set<Character>} represented as a bitset over the Basic Multilingual
+ * Plane (one bit per {@code char} value).
+ *
+ * <p>
+ * The 128 ASCII characters live in two {@code long}s, so the common case of
+ * {@code contains} on an ASCII character is a comparison, a shift, and a mask;
+ * the bits for the rest of the plane are only allocated once a non-ASCII
+ * character is added. {@code contains(char)} takes its argument unboxed, so a
+ * tokenizer that asks about every character of its input through a
+ * {@code CharacterSet} (rather than through a {@code Set<Character>}) neither
+ * boxes the character nor allocates anything else. Null elements are not
+ * permitted.
+ * </p>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ */
+public final class CharacterSet extends AbstractSet<Character> {
+
+    /**
+     * Number of {@code char} values.
+     */
+    private static final int CHARACTER_COUNT = Character.MAX_VALUE + 1;
+
+    /**
+     * Number of ASCII characters, i.e., the first {@code char} value not held
+     * in {@code lowBits} or {@code highBits}.
+     */
+    private static final int ASCII_COUNT = 2 * Long.SIZE;
+
+    /**
+     * Number of bits in a word, as a shift: {@code c >>> WORD_SHIFT} is the
+     * index of the word holding the bit for {@code c}.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * Bits for the characters 0 through 63.
+     */
+    private long lowBits;
+
+    /**
+     * Bits for the characters 64 through 127.
+     */
+    private long highBits;
+
+    /**
+     * Bits for the characters 128 and up, one word per 64 characters (the
+     * first two words are unused), or null if none has ever been added.
+     */
+    private long[] otherBits;
+
+    /**
+     * Number of characters in this set.
+     */
+    private int size;
+
+    /**
+     * Number of changes made to this set, so iterators can detect them.
+     */
+    private int modCount;
+
+    /**
+     * Creates an empty set.
+     */
+    public CharacterSet() {
+        // no code needed here...
+    }
+
+    /**
+     * Returns the word of bits holding the bit for the characters
+     * [64 * i, 64 * (i + 1)).
+     *
+     * @param i
+     *            the index of the word
+     * @return the word
+     */
+    private long word(int i) {
+        long w;
+        if (i == 0) {
+            w = this.lowBits;
+        } else if (i == 1) {
+            w = this.highBits;
+        } else if (this.otherBits == null) {
+            w = 0;
+        } else {
+            w = this.otherBits[i];
+        }
+        return w;
+    }
+
+    /**
+     * Flips the bit for {@code c}.
+     *
+     * @param c
+     *            the character
+     */
+    private void flip(char c) {
+        /*
+         * Shifts of a long use only the low six bits of the distance, so
+         * 1L << c is the mask of c within its word.
+         */
+        long mask = 1L << c;
+        if (c < Long.SIZE) {
+            this.lowBits ^= mask;
+        } else if (c < ASCII_COUNT) {
+            this.highBits ^= mask;
+        } else {
+            if (this.otherBits == null) {
+                this.otherBits = new long[CHARACTER_COUNT >>> WORD_SHIFT];
+            }
+            this.otherBits[c >>> WORD_SHIFT] ^= mask;
+        }
+        this.modCount++;
+    }
+
+    /**
+     * Returns the smallest character in this set that is at least
+     * {@code from}, or {@code CHARACTER_COUNT} if there is none.
+     *
+     * @param from
+     *            the smallest character to consider, at most
+     *            {@code CHARACTER_COUNT}
+     * @return the smallest such character, or {@code CHARACTER_COUNT}
+     */
+    private int nextFrom(int from) {
+        int words;
+        if (this.otherBits == null) {
+            words = 2;
+        } else {
+            words = this.otherBits.length;
+        }
+        int result = CHARACTER_COUNT;
+        int i = from >>> WORD_SHIFT;
+        if (i < words) {
+            long w = this.word(i) & (-1L << from);
+            while (w == 0 && i + 1 < words) {
+                i++;
+                w = this.word(i);
+            }
+            if (w != 0) {
+                result = (i << WORD_SHIFT) + Long.numberOfTrailingZeros(w);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reports whether {@code c} is in this set, without boxing it.
+     *
+     * @param c
+     *            the character to be checked
+     * @return true iff {@code c} is in this set
+     */
+    public boolean contains(char c) {
+        long mask = 1L << c;
+        long w;
+        if (c < Long.SIZE) {
+            w = this.lowBits;
+        } else if (c < ASCII_COUNT) {
+            w = this.highBits;
+        } else if (this.otherBits == null) {
+            w = 0;
+        } else {
+            w = this.otherBits[c >>> WORD_SHIFT];
+        }
+        return (w & mask) != 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Character
+                && this.contains(((Character) o).charValue());
+    }
+
+    @Override
+    public boolean add(Character c) {
+        boolean added = !this.contains(c.charValue());
+        if (added) {
+            this.flip(c);
+            this.size++;
+        }
+        return added;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        boolean removed = this.contains(o);
+        if (removed) {
+            this.flip((Character) o);
+            this.size--;
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        this.lowBits = 0;
+        this.highBits = 0;
+        this.otherBits = null;
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Iterator<Character> iterator() {
+        return new CharacterSetIterator();
+    }
+
+    /**
+     * Iterator over a {@code CharacterSet}, visiting the characters in
+     * increasing order.
+     */
+    private final class CharacterSetIterator implements Iterator<Character> {
+
+        /**
+         * Character that comes next, or {@code CHARACTER_COUNT} if all have
+         * been seen.
+         */
+        private int next;
+
+        /**
+         * Character last returned by {@code next}, or -1 if there is none or
+         * it has been removed.
+         */
+        private int last = -1;
+
+        /**
+         * Value of {@code modCount} this iterator expects.
+         */
+        private int expectedModCount;
+
+        /**
+         * Creates an iterator starting at the smallest character.
+         */
+        CharacterSetIterator() {
+            this.next = CharacterSet.this.nextFrom(0);
+            this.expectedModCount = CharacterSet.this.modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < CHARACTER_COUNT;
+        }
+
+        @Override
+        public Character next() {
+            if (CharacterSet.this.modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next;
+            this.next = CharacterSet.this.nextFrom(this.next + 1);
+            return (char) this.last;
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            if (CharacterSet.this.modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            CharacterSet.this.remove((char) this.last);
+            this.last = -1;
+            this.expectedModCount = CharacterSet.this.modCount;
+        }
+
+    }
+
+}
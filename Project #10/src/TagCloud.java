@@ -7,13 +7,11 @@ import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
-import java.util.Set;
 
 /**
  * This Java program counts word occurrences in a user-specified text (.txt)
@@ -92,7 +90,7 @@ public final class TagCloud {
      * @requires in.is_open
      */
     public static Map<String, Integer> wordScrape(BufferedReader in,
-            Set<Character> separators) {
+            CharacterSet separators) {
         Map<String, Integer> wordsAndCount = new HashMap<>();
         String line = null;
         try {
@@ -130,14 +128,26 @@ public final class TagCloud {
             Map<String, Integer> map, int tagCloudSize) {
         Comparator<Map.Entry<String, Integer>> keyCompare = new StringLT();
         Comparator<Map.Entry<String, Integer>> valCompare = new IntegerLT();
+        /*
+         * Only the tagCloudSize entries with the largest counts seen so far
+         * are kept, in a heap whose head is the one with the smallest count,
+         * so each entry costs at most O(log tagCloudSize) time and the heap
+         * never grows past tagCloudSize entries, however many words there are.
+         */
         Queue<Map.Entry<String, Integer>> topCount = new PriorityQueue<>(
-                valCompare);
-        topCount.addAll(map.entrySet());
+                valCompare.reversed());
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            if (topCount.size() < tagCloudSize) {
+                topCount.add(entry);
+            } else if (tagCloudSize > 0
+                    && valCompare.compare(entry, topCount.peek()) < 0) {
+                topCount.remove();
+                topCount.add(entry);
+            }
+        }
         Queue<Map.Entry<String, Integer>> topWords = new PriorityQueue<>(
                 tagCloudSize, keyCompare);
-        for (int i = 0; i < tagCloudSize && !topCount.isEmpty(); i++) {
-            topWords.add(topCount.remove());
-        }
+        topWords.addAll(topCount);
         return topWords;
     }
 
@@ -186,7 +196,7 @@ public final class TagCloud {
      * @return list containing all words.
      */
     public static List<String> nextWordsInLine(String line,
-            Set<Character> set) {
+            CharacterSet set) {
         List<String> list = new LinkedList<>();
         StringBuilder word = new StringBuilder();
         for (int i = 0; i < line.length(); i++) {
@@ -275,7 +285,7 @@ public final class TagCloud {
         }
 
         char[] s = " \t\n\r,-.!?[]';:/()".toCharArray();
-        Set<Character> set = new HashSet<>();
+        CharacterSet set = new CharacterSet();
         for (char x : s) {
             set.add(x);
         }
@@ -0,0 +1,278 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code CharacterSet}, checked against
+ * {@code HashSet<Character>} with ASCII, Latin-1, and other Basic Multilingual
+ * Plane characters, including those at the edges of the 64-bit words of the
+ * bitset.
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public final class CharacterSetTest {
+
+    /**
+     * Characters used by the tests: the ends of the ASCII words, a few
+     * separators, Latin-1, the start of the characters held in
+     * {@code otherBits}, and characters far apart in the rest of the plane,
+     * up to the last one.
+     */
+    private static final char[] CHARACTERS = {'\u0000', ' ', '\t', ',', '?',
+        '@', 'a', 'z', '\u007f', '\u0080', '\u00bf', '\u00c0', '\u00e9',
+        '\u00ff', '\u0100', '\u2014', '\u4e2d', '\ufffe', '\uffff'};
+
+    /**
+     * Number of {@code char} values.
+     */
+    private static final int CHARACTER_COUNT = Character.MAX_VALUE + 1;
+
+    /**
+     * Returns a new {@code CharacterSet} with the given characters.
+     *
+     * @param chars
+     *            the characters
+     * @return the set
+     */
+    private static CharacterSet createFromArgsTest(char... chars) {
+        CharacterSet set = new CharacterSet();
+        for (char c : chars) {
+            set.add(c);
+        }
+        return set;
+    }
+
+    /**
+     * Returns a new {@code HashSet<Character>} with the given characters.
+     *
+     * @param chars
+     *            the characters
+     * @return the set
+     */
+    private static Set<Character> createFromArgsRef(char... chars) {
+        Set<Character> set = new HashSet<Character>();
+        for (char c : chars) {
+            set.add(c);
+        }
+        return set;
+    }
+
+    /**
+     * Checks that {@code contains(char)} and {@code contains(Object)} of
+     * {@code s} agree with {@code contains} of {@code expected} on every
+     * {@code char} value.
+     *
+     * @param expected
+     *            the reference set
+     * @param s
+     *            the set under test
+     */
+    private static void assertContainsAll(Set<Character> expected,
+            CharacterSet s) {
+        for (int i = 0; i < CHARACTER_COUNT; i++) {
+            char c = (char) i;
+            String message = "contains('\\u" + Integer.toHexString(i) + "')";
+            assertEquals(message, expected.contains(c), s.contains(c));
+            assertEquals(message, expected.contains(c),
+                    s.contains(Character.valueOf(c)));
+        }
+    }
+
+    /**
+     * Testing the constructor.
+     */
+    @Test
+    public void testConstructor() {
+        CharacterSet s = new CharacterSet();
+        assertEquals(createFromArgsRef(), s);
+        assertEquals(0, s.size());
+        assertFalse(s.iterator().hasNext());
+    }
+
+    /**
+     * Testing .add() and .contains() of every test character.
+     */
+    @Test
+    public void testAddContains() {
+        CharacterSet s = new CharacterSet();
+        Set<Character> sExpected = createFromArgsRef();
+        for (char c : CHARACTERS) {
+            assertEquals(sExpected.add(c), s.add(c));
+            assertFalse(s.add(c));
+        }
+        assertEquals(sExpected, s);
+        assertEquals(CHARACTERS.length, s.size());
+        assertContainsAll(sExpected, s);
+    }
+
+    /**
+     * Testing .contains() of characters 64 apart, which share a bit position
+     * in different words.
+     */
+    @Test
+    public void testContainsSameBitOtherWord() {
+        CharacterSet s = createFromArgsTest('\u0001');
+        Set<Character> sExpected = createFromArgsRef('\u0001');
+        assertContainsAll(sExpected, s);
+        s.add('\u00c1');
+        sExpected.add('\u00c1');
+        assertContainsAll(sExpected, s);
+    }
+
+    /**
+     * Testing .contains() of objects that are not characters.
+     */
+    @Test
+    public void testContainsOtherObject() {
+        CharacterSet s = createFromArgsTest('a');
+        assertFalse(s.contains("a"));
+        assertFalse(s.contains(Integer.valueOf('a')));
+        assertFalse(s.contains(null));
+    }
+
+    /**
+     * Testing .remove() of every test character, in turn.
+     */
+    @Test
+    public void testRemove() {
+        CharacterSet s = createFromArgsTest(CHARACTERS);
+        Set<Character> sExpected = createFromArgsRef(CHARACTERS);
+        for (char c : CHARACTERS) {
+            assertEquals(sExpected.remove(c), s.remove(c));
+            assertFalse(s.remove(c));
+            assertEquals(sExpected, s);
+        }
+        assertEquals(0, s.size());
+        assertContainsAll(sExpected, s);
+    }
+
+    /**
+     * Testing .iterator() visits every character once, in increasing order,
+     * across the words of the bitset.
+     */
+    @Test
+    public void testIterator() {
+        CharacterSet s = createFromArgsTest(CHARACTERS);
+        Set<Character> seen = createFromArgsRef();
+        int previous = -1;
+        for (Character c : s) {
+            assertTrue(c > previous);
+            assertTrue(seen.add(c));
+            previous = c;
+        }
+        assertEquals(createFromArgsRef(CHARACTERS), seen);
+    }
+
+    /**
+     * Testing .iterator() over characters only outside ASCII, far apart.
+     */
+    @Test
+    public void testIteratorOnlyOtherCharacters() {
+        CharacterSet s = createFromArgsTest('\uffff', '\u00e9', '\u4e2d');
+        Iterator<Character> it = s.iterator();
+        assertEquals(Character.valueOf('\u00e9'), it.next());
+        assertEquals(Character.valueOf('\u4e2d'), it.next());
+        assertEquals(Character.valueOf('\uffff'), it.next());
+        assertFalse(it.hasNext());
+    }
+
+    /**
+     * Testing .next() past the end.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testIteratorNextPastEnd() {
+        Iterator<Character> it = createFromArgsTest('\uffff').iterator();
+        it.next();
+        it.next();
+    }
+
+    /**
+     * Testing the iterator's .remove() on every other character.
+     */
+    @Test
+    public void testIteratorRemove() {
+        CharacterSet s = createFromArgsTest(CHARACTERS);
+        Set<Character> sExpected = createFromArgsRef(CHARACTERS);
+        Iterator<Character> it = s.iterator();
+        boolean remove = true;
+        int count = 0;
+        while (it.hasNext()) {
+            Character c = it.next();
+            count++;
+            if (remove) {
+                it.remove();
+                sExpected.remove(c);
+            }
+            remove = !remove;
+        }
+        assertEquals(CHARACTERS.length, count);
+        assertEquals(sExpected, s);
+        assertContainsAll(sExpected, s);
+    }
+
+    /**
+     * Testing the iterator's .remove() before .next().
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testIteratorRemoveBeforeNext() {
+        createFromArgsTest('a').iterator().remove();
+    }
+
+    /**
+     * Testing the iterator's .remove() twice after one .next().
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testIteratorRemoveTwice() {
+        Iterator<Character> it = createFromArgsTest('a', '\u00e9').iterator();
+        it.next();
+        it.remove();
+        it.remove();
+    }
+
+    /**
+     * Testing .next() after the set is modified other than through the
+     * iterator.
+     */
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorConcurrentModification() {
+        CharacterSet s = createFromArgsTest('a', '\u00e9');
+        Iterator<Character> it = s.iterator();
+        it.next();
+        s.add('\uffff');
+        it.next();
+    }
+
+    /**
+     * Testing the iterator's .remove() after the set is modified other than
+     * through the iterator.
+     */
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorRemoveConcurrentModification() {
+        CharacterSet s = createFromArgsTest('a', '\u00e9');
+        Iterator<Character> it = s.iterator();
+        it.next();
+        s.remove('\u00e9');
+        it.remove();
+    }
+
+    /**
+     * Testing .clear().
+     */
+    @Test
+    public void testClear() {
+        CharacterSet s = createFromArgsTest(CHARACTERS);
+        s.clear();
+        assertEquals(createFromArgsRef(), s);
+        assertContainsAll(createFromArgsRef(), s);
+    }
+
+}
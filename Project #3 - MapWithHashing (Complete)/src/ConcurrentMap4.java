@@ -0,0 +1,525 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as an array of {@code Map4} segments, each guarded by
+ * its own lock, with implementations of primary methods. A key always lives in
+ * the segment selected by its hash code, so threads updating keys in different
+ * segments never wait for each other.
+ *
+ * <p>
+ * The kernel methods and the single-probe update methods {@code putIfAbsent},
+ * {@code merge}, and {@code compute} may be called concurrently from any
+ * number of threads; each locks only the segment of its key (or, for
+ * {@code removeAny}, the first non-empty segment it finds; if other threads
+ * empty {@code this} after its precondition was checked, it finds none in a
+ * pass over the segments and throws {@code NoSuchElementException} rather
+ * than waiting for a pair to be added). The size is kept
+ * in a {@code LongAdder}, so counting entries does not make every update
+ * contend on one shared field. Iteration is weakly consistent: each segment is
+ * copied under its lock when the iterator reaches it. The standard methods
+ * {@code clear}, {@code newInstance}, and {@code transferFrom} replace the
+ * whole representation and must not run concurrently with other calls on the
+ * same object.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @mathdefinitions <pre>
+ * SEGMENT(
+ *   x: K,
+ *   n: integer
+ *  ): integer is
+ *  [spread of the computed result of x.hashCode()] mod n
+ * </pre>
+ * @convention <pre>
+ * [|$this.segments| is a power of 2]  and
+ * for all i: integer, x: K
+ *     where (0 <= i  and  i < |$this.segments|  and
+ *            x is in DOMAIN($this.segments[i]))
+ *   (SEGMENT(x, |$this.segments|) = i)  and
+ * $this.size = sum i: integer
+ *     where (0 <= i  and  i < |$this.segments|)
+ *   (|$this.segments[i]|)
+ * [when no call is in progress]
+ * </pre>
+ * @correspondence <pre>
+ * this = union i: integer
+ *     where (0 <= i  and  i < |$this.segments|)
+ *   ($this.segments[i])
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class ConcurrentMap4<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default number of segments.
+     */
+    private static final int DEFAULT_SEGMENT_COUNT = 16;
+
+    /**
+     * Segments, each used as its own lock.
+     */
+    private Map4<K, V>[] segments;
+
+    /**
+     * Total size of abstract {@code this}.
+     */
+    private LongAdder size;
+
+    /**
+     * Returns the segment of a table with {@code segmentCount} segments for a
+     * key with hash code {@code hashCode}. The high bits of the hash code are
+     * folded in so that the segment does not depend only on the bits that
+     * {@code Map4} uses to pick a bucket within it.
+     *
+     * @param hashCode
+     *            the hash code of the key
+     * @param segmentCount
+     *            the number of segments
+     * @return SEGMENT(key, segmentCount)
+     * @requires [segmentCount is a power of 2]
+     * @ensures 0 <= segmentIndex < segmentCount
+     */
+    private static int segmentIndex(int hashCode, int segmentCount) {
+        final int halfWord = 16;
+        return (hashCode ^ (hashCode >>> halfWord)) & (segmentCount - 1);
+    }
+
+    /**
+     * Returns the segment in which {@code key} is (or would be) stored.
+     *
+     * @param key
+     *            the key
+     * @return the segment for {@code key}
+     * @requires key is not null
+     * @ensures segmentFor = $this.segments[SEGMENT(key, |$this.segments|)]
+     */
+    private Map4<K, V> segmentFor(K key) {
+        return this.segments[segmentIndex(key.hashCode(),
+                this.segments.length)];
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param segmentCount
+     *            the number of segments
+     * @requires [segmentCount is a power of 2]
+     * @ensures <pre>
+     * |$this.segments| = segmentCount  and
+     * [every segment is empty]  and
+     * $this.size = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(int segmentCount) {
+        /*
+         * With "new Map4<K, V>[...]" in place of "new Map4[...]" it does not
+         * compile; as shown, it results in a warning about an unchecked
+         * conversion, though it cannot fail.
+         */
+        this.segments = new Map4[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            this.segments[i] = new Map4<K, V>();
+        }
+        this.size = new LongAdder();
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public ConcurrentMap4() {
+        this.createNewRep(DEFAULT_SEGMENT_COUNT);
+    }
+
+    /**
+     * Constructor resulting in at least {@code concurrencyLevel} segments, so
+     * that about that many threads can update {@code this} without waiting.
+     *
+     * @param concurrencyLevel
+     *            the expected number of concurrently updating threads
+     * @requires concurrencyLevel > 0
+     * @ensures this = {}
+     */
+    public ConcurrentMap4(int concurrencyLevel) {
+        assert concurrencyLevel > 0 : "Violation of: concurrencyLevel > 0";
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel) {
+            segmentCount *= 2;
+        }
+        this.createNewRep(segmentCount);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.segments.length);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof ConcurrentMap4<?, ?> : ""
+                + "Violation of: source is of dynamic type ConcurrentMap4<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * ConcurrentMap4<?,?>, and the ?,? must be K,V or the call would not
+         * have compiled.
+         */
+        ConcurrentMap4<K, V> localSource = (ConcurrentMap4<K, V>) source;
+        this.segments = localSource.segments;
+        this.size = localSource.size;
+        localSource.createNewRep(DEFAULT_SEGMENT_COUNT);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        Map4<K, V> segment = this.segmentFor(key);
+        synchronized (segment) {
+            segment.add(key, value);
+        }
+        this.size.increment();
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        Map4<K, V> segment = this.segmentFor(key);
+        Pair<K, V> removed;
+        synchronized (segment) {
+            removed = segment.remove(key);
+        }
+        this.size.decrement();
+        return removed;
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Pair<K, V> removed = null;
+        for (int i = 0; removed == null && i < this.segments.length; i++) {
+            Map4<K, V> segment = this.segments[i];
+            synchronized (segment) {
+                if (segment.size() > 0) {
+                    removed = segment.removeAny();
+                }
+            }
+        }
+        if (removed == null) {
+            /*
+             * Other threads took every pair after the size was checked (or,
+             * with assertion checking off, this was empty to begin with); a
+             * pair skipped in an earlier segment may have been added since,
+             * but waiting for one could take forever.
+             */
+            throw new NoSuchElementException(
+                    "Violation of: this /= empty_set");
+        }
+        this.size.decrement();
+        return removed;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        Map4<K, V> segment = this.segmentFor(key);
+        synchronized (segment) {
+            return segment.value(key);
+        }
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        Map4<K, V> segment = this.segmentFor(key);
+        synchronized (segment) {
+            return segment.hasKey(key);
+        }
+    }
+
+    @Override
+    public final int size() {
+        return this.size.intValue();
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new ConcurrentMap4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code ConcurrentMap4}.
+     * Each segment is copied under its lock when the iterator reaches it.
+     */
+    private final class ConcurrentMap4Iterator
+            implements Iterator<Pair<K, V>> {
+
+        /**
+         * Index of the next segment to copy.
+         */
+        private int nextSegment;
+
+        /**
+         * Pairs copied from the current segment.
+         */
+        private Pair<K, V>[] pairs;
+
+        /**
+         * Index of the next pair of {@code pairs} to return.
+         */
+        private int nextPair;
+
+        /**
+         * No-argument constructor.
+         */
+        @SuppressWarnings("unchecked")
+        ConcurrentMap4Iterator() {
+            this.nextSegment = 0;
+            this.pairs = new Pair[0];
+            this.nextPair = 0;
+            this.advance();
+        }
+
+        /**
+         * Copies segments until one with an unseen pair is found or every
+         * segment has been copied.
+         */
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            while (this.nextPair == this.pairs.length
+                    && this.nextSegment < ConcurrentMap4.this.segments.length) {
+                Map4<K, V>[] all = ConcurrentMap4.this.segments;
+                Map4<K, V> segment = all[this.nextSegment];
+                synchronized (segment) {
+                    this.pairs = new Pair[segment.size()];
+                    int i = 0;
+                    for (Pair<K, V> p : segment) {
+                        this.pairs[i] = p;
+                        i++;
+                    }
+                }
+                this.nextPair = 0;
+                this.nextSegment++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextPair < this.pairs.length;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Pair<K, V> next = this.pairs[this.nextPair];
+            this.nextPair++;
+            this.advance();
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final V replaceValue(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        Map4<K, V> segment = this.segmentFor(key);
+        synchronized (segment) {
+            return segment.replaceValue(key, value);
+        }
+    }
+
+    /*
+     * Single-probe update methods --------------------------------------------
+     */
+
+    /**
+     * Adds the pair ({@code key}, {@code value}) to {@code this} if
+     * {@code key} is not already in DOMAIN(this), and reports the value
+     * already associated with {@code key}, if any. The check and the addition
+     * happen atomically.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value to associate with {@code key} if it is absent
+     * @return the value associated with {@code key} in {@code #this}, or null
+     *         if {@code key} was not in DOMAIN(#this)
+     * @updates this
+     * @requires key is not null and value is not null
+     * @ensures <pre>
+     * if key is in DOMAIN(#this) then
+     *   this = #this  and  putIfAbsent = #this(key)
+     * else
+     *   this = #this union {(key, value)}  and  putIfAbsent = null
+     * </pre>
+     */
+    public final V putIfAbsent(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        Map4<K, V> segment = this.segmentFor(key);
+        V old;
+        synchronized (segment) {
+            old = segment.putIfAbsent(key, value);
+        }
+        if (old == null) {
+            this.size.increment();
+        }
+        return old;
+    }
+
+    /**
+     * Associates {@code key} with {@code value} if {@code key} is not in
+     * DOMAIN(this), and otherwise with the result of applying
+     * {@code remapping} to its current value and {@code value}; a null result
+     * removes {@code key}. The whole update happens atomically, so, for
+     * example, {@code m.merge(word, 1, Integer::sum)} from many threads counts
+     * every occurrence.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value to associate, or to combine with the current value
+     * @param remapping
+     *            the function combining the current value and {@code value}
+     * @return the value now associated with {@code key}, or null if
+     *         {@code key} is no longer in DOMAIN(this)
+     * @updates this
+     * @requires key is not null and value is not null and remapping is not
+     *           null
+     * @ensures <pre>
+     * if key is not in DOMAIN(#this) then
+     *   this = #this union {(key, value)}  and  merge = value
+     * else if remapping(#this(key), value) = null then
+     *   this = #this \ {(key, #this(key))}  and  merge = null
+     * else
+     *   this = (#this \ {(key, #this(key))}) union
+     *          {(key, remapping(#this(key), value))}  and
+     *   merge = remapping(#this(key), value)
+     * </pre>
+     */
+    public final V merge(K key, V value,
+            BiFunction<? super V, ? super V, ? extends V> remapping) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert remapping != null : "Violation of: remapping is not null";
+
+        Map4<K, V> segment = this.segmentFor(key);
+        V result;
+        int sizeChange;
+        synchronized (segment) {
+            int oldSize = segment.size();
+            result = segment.merge(key, value, remapping);
+            sizeChange = segment.size() - oldSize;
+        }
+        this.size.add(sizeChange);
+        return result;
+    }
+
+    /**
+     * Associates {@code key} with the result of applying {@code remapping} to
+     * {@code key} and its current value (null if {@code key} is not in
+     * DOMAIN(this)); a null result leaves {@code key} out of DOMAIN(this). The
+     * whole update happens atomically.
+     *
+     * @param key
+     *            the key
+     * @param remapping
+     *            the function computing the new value
+     * @return the value now associated with {@code key}, or null if
+     *         {@code key} is not in DOMAIN(this)
+     * @updates this
+     * @requires key is not null and remapping is not null
+     * @ensures <pre>
+     * [let y = remapping(key, #this(key) if key is in DOMAIN(#this),
+     *                         else null)]
+     * if y = null then
+     *   this = #this \ {(key, #this(key))}  and  compute = null
+     * else
+     *   this = (#this \ {(key, #this(key))}) union {(key, y)}  and
+     *   compute = y
+     * </pre>
+     */
+    public final V compute(K key,
+            BiFunction<? super K, ? super V, ? extends V> remapping) {
+        assert key != null : "Violation of: key is not null";
+        assert remapping != null : "Violation of: remapping is not null";
+
+        Map4<K, V> segment = this.segmentFor(key);
+        V result;
+        int sizeChange;
+        synchronized (segment) {
+            int oldSize = segment.size();
+            result = segment.compute(key, remapping);
+            sizeChange = segment.size() - oldSize;
+        }
+        this.size.add(sizeChange);
+        return result;
+    }
+
+}
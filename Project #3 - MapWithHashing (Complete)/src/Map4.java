@@ -1,38 +1,108 @@
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
 
 import components.map.Map;
-import components.map.Map2;
 import components.map.MapSecondary;
 
 /**
- * {@code Map} represented as a hash table using {@code Map}s for the buckets,
- * with implementations of primary methods.
+ * {@code Map} represented as a hash table using singly linked chains of nodes
+ * for the buckets, with implementations of primary methods.
+ *
+ * <p>
+ * Every operation hashes its key once and walks a single chain, and the
+ * updating operations ({@code putIfAbsent}, {@code merge}, {@code compute},
+ * and the kernel methods built on them) change the entry they find in place,
+ * so a read-modify-write of one key costs one probe rather than three.
+ * </p>
+ *
+ * <p>
+ * The hash table grows once {@code size} exceeds {@code MAX_LOAD_FACTOR} times
+ * the number of buckets. Growing does not rehash every entry at once: a new,
+ * larger table is allocated and the chains of the old table are relinked into
+ * it {@code REHASH_STEP} buckets at a time by each subsequent updating call, so
+ * no single call pays for the whole rehash. While a migration is in progress,
+ * the buckets of the old table at positions {@code $this.rehashIndex} and
+ * above still hold their entries.
+ * </p>
+ *
+ * <p>
+ * Each table also keeps a dense list of its non-empty buckets, so
+ * {@code removeAny} and the iterator go straight to an occupied bucket instead
+ * of scanning past empty ones; draining a large, sparse table costs O(1) per
+ * entry.
+ * </p>
+ *
+ * <p>
+ * A {@code Map4} constructed with {@code mixHashes} set passes every
+ * {@code hashCode} through a murmur-style finalizer before reducing it mod the
+ * number of buckets, so keys whose hash codes differ only in a few bits, or
+ * share a common factor with the table size, still spread over the buckets.
+ * {@code statistics} samples how well the keys are spread at any time.
+ * </p>
  *
  * @param <K>
  *            type of {@code Map} domain (key) entries
  * @param <V>
  *            type of {@code Map} range (associated value) entries
+ * @mathdefinitions <pre>
+ * CHAIN(
+ *   n: Node
+ *  ): finite set of (K, V) is
+ *  [the (key, value) pairs in the nodes of the chain starting at n, following
+ *   next references until null]
+ *
+ * HASH(
+ *   x: K
+ *  ): integer is
+ *  if $this.mixHashes then
+ *    [computed result of x.hashCode() after the finalizer in hash]
+ *  else
+ *    [computed result of x.hashCode()]
+ *
+ * IS_INDEXED(
+ *   t: Table
+ *  ): boolean is
+ *  0 <= t.nonEmptyCount <= |t.buckets|  and
+ *  |t.nonEmpty| = |t.position| = |t.buckets|  and
+ *  [t.nonEmpty[0, t.nonEmptyCount) lists, without repetition, exactly the
+ *   indices of the non-null entries of t.buckets]  and
+ *  for all k: integer
+ *      where (0 <= k  and  k < t.nonEmptyCount)
+ *    (t.position[t.nonEmpty[k]] = k)
+ * </pre>
  * @convention <pre>
- * |$this.hashTable| > 0  and
- * for all i: integer, pf: PARTIAL_FUNCTION, x: K
- *     where (0 <= i  and  i < |$this.hashTable|  and
- *            <pf> = $this.hashTable[i, i+1)  and
- *            x is in DOMAIN(pf))
- *   ([computed result of x.hashCode()] mod |$this.hashTable| = i))  and
- * for all i: integer
- *     where (0 <= i  and  i < |$this.hashTable|)
- *   ([entry at position i in $this.hashTable is not null])  and
- * $this.size = sum i: integer, pf: PARTIAL_FUNCTION
- *     where (0 <= i  and  i < |$this.hashTable|  and
- *            <pf> = $this.hashTable[i, i+1))
- *   (|pf|)
+ * |$this.hashTable.buckets| > 0  and
+ * IS_INDEXED($this.hashTable)  and
+ * for all i: integer, x: K, y: V
+ *     where (0 <= i  and  i < |$this.hashTable.buckets|  and
+ *            (x, y) is in CHAIN($this.hashTable.buckets[i]))
+ *   (HASH(x) mod |$this.hashTable.buckets| = i)  and
+ * if $this.oldHashTable /= null then
+ *   (IS_INDEXED($this.oldHashTable)  and
+ *    0 <= $this.rehashIndex <= |$this.oldHashTable.buckets|  and
+ *    for all i: integer, x: K, y: V
+ *        where (0 <= i  and  i < |$this.oldHashTable.buckets|  and
+ *               (x, y) is in CHAIN($this.oldHashTable.buckets[i]))
+ *      (HASH(x) mod
+ *         |$this.oldHashTable.buckets| = i  and
+ *       $this.rehashIndex <= i))  and
+ * [no key appears in more than one node, and no node is on more than one
+ *  chain]  and
+ * [the key and value of every node are not null]  and
+ * $this.size = [total number of nodes on all chains of $this.hashTable and
+ *               $this.oldHashTable]  and
+ * $this.rehashCount >= 0
  * </pre>
  * @correspondence <pre>
- * this = union i: integer, pf: PARTIAL_FUNCTION
- *            where (0 <= i  and  i < |$this.hashTable|  and
- *                   <pf> = $this.hashTable[i, i+1))
- *          (pf)
+ * this = (union i: integer
+ *             where (0 <= i  and  i < |$this.hashTable.buckets|)
+ *           (CHAIN($this.hashTable.buckets[i]))) union
+ *        (union i: integer
+ *             where ($this.oldHashTable /= null  and
+ *                    0 <= i  and  i < |$this.oldHashTable.buckets|)
+ *           (CHAIN($this.oldHashTable.buckets[i])))
  * </pre>
  *
  * @author Danny Kan (kan.74@osu.edu)
@@ -49,16 +119,348 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      */
     private static final int DEFAULT_HASH_TABLE_SIZE = 101;
 
+    /**
+     * Ratio of {@code size} to number of buckets above which the hash table
+     * grows.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Number of buckets of the old hash table migrated by each updating call
+     * while a rehash is in progress.
+     */
+    private static final int REHASH_STEP = 4;
+
+    /**
+     * Node class for bucket chains.
+     */
+    private final class Node {
+
+        /**
+         * Key in node.
+         */
+        private K key;
+
+        /**
+         * Value associated with key.
+         */
+        private V value;
+
+        /**
+         * Next node on the same chain, or null.
+         */
+        private Node next;
+
+    }
+
+    /**
+     * Simple implementation of {@code Pair} returned by {@code remove} and
+     * {@code removeAny} and produced by the iterator.
+     *
+     * @param <K>
+     *            type of key
+     * @param <V>
+     *            type of value
+     */
+    private static final class SimplePair<K, V> implements Pair<K, V> {
+
+        /**
+         * The key.
+         */
+        private final K key;
+
+        /**
+         * The value.
+         */
+        private final V value;
+
+        /**
+         * Constructor from key and value.
+         *
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         */
+        SimplePair(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K key() {
+            return this.key;
+        }
+
+        @Override
+        public V value() {
+            return this.value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Pair<?, ?>)) {
+                return false;
+            }
+            Pair<?, ?> p = (Pair<?, ?>) obj;
+            return this.key.equals(p.key()) && this.value.equals(p.value());
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            return prime * this.key.hashCode() + this.value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "(" + this.key + "," + this.value + ")";
+        }
+
+    }
+
+    /**
+     * Hash table: the chains of the buckets plus a dense list of the non-empty
+     * buckets.
+     */
+    private final class Table {
+
+        /**
+         * First node of each bucket's chain, or null if the bucket is empty.
+         */
+        private Node[] buckets;
+
+        /**
+         * Indices of the non-empty buckets, in positions [0, nonEmptyCount).
+         */
+        private int[] nonEmpty;
+
+        /**
+         * Position of each non-empty bucket in {@code nonEmpty}; irrelevant
+         * for empty buckets.
+         */
+        private int[] position;
+
+        /**
+         * Number of non-empty buckets.
+         */
+        private int nonEmptyCount;
+
+        /**
+         * Constructor resulting in {@code size} empty buckets.
+         *
+         * @param size
+         *            the number of buckets
+         */
+        @SuppressWarnings("unchecked")
+        Table(int size) {
+            /*
+             * With "new Node[...]" in place of "(Node[]) new Map4.Node[...]" it
+             * does not compile, because Node is an inner class of a generic
+             * class; as shown, it results in a warning about an unchecked cast,
+             * though it cannot fail.
+             */
+            this.buckets = (Node[]) new Map4.Node[size];
+            this.nonEmpty = new int[size];
+            this.position = new int[size];
+            this.nonEmptyCount = 0;
+        }
+
+        /**
+         * Adds {@code n} at the front of bucket {@code i}, recording the bucket
+         * as non-empty if it was empty.
+         *
+         * @param i
+         *            the bucket
+         * @param n
+         *            the node
+         */
+        void push(int i, Node n) {
+            if (this.buckets[i] == null) {
+                this.position[i] = this.nonEmptyCount;
+                this.nonEmpty[this.nonEmptyCount] = i;
+                this.nonEmptyCount++;
+            }
+            n.next = this.buckets[i];
+            this.buckets[i] = n;
+        }
+
+        /**
+         * Records bucket {@code i}, which has just become empty, as empty.
+         *
+         * @param i
+         *            the bucket
+         */
+        void emptied(int i) {
+            int k = this.position[i];
+            int last = this.nonEmpty[this.nonEmptyCount - 1];
+            this.nonEmpty[k] = last;
+            this.position[last] = k;
+            this.nonEmptyCount--;
+        }
+
+    }
+
+    /**
+     * Snapshot of how the keys of a {@code Map4} are spread over its buckets,
+     * as returned by {@code statistics}.
+     */
+    public static final class Statistics {
+
+        /**
+         * Number of buckets.
+         */
+        private final int bucketCount;
+
+        /**
+         * Number of entries.
+         */
+        private final int size;
+
+        /**
+         * Number of buckets holding exactly k entries, at position k.
+         */
+        private final int[] occupancy;
+
+        /**
+         * Total number of nodes visited by looking up every key once.
+         */
+        private final long totalProbes;
+
+        /**
+         * Number of times the hash table has grown.
+         */
+        private final int rehashCount;
+
+        /**
+         * Constructor from the values sampled.
+         *
+         * @param bucketCount
+         *            the number of buckets
+         * @param size
+         *            the number of entries
+         * @param occupancy
+         *            the occupancy histogram
+         * @param totalProbes
+         *            the total number of nodes visited by looking up every key
+         * @param rehashCount
+         *            the number of times the hash table has grown
+         */
+        Statistics(int bucketCount, int size, int[] occupancy,
+                long totalProbes, int rehashCount) {
+            this.bucketCount = bucketCount;
+            this.size = size;
+            this.occupancy = occupancy;
+            this.totalProbes = totalProbes;
+            this.rehashCount = rehashCount;
+        }
+
+        /**
+         * Reports the number of buckets, counting both tables while a rehash
+         * is in progress.
+         *
+         * @return the number of buckets
+         */
+        public int bucketCount() {
+            return this.bucketCount;
+        }
+
+        /**
+         * Reports the number of entries.
+         *
+         * @return the number of entries
+         */
+        public int size() {
+            return this.size;
+        }
+
+        /**
+         * Returns the occupancy histogram: the entry at position k is the
+         * number of buckets whose chains hold exactly k entries.
+         *
+         * @return the occupancy histogram, of length {@code longestChain() + 1}
+         */
+        public int[] occupancyHistogram() {
+            return this.occupancy.clone();
+        }
+
+        /**
+         * Reports the number of entries in the longest chain.
+         *
+         * @return the length of the longest chain
+         */
+        public int longestChain() {
+            return this.occupancy.length - 1;
+        }
+
+        /**
+         * Reports the average number of nodes visited to find a key that is in
+         * the map, over all keys; 0 if the map is empty.
+         *
+         * @return the average probe length of a successful lookup
+         */
+        public double averageProbeLength() {
+            double average = 0.0;
+            if (this.size > 0) {
+                average = (double) this.totalProbes / this.size;
+            }
+            return average;
+        }
+
+        /**
+         * Reports the number of times the hash table has grown.
+         *
+         * @return the number of rehashes
+         */
+        public int rehashCount() {
+            return this.rehashCount;
+        }
+
+        @Override
+        public String toString() {
+            return "buckets=" + this.bucketCount + " size=" + this.size
+                    + " longestChain=" + this.longestChain()
+                    + " averageProbeLength=" + this.averageProbeLength()
+                    + " rehashCount=" + this.rehashCount + " occupancy="
+                    + Arrays.toString(this.occupancy);
+        }
+
+    }
+
     /**
      * Buckets for hashing.
      */
-    private Map<K, V>[] hashTable;
+    private Table hashTable;
+
+    /**
+     * Buckets being migrated into {@code hashTable}, or null if no rehash is
+     * in progress.
+     */
+    private Table oldHashTable;
+
+    /**
+     * Index of the next bucket of {@code oldHashTable} to be migrated.
+     */
+    private int rehashIndex;
 
     /**
      * Total size of abstract {@code this}.
      */
     private int size;
 
+    /**
+     * Whether hash codes are passed through the finalizer in {@code hash}.
+     */
+    private boolean mixHashes;
+
+    /**
+     * Number of times the hash table has grown.
+     */
+    private int rehashCount;
+
     /**
      * Computes {@code a} mod {@code b} as % should have been defined to work.
      *
@@ -85,6 +487,33 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         return r;
     }
 
+    /**
+     * Returns the hash code of {@code key} used to pick its bucket: the result
+     * of {@code key.hashCode()}, passed through the 32-bit finalizer of
+     * MurmurHash3 if {@code $this.mixHashes}.
+     *
+     * @param key
+     *            the key
+     * @return HASH(key)
+     * @requires key is not null
+     * @ensures hash = HASH(key)
+     */
+    private int hash(K key) {
+        int h = key.hashCode();
+        if (this.mixHashes) {
+            final int c1 = 0x85ebca6b;
+            final int c2 = 0xc2b2ae35;
+            final int shift1 = 16;
+            final int shift2 = 13;
+            h ^= h >>> shift1;
+            h *= c1;
+            h ^= h >>> shift2;
+            h *= c2;
+            h ^= h >>> shift1;
+        }
+        return h;
+    }
+
     /**
      * Creator of initial representation.
      *
@@ -92,26 +521,197 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      *            the size of the hash table
      * @requires hashTableSize > 0
      * @ensures <pre>
-     * |$this.hashTable| = hashTableSize  and
-     * for all i: integer
-     *     where (0 <= i  and  i < |$this.hashTable|)
-     *   ($this.hashTable[i, i+1) = <{}>)  and
-     * $this.size = 0
+     * |$this.hashTable.buckets| = hashTableSize  and
+     * [every bucket of $this.hashTable is empty]  and
+     * $this.oldHashTable = null  and
+     * $this.size = 0  and
+     * $this.rehashCount = 0
      * </pre>
      */
-    @SuppressWarnings("unchecked")
     private void createNewRep(int hashTableSize) {
-        /*
-         * With "new Map<K, V>[...]" in place of "new Map[...]" it does not
-         * compile; as shown, it results in a warning about an unchecked
-         * conversion, though it cannot fail.
-         */
-        this.hashTable = new Map[hashTableSize];
+        this.hashTable = new Table(hashTableSize);
+        this.oldHashTable = null;
+        this.rehashIndex = 0;
         this.size = 0;
-        int i = 0;
-        while (i < hashTableSize) {
-            this.hashTable[i] = new Map2<K, V>();
-            i++;
+        this.rehashCount = 0;
+    }
+
+    /**
+     * Returns the hash table whose bucket for {@code hashCode} holds (or would
+     * hold) a key with that hash code.
+     *
+     * @param hashCode
+     *            the hash code of the key
+     * @return $this.oldHashTable if that bucket has not been migrated yet,
+     *         $this.hashTable otherwise
+     */
+    private Table tableFor(int hashCode) {
+        Table table = this.hashTable;
+        if (this.oldHashTable != null && mod(hashCode,
+                this.oldHashTable.buckets.length) >= this.rehashIndex) {
+            table = this.oldHashTable;
+        }
+        return table;
+    }
+
+    /**
+     * Returns the node holding {@code key} on the chain starting at
+     * {@code first}, or null if there is none.
+     *
+     * @param first
+     *            the first node of the chain, or null
+     * @param key
+     *            the key to look for
+     * @return the node with {@code key}, or null
+     * @requires key is not null
+     * @ensures <pre>
+     * if key is a key in CHAIN(first) then
+     *   findNode.key = key
+     * else
+     *   findNode = null
+     * </pre>
+     */
+    private Node findNode(Node first, K key) {
+        Node n = first;
+        while (n != null && !n.key.equals(key)) {
+            n = n.next;
+        }
+        return n;
+    }
+
+    /**
+     * Adds a new node holding ({@code key}, {@code value}) to bucket
+     * {@code i} of {@code table}.
+     *
+     * @param table
+     *            the hash table
+     * @param i
+     *            the bucket
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @updates $this
+     * @requires <pre>
+     * table is $this.hashTable or $this.oldHashTable  and
+     * i = HASH(key) mod |table.buckets|  and
+     * table = tableFor(HASH(key))  and
+     * key is not in DOMAIN(this)
+     * </pre>
+     * @ensures this = #this union {(key, value)}
+     */
+    private void link(Table table, int i, K key, V value) {
+        Node n = new Node();
+        n.key = key;
+        n.value = value;
+        table.push(i, n);
+        this.size++;
+    }
+
+    /**
+     * Removes the node holding {@code key} from bucket {@code i} of
+     * {@code table}.
+     *
+     * @param table
+     *            the hash table
+     * @param i
+     *            the bucket
+     * @param key
+     *            the key
+     * @return the removed node
+     * @updates $this
+     * @requires <pre>
+     * table is $this.hashTable or $this.oldHashTable  and
+     * i = HASH(key) mod |table.buckets|  and
+     * key is a key in CHAIN(table.buckets[i])
+     * </pre>
+     * @ensures <pre>
+     * this = #this \ {(key, #this(key))}  and
+     * unlink.key = key  and  unlink.value = #this(key)
+     * </pre>
+     */
+    private Node unlink(Table table, int i, K key) {
+        Node previous = null;
+        Node n = table.buckets[i];
+        while (!n.key.equals(key)) {
+            previous = n;
+            n = n.next;
+        }
+        if (previous == null) {
+            table.buckets[i] = n.next;
+            if (n.next == null) {
+                table.emptied(i);
+            }
+        } else {
+            previous.next = n.next;
+        }
+        n.next = null;
+        this.size--;
+        return n;
+    }
+
+    /**
+     * Migrates up to {@code bucketCount} buckets of {@code $this.oldHashTable}
+     * into {@code $this.hashTable}, ending the rehash once every bucket has
+     * been migrated.
+     *
+     * @param bucketCount
+     *            the maximum number of buckets to migrate
+     * @updates $this
+     * @requires bucketCount > 0
+     * @ensures <pre>
+     * [up to bucketCount more buckets of $this.oldHashTable have been
+     *  relinked into $this.hashTable]  and
+     * [$this.oldHashTable = null if all of its buckets have been migrated]  and
+     * this = #this
+     * </pre>
+     */
+    private void rehashStep(int bucketCount) {
+        if (this.oldHashTable != null) {
+            Node[] oldBuckets = this.oldHashTable.buckets;
+            int stop = (int) Math.min((long) this.rehashIndex + bucketCount,
+                    oldBuckets.length);
+            while (this.rehashIndex < stop) {
+                Node n = oldBuckets[this.rehashIndex];
+                if (n != null) {
+                    oldBuckets[this.rehashIndex] = null;
+                    this.oldHashTable.emptied(this.rehashIndex);
+                }
+                while (n != null) {
+                    Node next = n.next;
+                    this.hashTable.push(mod(this.hash(n.key),
+                            this.hashTable.buckets.length), n);
+                    n = next;
+                }
+                this.rehashIndex++;
+            }
+            if (this.rehashIndex == oldBuckets.length) {
+                this.oldHashTable = null;
+                this.rehashIndex = 0;
+            }
+        }
+    }
+
+    /**
+     * Starts growing the hash table if {@code $this.size} has exceeded the
+     * maximum load factor.
+     *
+     * @updates $this
+     * @ensures this = #this
+     */
+    private void growIfNeeded() {
+        if (this.size > MAX_LOAD_FACTOR * this.hashTable.buckets.length) {
+            /*
+             * A rehash that is still in progress is ordinarily finished long
+             * before the table fills up again; if not, finish it now so that
+             * at most two tables are ever live.
+             */
+            this.rehashStep(Integer.MAX_VALUE);
+            this.rehashCount++;
+            this.oldHashTable = this.hashTable;
+            this.rehashIndex = 0;
+            this.hashTable = new Table(
+                    2 * this.oldHashTable.buckets.length + 1);
         }
     }
 
@@ -138,6 +738,23 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         this.createNewRep(hashTableSize);
     }
 
+    /**
+     * Constructor resulting in a hash table of size {@code hashTableSize},
+     * which mixes the bits of every key's hash code before using it iff
+     * {@code mixHashes}.
+     *
+     * @param hashTableSize
+     *            size of hash table
+     * @param mixHashes
+     *            whether to mix the bits of hash codes
+     * @requires hashTableSize > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize, boolean mixHashes) {
+        this.mixHashes = mixHashes;
+        this.createNewRep(hashTableSize);
+    }
+
     /*
      * Standard methods -------------------------------------------------------
      */
@@ -146,7 +763,8 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     @Override
     public final Map<K, V> newInstance() {
         try {
-            return this.getClass().getConstructor().newInstance();
+            return this.getClass().getConstructor(int.class, boolean.class)
+                    .newInstance(DEFAULT_HASH_TABLE_SIZE, this.mixHashes);
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(
                     "Cannot construct object of type " + this.getClass());
@@ -171,7 +789,15 @@ public class Map4<K, V> extends MapSecondary<K, V> {
          */
         Map4<K, V> localSource = (Map4<K, V>) source;
         this.hashTable = localSource.hashTable;
+        this.oldHashTable = localSource.oldHashTable;
+        this.rehashIndex = localSource.rehashIndex;
         this.size = localSource.size;
+        /*
+         * The entries were placed with the source's hash function, so it comes
+         * along with them.
+         */
+        this.mixHashes = localSource.mixHashes;
+        this.rehashCount = localSource.rehashCount;
         localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE);
     }
 
@@ -183,51 +809,62 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     public final void add(K key, V value) {
         assert key != null : "Violation of: key is not null";
         assert value != null : "Violation of: value is not null";
-        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
 
-        this.size++;
-        this.hashTable[mod(key.hashCode(), this.hashTable.length)].add(key,
-                value);
+        V old = this.putIfAbsent(key, value);
+        assert old == null : "Violation of: key is not in DOMAIN(this)";
     }
 
     @Override
     public final Pair<K, V> remove(K key) {
         assert key != null : "Violation of: key is not null";
-        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
 
-        this.size--;
-        return this.hashTable[mod(key.hashCode(), this.hashTable.length)]
-                .remove(key);
+        this.rehashStep(REHASH_STEP);
+        int hashCode = this.hash(key);
+        Table table = this.tableFor(hashCode);
+        int i = mod(hashCode, table.buckets.length);
+        assert this.findNode(table.buckets[i],
+                key) != null : "Violation of: key is in DOMAIN(this)";
+
+        Node n = this.unlink(table, i, key);
+        return new SimplePair<K, V>(n.key, n.value);
     }
 
     @Override
     public final Pair<K, V> removeAny() {
         assert this.size() > 0 : "Violation of: this /= empty_set";
 
-        this.size--;
-        int i = 0;
-        // to ensure we do not stop at an empty bucket.
-        while (i < this.hashTable.length && this.hashTable[i].size() == 0) {
-            i++;
+        this.rehashStep(REHASH_STEP);
+        Table table = this.hashTable;
+        if (this.oldHashTable != null && this.oldHashTable.nonEmptyCount > 0) {
+            table = this.oldHashTable;
         }
-        return this.hashTable[i].removeAny();
+        // the last non-empty bucket listed, so no empty bucket is visited.
+        int i = table.nonEmpty[table.nonEmptyCount - 1];
+        Node n = this.unlink(table, i, table.buckets[i].key);
+        return new SimplePair<K, V>(n.key, n.value);
     }
 
     @Override
     public final V value(K key) {
         assert key != null : "Violation of: key is not null";
-        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
 
-        return this.hashTable[mod(key.hashCode(), this.hashTable.length)]
-                .value(key);
+        int hashCode = this.hash(key);
+        Table table = this.tableFor(hashCode);
+        Node n = this.findNode(
+                table.buckets[mod(hashCode, table.buckets.length)], key);
+        assert n != null : "Violation of: key is in DOMAIN(this)";
+
+        return n.value;
     }
 
     @Override
     public final boolean hasKey(K key) {
         assert key != null : "Violation of: key is not null";
 
-        return this.hashTable[mod(key.hashCode(), this.hashTable.length)]
-                .hasKey(key);
+        int hashCode = this.hash(key);
+        Table table = this.tableFor(hashCode);
+        return this.findNode(table.buckets[mod(hashCode, table.buckets.length)],
+                key) != null;
     }
 
     @Override
@@ -251,22 +888,33 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         private int numberSeen;
 
         /**
-         * Bucket from which current bucket iterator comes.
+         * Hash table containing the current bucket.
+         */
+        private Table currentTable;
+
+        /**
+         * Position in {@code currentTable.nonEmpty} of the bucket from which
+         * the current node comes.
          */
-        private int currentBucket;
+        private int currentPosition;
 
         /**
-         * Bucket iterator from which next element will come.
+         * Node from which next element will come, or null if the current bucket
+         * is exhausted.
          */
-        private Iterator<Pair<K, V>> bucketIterator;
+        private Node currentNode;
 
         /**
          * No-argument constructor.
          */
         Map4Iterator() {
             this.numberSeen = 0;
-            this.currentBucket = 0;
-            this.bucketIterator = Map4.this.hashTable[0].iterator();
+            this.currentTable = Map4.this.hashTable;
+            if (Map4.this.oldHashTable != null) {
+                this.currentTable = Map4.this.oldHashTable;
+            }
+            this.currentPosition = -1;
+            this.currentNode = null;
         }
 
         @Override
@@ -286,12 +934,22 @@ public class Map4<K, V> extends MapSecondary<K, V> {
                 throw new NoSuchElementException();
             }
             this.numberSeen++;
-            while (!this.bucketIterator.hasNext()) {
-                this.currentBucket++;
-                this.bucketIterator = Map4.this.hashTable[this.currentBucket]
-                        .iterator();
+            while (this.currentNode == null) {
+                this.currentPosition++;
+                if (this.currentPosition == this.currentTable.nonEmptyCount) {
+                    /*
+                     * Only the old hash table can run out before every entry
+                     * has been seen; continue with the new one.
+                     */
+                    this.currentTable = Map4.this.hashTable;
+                    this.currentPosition = 0;
+                }
+                Table t = this.currentTable;
+                this.currentNode = t.buckets[t.nonEmpty[this.currentPosition]];
             }
-            return this.bucketIterator.next();
+            Node n = this.currentNode;
+            this.currentNode = n.next;
+            return new SimplePair<K, V>(n.key, n.value);
         }
 
         @Override
@@ -302,4 +960,247 @@ public class Map4<K, V> extends MapSecondary<K, V> {
 
     }
 
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final V replaceValue(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        int hashCode = this.hash(key);
+        Table table = this.tableFor(hashCode);
+        Node n = this.findNode(
+                table.buckets[mod(hashCode, table.buckets.length)], key);
+        assert n != null : "Violation of: key is in DOMAIN(this)";
+
+        V old = n.value;
+        n.value = value;
+        return old;
+    }
+
+    /*
+     * Single-probe update methods --------------------------------------------
+     */
+
+    /**
+     * Adds the pair ({@code key}, {@code value}) to {@code this} if
+     * {@code key} is not already in DOMAIN(this), and reports the value
+     * already associated with {@code key}, if any.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value to associate with {@code key} if it is absent
+     * @return the value associated with {@code key} in {@code #this}, or null
+     *         if {@code key} was not in DOMAIN(#this)
+     * @updates this
+     * @requires key is not null and value is not null
+     * @ensures <pre>
+     * if key is in DOMAIN(#this) then
+     *   this = #this  and  putIfAbsent = #this(key)
+     * else
+     *   this = #this union {(key, value)}  and  putIfAbsent = null
+     * </pre>
+     */
+    public final V putIfAbsent(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        this.rehashStep(REHASH_STEP);
+        int hashCode = this.hash(key);
+        Table table = this.tableFor(hashCode);
+        int i = mod(hashCode, table.buckets.length);
+        Node n = this.findNode(table.buckets[i], key);
+        V old = null;
+        if (n == null) {
+            this.link(table, i, key, value);
+            this.growIfNeeded();
+        } else {
+            old = n.value;
+        }
+        return old;
+    }
+
+    /**
+     * Associates {@code key} with {@code value} if {@code key} is not in
+     * DOMAIN(this), and otherwise with the result of applying
+     * {@code remapping} to its current value and {@code value}; a null result
+     * removes {@code key}.
+     *
+     * <p>
+     * For example, {@code m.merge(word, 1, Integer::sum)} counts
+     * {@code word} with one probe.
+     * </p>
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value to associate, or to combine with the current value
+     * @param remapping
+     *            the function combining the current value and {@code value}
+     * @return the value now associated with {@code key}, or null if
+     *         {@code key} is no longer in DOMAIN(this)
+     * @updates this
+     * @requires key is not null and value is not null and remapping is not
+     *           null
+     * @ensures <pre>
+     * if key is not in DOMAIN(#this) then
+     *   this = #this union {(key, value)}  and  merge = value
+     * else if remapping(#this(key), value) = null then
+     *   this = #this \ {(key, #this(key))}  and  merge = null
+     * else
+     *   this = (#this \ {(key, #this(key))}) union
+     *          {(key, remapping(#this(key), value))}  and
+     *   merge = remapping(#this(key), value)
+     * </pre>
+     */
+    public final V merge(K key, V value,
+            BiFunction<? super V, ? super V, ? extends V> remapping) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert remapping != null : "Violation of: remapping is not null";
+
+        this.rehashStep(REHASH_STEP);
+        int hashCode = this.hash(key);
+        Table table = this.tableFor(hashCode);
+        int i = mod(hashCode, table.buckets.length);
+        Node n = this.findNode(table.buckets[i], key);
+        V result = value;
+        if (n == null) {
+            this.link(table, i, key, value);
+            this.growIfNeeded();
+        } else {
+            result = remapping.apply(n.value, value);
+            if (result == null) {
+                this.unlink(table, i, key);
+            } else {
+                n.value = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Associates {@code key} with the result of applying {@code remapping} to
+     * {@code key} and its current value (null if {@code key} is not in
+     * DOMAIN(this)); a null result leaves {@code key} out of DOMAIN(this).
+     *
+     * @param key
+     *            the key
+     * @param remapping
+     *            the function computing the new value
+     * @return the value now associated with {@code key}, or null if
+     *         {@code key} is not in DOMAIN(this)
+     * @updates this
+     * @requires key is not null and remapping is not null
+     * @ensures <pre>
+     * [let y = remapping(key, #this(key) if key is in DOMAIN(#this),
+     *                         else null)]
+     * if y = null then
+     *   this = #this \ {(key, #this(key))}  and  compute = null
+     * else
+     *   this = (#this \ {(key, #this(key))}) union {(key, y)}  and
+     *   compute = y
+     * </pre>
+     */
+    public final V compute(K key,
+            BiFunction<? super K, ? super V, ? extends V> remapping) {
+        assert key != null : "Violation of: key is not null";
+        assert remapping != null : "Violation of: remapping is not null";
+
+        this.rehashStep(REHASH_STEP);
+        int hashCode = this.hash(key);
+        Table table = this.tableFor(hashCode);
+        int i = mod(hashCode, table.buckets.length);
+        Node n = this.findNode(table.buckets[i], key);
+        V result;
+        if (n == null) {
+            result = remapping.apply(key, null);
+            if (result != null) {
+                this.link(table, i, key, result);
+                this.growIfNeeded();
+            }
+        } else {
+            result = remapping.apply(key, n.value);
+            if (result == null) {
+                this.unlink(table, i, key);
+            } else {
+                n.value = result;
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Instrumentation methods ------------------------------------------------
+     */
+
+    /**
+     * Adds the lengths of the chains of the non-empty buckets of {@code table}
+     * to the occupancy histogram {@code occupancy}, and returns the updated
+     * histogram.
+     *
+     * @param table
+     *            the hash table
+     * @param occupancy
+     *            the histogram so far
+     * @return the histogram, extended if a longer chain was found
+     * @updates occupancy
+     */
+    private int[] addChains(Table table, int[] occupancy) {
+        int[] histogram = occupancy;
+        for (int k = 0; k < table.nonEmptyCount; k++) {
+            int length = 0;
+            Node n = table.buckets[table.nonEmpty[k]];
+            while (n != null) {
+                length++;
+                n = n.next;
+            }
+            if (length >= histogram.length) {
+                histogram = Arrays.copyOf(histogram, length + 1);
+            }
+            histogram[length]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Samples how the entries of {@code this} are spread over the buckets:
+     * the occupancy histogram, the longest chain, the average probe length of
+     * a successful lookup, and the number of rehashes so far. Nothing is
+     * recorded until this is called, apart from counting rehashes; the sample
+     * costs time proportional to the number of non-empty buckets.
+     *
+     * @return the statistics of {@code this}
+     * @ensures <pre>
+     * statistics.size() = |this|  and
+     * statistics.rehashCount() = $this.rehashCount
+     * </pre>
+     */
+    public final Statistics statistics() {
+        int bucketCount = this.hashTable.buckets.length;
+        int nonEmptyCount = this.hashTable.nonEmptyCount;
+        int[] occupancy = this.addChains(this.hashTable, new int[1]);
+        if (this.oldHashTable != null) {
+            /*
+             * Only the unmigrated buckets of the old table count, since the
+             * migrated ones can no longer hold entries.
+             */
+            bucketCount += this.oldHashTable.buckets.length - this.rehashIndex;
+            nonEmptyCount += this.oldHashTable.nonEmptyCount;
+            occupancy = this.addChains(this.oldHashTable, occupancy);
+        }
+        occupancy[0] = bucketCount - nonEmptyCount;
+        long totalProbes = 0;
+        for (int length = 1; length < occupancy.length; length++) {
+            // looking up the j-th key of a chain visits j nodes
+            totalProbes += (long) occupancy[length] * length * (length + 1)
+                    / 2;
+        }
+        return new Statistics(bucketCount, this.size, occupancy, totalProbes,
+                this.rehashCount);
+    }
+
 }
@@ -0,0 +1,546 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as an open-addressing hash table with linear probing
+ * over parallel arrays of keys and values, with implementations of primary
+ * methods.
+ *
+ * <p>
+ * Unlike {@code Map4}, no object is allocated per entry or per bucket: a key
+ * and its value live at the same index of {@code $this.keys} and
+ * {@code $this.values}. The table size is always a power of two, and it
+ * doubles once {@code size} exceeds {@code MAX_LOAD_FACTOR} times the table
+ * size. Removal shifts later entries of the probe sequence back into the
+ * vacated slot, so no "deleted" markers are ever needed.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @mathdefinitions <pre>
+ * HOME(
+ *   x: K,
+ *   n: integer
+ *  ): integer is
+ *  [spread of the computed result of x.hashCode()] mod n
+ *
+ * IS_REACHABLE(
+ *   keys: string of K,
+ *   i: integer
+ *  ): boolean is
+ *  [every entry of keys at the positions from HOME(keys[i, i+1), |keys|)
+ *   up to, but not including, i (wrapping around the end of keys) is not
+ *   null]
+ * </pre>
+ * @convention <pre>
+ * |$this.keys| = |$this.values|  and
+ * [|$this.keys| is a power of 2]  and
+ * $this.size <= MAX_LOAD_FACTOR * |$this.keys| < |$this.keys|  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.keys|)
+ *   (([entry at position i in $this.keys is null] =
+ *     [entry at position i in $this.values is null])  and
+ *    (if [entry at position i in $this.keys is not null] then
+ *       IS_REACHABLE($this.keys, i)))  and
+ * [the non-null entries of $this.keys are all different]  and
+ * $this.size = [number of non-null entries in $this.keys]  and
+ * 0 <= $this.removeAnyHint < |$this.keys|
+ * </pre>
+ * @correspondence <pre>
+ * this = {(x, y): (K, V)
+ *     where (there exists i: integer
+ *              (0 <= i  and  i < |$this.keys|  and
+ *               <x> = $this.keys[i, i+1)  and  <y> = $this.values[i, i+1)))
+ *   ((x, y))}
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class Map5<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 16;
+
+    /**
+     * Ratio of {@code size} to table size above which the table grows.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    /**
+     * Keys, or null for empty slots.
+     */
+    private K[] keys;
+
+    /**
+     * Values associated with the keys at the same positions.
+     */
+    private V[] values;
+
+    /**
+     * Total size of abstract {@code this}.
+     */
+    private int size;
+
+    /**
+     * Position at which {@code removeAny} starts looking for an entry.
+     */
+    private int removeAnyHint;
+
+    /**
+     * Simple implementation of {@code Pair} returned by {@code remove} and
+     * {@code removeAny} and produced by the iterator.
+     *
+     * @param <K>
+     *            type of key
+     * @param <V>
+     *            type of value
+     */
+    private static final class SimplePair<K, V> implements Pair<K, V> {
+
+        /**
+         * The key.
+         */
+        private final K key;
+
+        /**
+         * The value.
+         */
+        private final V value;
+
+        /**
+         * Constructor from key and value.
+         *
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         */
+        SimplePair(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K key() {
+            return this.key;
+        }
+
+        @Override
+        public V value() {
+            return this.value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Pair<?, ?>)) {
+                return false;
+            }
+            Pair<?, ?> p = (Pair<?, ?>) obj;
+            return this.key.equals(p.key()) && this.value.equals(p.value());
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            return prime * this.key.hashCode() + this.value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "(" + this.key + "," + this.value + ")";
+        }
+
+    }
+
+    /**
+     * Returns the home position of {@code key} in a table of size {@code n}.
+     * The bits of the hash code are spread first, so that keys whose hash
+     * codes differ only in their high bits do not all land in one cluster.
+     *
+     * @param key
+     *            the key
+     * @param n
+     *            the table size
+     * @return HOME(key, n)
+     * @requires key is not null and [n is a power of 2]
+     * @ensures home = HOME(key, n)
+     */
+    private static int home(Object key, int n) {
+        final int halfWord = 16;
+        int h = key.hashCode();
+        h ^= h >>> halfWord;
+        return h & (n - 1);
+    }
+
+    /**
+     * Returns the position holding {@code key}, or the empty position at which
+     * it would be added.
+     *
+     * @param key
+     *            the key
+     * @return the position of {@code key}, or of the empty slot ending its
+     *         probe sequence
+     * @requires key is not null
+     * @ensures <pre>
+     * 0 <= find < |$this.keys|  and
+     * ($this.keys[find, find+1) = <key>  or
+     *  ([entry at position find in $this.keys is null]  and
+     *   key is not in DOMAIN(this)))
+     * </pre>
+     */
+    private int find(K key) {
+        int mask = this.keys.length - 1;
+        int i = home(key, this.keys.length);
+        while (this.keys[i] != null && !this.keys[i].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Empties position {@code i} and shifts back later entries of its probe
+     * run so that every remaining entry is still reachable from its home
+     * position.
+     *
+     * @param i
+     *            the position to empty
+     * @updates $this.keys, $this.values
+     * @requires 0 <= i < |$this.keys|
+     * @ensures <pre>
+     * [the entry at position i is gone and all other entries of
+     *  $this.keys and $this.values are still present and reachable]
+     * </pre>
+     */
+    private void deleteAt(int i) {
+        int mask = this.keys.length - 1;
+        int hole = i;
+        int j = (hole + 1) & mask;
+        while (this.keys[j] != null) {
+            int h = home(this.keys[j], this.keys.length);
+            /*
+             * The entry at j may move to the hole only if its home position is
+             * not cyclically within (hole, j].
+             */
+            if (((j - h) & mask) >= ((j - hole) & mask)) {
+                this.keys[hole] = this.keys[j];
+                this.values[hole] = this.values[j];
+                hole = j;
+            }
+            j = (j + 1) & mask;
+        }
+        this.keys[hole] = null;
+        this.values[hole] = null;
+    }
+
+    /**
+     * Replaces the table with one of size {@code tableSize} holding the same
+     * entries.
+     *
+     * @param tableSize
+     *            the new table size
+     * @updates $this
+     * @requires [tableSize is a power of 2] and $this.size < tableSize
+     * @ensures |$this.keys| = tableSize and this = #this
+     */
+    private void resize(int tableSize) {
+        K[] oldKeys = this.keys;
+        V[] oldValues = this.values;
+        this.allocate(tableSize);
+        int mask = tableSize - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int j = home(oldKeys[i], tableSize);
+                while (this.keys[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                this.keys[j] = oldKeys[i];
+                this.values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Allocates empty key and value arrays of size {@code tableSize}.
+     *
+     * @param tableSize
+     *            the table size
+     * @replaces $this.keys, $this.values, $this.removeAnyHint
+     * @requires [tableSize is a power of 2]
+     * @ensures <pre>
+     * |$this.keys| = tableSize  and  |$this.values| = tableSize  and
+     * [all entries of $this.keys and $this.values are null]  and
+     * $this.removeAnyHint = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void allocate(int tableSize) {
+        /*
+         * With "new K[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.keys = (K[]) new Object[tableSize];
+        this.values = (V[]) new Object[tableSize];
+        this.removeAnyHint = 0;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the minimum size of the hash table
+     * @requires hashTableSize > 0
+     * @ensures <pre>
+     * |$this.keys| = [smallest power of 2 >= hashTableSize]  and
+     * [all entries of $this.keys and $this.values are null]  and
+     * $this.size = 0
+     * </pre>
+     */
+    private void createNewRep(int hashTableSize) {
+        int tableSize = 1;
+        while (tableSize < hashTableSize) {
+            tableSize *= 2;
+        }
+        this.allocate(tableSize);
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map5() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    /**
+     * Constructor resulting in a hash table of at least size
+     * {@code hashTableSize}.
+     *
+     * @param hashTableSize
+     *            minimum size of hash table
+     * @requires hashTableSize > 0
+     * @ensures this = {}
+     */
+    public Map5(int hashTableSize) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        this.createNewRep(hashTableSize);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map5<?, ?> : ""
+                + "Violation of: source is of dynamic type Map5<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Map5<?,?>, and
+         * the ?,? must be K,V or the call would not have compiled.
+         */
+        Map5<K, V> localSource = (Map5<K, V>) source;
+        this.keys = localSource.keys;
+        this.values = localSource.values;
+        this.size = localSource.size;
+        this.removeAnyHint = localSource.removeAnyHint;
+        localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        int i = this.find(key);
+        assert this.keys[i] == null : ""
+                + "Violation of: key is not in DOMAIN(this)";
+
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.size++;
+        if (this.size > MAX_LOAD_FACTOR * this.keys.length) {
+            this.resize(2 * this.keys.length);
+        }
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        int i = this.find(key);
+        assert this.keys[i] != null : "Violation of: key is in DOMAIN(this)";
+
+        Pair<K, V> removed = new SimplePair<K, V>(this.keys[i],
+                this.values[i]);
+        this.deleteAt(i);
+        this.size--;
+        return removed;
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        int mask = this.keys.length - 1;
+        int i = this.removeAnyHint;
+        // to ensure we do not stop at an empty slot.
+        while (this.keys[i] == null) {
+            i = (i + 1) & mask;
+        }
+        /*
+         * Draining the map with repeated calls resumes the scan here, so the
+         * whole table is scanned about once rather than once per call.
+         */
+        this.removeAnyHint = i;
+        Pair<K, V> removed = new SimplePair<K, V>(this.keys[i],
+                this.values[i]);
+        this.deleteAt(i);
+        this.size--;
+        return removed;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        int i = this.find(key);
+        assert this.keys[i] != null : "Violation of: key is in DOMAIN(this)";
+
+        return this.values[i];
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.keys[this.find(key)] != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map5Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map5}.
+     */
+    private final class Map5Iterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Position of the next slot to examine.
+         */
+        private int currentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        Map5Iterator() {
+            this.numberSeen = 0;
+            this.currentIndex = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Map5.this.size;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            while (Map5.this.keys[this.currentIndex] == null) {
+                this.currentIndex++;
+            }
+            Pair<K, V> next = new SimplePair<K, V>(
+                    Map5.this.keys[this.currentIndex],
+                    Map5.this.values[this.currentIndex]);
+            this.currentIndex++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final V replaceValue(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        int i = this.find(key);
+        assert this.keys[i] != null : "Violation of: key is in DOMAIN(this)";
+
+        V old = this.values[i];
+        this.values[i] = value;
+        return old;
+    }
+
+}
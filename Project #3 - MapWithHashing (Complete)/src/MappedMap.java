@@ -0,0 +1,840 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} from {@code String} keys to {@code Long} values kept off the
+ * Java heap, in a pair of memory-mapped files: a hash index and a data file of
+ * records, with implementations of primary methods.
+ *
+ * <p>
+ * The index file {@code <path>.idx} holds a small header (format marker,
+ * number of buckets, size, and end of the data in use) followed by one
+ * {@code int} per bucket: the offset in the data file of the first record of
+ * the bucket's chain, or 0 if the bucket is empty. The data file
+ * {@code <path>.dat} starts with a format marker, so no record is at offset 0,
+ * followed by the records, each holding the offset of the next record on its
+ * chain, the value, the hash code of the key, and the key as UTF-8 bytes.
+ * Keys are hashed with {@code String.hashCode}, whose result is fixed by the
+ * language specification, so a dictionary built by one run can be reopened
+ * by another.
+ * </p>
+ *
+ * <p>
+ * Reopening a dictionary maps its two files and reads nothing else; a lookup
+ * encodes the key once, compares it byte-by-byte with the keys on one chain,
+ * and reads the value straight out of the mapped data file, so no key or
+ * value is ever deserialized. The index grows to 2n + 1 buckets once
+ * {@code size} exceeds {@code MAX_LOAD_FACTOR} times the number of buckets,
+ * relinking the existing records in place. The space of a removed record is
+ * not reused; {@code clear} reclaims it all. Since a single mapping cannot
+ * exceed 2 GB, neither can the data file.
+ * </p>
+ *
+ * <p>
+ * Every change is made directly in the mapped files, and reaches the disk
+ * whenever the operating system writes the pages back; {@code flush} forces
+ * it there at once.
+ * </p>
+ *
+ * @mathdefinitions <pre>
+ * CHAIN(
+ *   r: integer
+ *  ): finite set of (string of character, integer) is
+ *  [the (key, value) pairs of the records of $this.data starting at offset r,
+ *   following next offsets until 0]
+ * </pre>
+ * @convention <pre>
+ * [$this.index and $this.data are READ_WRITE mappings of the whole of
+ *  $this.path + ".idx" and $this.path + ".dat"]  and
+ * [the header of $this.index holds INDEX_MARKER, a bucket count n > 0, a
+ *  size s >= 0, and a data end e with DATA_HEADER_SIZE <= e <=
+ *  |$this.data|]  and
+ * [$this.data starts with DATA_MARKER]  and
+ * for all i: integer, x: string of character, y: integer
+ *     where (0 <= i  and  i < n  and
+ *            (x, y) is in CHAIN([bucket i of $this.index]))
+ *   ([computed result of x.hashCode()] mod n = i)  and
+ * [every record on a chain lies within [DATA_HEADER_SIZE, e), holds the
+ *  computed result of its key's hashCode, and is on only one chain]  and
+ * [no key appears in more than one record on a chain]  and
+ * s = [total number of records on all chains]  and
+ * 0 <= $this.removeAnyHint < n
+ * </pre>
+ * @correspondence <pre>
+ * this = (union i: integer
+ *             where (0 <= i  and  i < [bucket count in $this.index])
+ *           (CHAIN([bucket i of $this.index])))
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class MappedMap extends MapSecondary<String, Long> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default number of buckets of a new index.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 101;
+
+    /**
+     * Ratio of {@code size} to number of buckets above which the index grows.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Default capacity, in bytes, of a new data file.
+     */
+    private static final int DEFAULT_DATA_CAPACITY = 4096;
+
+    /**
+     * Format marker at the start of the index file ("MMI1").
+     */
+    private static final int INDEX_MARKER = 0x4D4D4931;
+
+    /**
+     * Format marker at the start of the data file ("MMD1").
+     */
+    private static final int DATA_MARKER = 0x4D4D4431;
+
+    /**
+     * Offset in the index of the number of buckets.
+     */
+    private static final int BUCKET_COUNT_AT = 4;
+
+    /**
+     * Offset in the index of the size.
+     */
+    private static final int SIZE_AT = 8;
+
+    /**
+     * Offset in the index of the end of the data in use.
+     */
+    private static final int DATA_END_AT = 12;
+
+    /**
+     * Size, in bytes, of the index header; the buckets follow it.
+     */
+    private static final int INDEX_HEADER_SIZE = 16;
+
+    /**
+     * Size, in bytes, of the data header; the records follow it.
+     */
+    private static final int DATA_HEADER_SIZE = 4;
+
+    /**
+     * Offset, within a record, of its value (the next offset is at 0).
+     */
+    private static final int VALUE_AT = 4;
+
+    /**
+     * Offset, within a record, of the hash code of its key.
+     */
+    private static final int HASH_AT = 12;
+
+    /**
+     * Offset, within a record, of the length of its key in bytes.
+     */
+    private static final int KEY_LENGTH_AT = 16;
+
+    /**
+     * Size, in bytes, of a record apart from its key.
+     */
+    private static final int RECORD_HEADER_SIZE = 20;
+
+    /**
+     * Path of the two files, without the ".idx" and ".dat" suffixes.
+     */
+    private String path;
+
+    /**
+     * Mapping of the index file.
+     */
+    private MappedByteBuffer index;
+
+    /**
+     * Mapping of the data file.
+     */
+    private MappedByteBuffer data;
+
+    /**
+     * Bucket at which {@code removeAny} starts looking for an entry.
+     */
+    private int removeAnyHint;
+
+    /**
+     * Simple implementation of {@code Pair} returned by {@code remove} and
+     * {@code removeAny} and produced by the iterator.
+     */
+    private static final class SimplePair implements Pair<String, Long> {
+
+        /**
+         * The key.
+         */
+        private final String key;
+
+        /**
+         * The value.
+         */
+        private final Long value;
+
+        /**
+         * Constructor from key and value.
+         *
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         */
+        SimplePair(String key, Long value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String key() {
+            return this.key;
+        }
+
+        @Override
+        public Long value() {
+            return this.value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Pair<?, ?>)) {
+                return false;
+            }
+            Pair<?, ?> p = (Pair<?, ?>) obj;
+            return this.key.equals(p.key()) && this.value.equals(p.value());
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            return prime * this.key.hashCode() + this.value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "(" + this.key + "," + this.value + ")";
+        }
+
+    }
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+        int r = a % b;
+        if (r < 0) {
+            r += b;
+        }
+        return r;
+    }
+
+    /**
+     * Maps the first {@code length} bytes of the file {@code fileName} for
+     * reading and writing, extending the file with zero bytes if it is
+     * shorter.
+     *
+     * @param fileName
+     *            the name of the file
+     * @param length
+     *            the number of bytes to map
+     * @return the mapping
+     * @throws UncheckedIOException
+     *             if the file cannot be opened, extended, or mapped
+     * @requires 0 < length <= Integer.MAX_VALUE
+     * @ensures <pre>
+     * [map is a READ_WRITE mapping of the first length bytes of fileName]
+     * </pre>
+     */
+    private static MappedByteBuffer map(String fileName, long length) {
+        assert 0 < length
+                && length <= Integer.MAX_VALUE : ""
+                        + "Violation of: 0 < length <= Integer.MAX_VALUE";
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "rw")) {
+            if (file.length() < length) {
+                file.setLength(length);
+            }
+            /*
+             * The mapping stays valid after the file is closed.
+             */
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the length of the file {@code fileName}, or 0 if it does not
+     * exist.
+     *
+     * @param fileName
+     *            the name of the file
+     * @return the length of the file, in bytes
+     */
+    private static long fileLength(String fileName) {
+        return new File(fileName).length();
+    }
+
+    /**
+     * Creates a new pair of empty temporary files, deleted when the virtual
+     * machine exits, and returns their common path.
+     *
+     * @return the path of the two files, without the suffixes
+     * @throws UncheckedIOException
+     *             if the files cannot be created
+     */
+    private static String newTemporaryPath() {
+        try {
+            File base = File.createTempFile("MappedMap", "");
+            String basePath = base.getPath();
+            File indexFile = new File(basePath + ".idx");
+            File dataFile = new File(basePath + ".dat");
+            indexFile.createNewFile();
+            dataFile.createNewFile();
+            indexFile.deleteOnExit();
+            dataFile.deleteOnExit();
+            base.delete();
+            return basePath;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reports the number of buckets of the index.
+     *
+     * @return the number of buckets
+     */
+    private int bucketCount() {
+        return this.index.getInt(BUCKET_COUNT_AT);
+    }
+
+    /**
+     * Returns the offset of the first record of bucket {@code i}, or 0.
+     *
+     * @param i
+     *            the bucket
+     * @return the offset of the first record on the chain, or 0
+     * @requires 0 <= i < [bucket count]
+     */
+    private int head(int i) {
+        return this.index.getInt(INDEX_HEADER_SIZE + i * Integer.BYTES);
+    }
+
+    /**
+     * Sets the offset of the first record of bucket {@code i} to {@code r}.
+     *
+     * @param i
+     *            the bucket
+     * @param r
+     *            the offset of the first record on the chain, or 0
+     * @updates $this.index
+     * @requires 0 <= i < [bucket count]
+     */
+    private void setHead(int i, int r) {
+        this.index.putInt(INDEX_HEADER_SIZE + i * Integer.BYTES, r);
+    }
+
+    /**
+     * Reports whether the key of the record at offset {@code r} is
+     * {@code keyBytes}, whose hash code is {@code hash}, without decoding it.
+     *
+     * @param r
+     *            the offset of the record
+     * @param keyBytes
+     *            the key, encoded in UTF-8
+     * @param hash
+     *            the hash code of the key
+     * @return true iff the record's key is the key
+     */
+    private boolean keyMatches(int r, byte[] keyBytes, int hash) {
+        boolean matches = this.data.getInt(r + HASH_AT) == hash
+                && this.data.getInt(r + KEY_LENGTH_AT) == keyBytes.length;
+        int keyStart = r + RECORD_HEADER_SIZE;
+        for (int k = 0; matches && k < keyBytes.length; k++) {
+            matches = this.data.get(keyStart + k) == keyBytes[k];
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the offset of the record holding {@code key}, or 0 if there is
+     * none.
+     *
+     * @param key
+     *            the key
+     * @return the offset of the record, or 0
+     * @requires key is not null
+     * @ensures <pre>
+     * if key is in DOMAIN(this) then
+     *   [find is the offset of the record holding key]
+     * else
+     *   find = 0
+     * </pre>
+     */
+    private int find(String key) {
+        int hash = key.hashCode();
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int r = this.head(mod(hash, this.bucketCount()));
+        while (r != 0 && !this.keyMatches(r, keyBytes, hash)) {
+            r = this.data.getInt(r);
+        }
+        return r;
+    }
+
+    /**
+     * Decodes the key of the record at offset {@code r}.
+     *
+     * @param r
+     *            the offset of the record
+     * @return the key
+     */
+    private String keyAt(int r) {
+        byte[] keyBytes = new byte[this.data.getInt(r + KEY_LENGTH_AT)];
+        for (int k = 0; k < keyBytes.length; k++) {
+            keyBytes[k] = this.data.get(r + RECORD_HEADER_SIZE + k);
+        }
+        return new String(keyBytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Removes the record at offset {@code r} from the chain of bucket
+     * {@code i}, and returns its entry.
+     *
+     * @param i
+     *            the bucket
+     * @param r
+     *            the offset of the record
+     * @return the entry of the record
+     * @updates this
+     * @requires [the record at offset r is on the chain of bucket i]
+     * @ensures <pre>
+     * unlink = [the entry of the record at offset r]  and
+     * this = #this \ {unlink}
+     * </pre>
+     */
+    private Pair<String, Long> unlink(int i, int r) {
+        int next = this.data.getInt(r);
+        int previous = this.head(i);
+        if (previous == r) {
+            this.setHead(i, next);
+        } else {
+            while (this.data.getInt(previous) != r) {
+                previous = this.data.getInt(previous);
+            }
+            this.data.putInt(previous, next);
+        }
+        this.index.putInt(SIZE_AT, this.index.getInt(SIZE_AT) - 1);
+        return new SimplePair(this.keyAt(r),
+                this.data.getLong(r + VALUE_AT));
+    }
+
+    /**
+     * Makes sure the data file has room for {@code needed} bytes, remapping it
+     * at twice its size (or more, if needed) if it does not.
+     *
+     * @param needed
+     *            the number of bytes needed
+     * @updates $this.data
+     * @requires needed <= Integer.MAX_VALUE
+     * @ensures |$this.data| >= needed
+     */
+    private void ensureDataCapacity(long needed) {
+        assert needed <= Integer.MAX_VALUE : ""
+                + "Violation of: needed <= Integer.MAX_VALUE";
+        if (needed > this.data.capacity()) {
+            long capacity = Math.max(needed, 2L * this.data.capacity());
+            this.data = map(this.path + ".dat",
+                    Math.min(capacity, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Grows the index to 2n + 1 buckets if {@code size} has exceeded the
+     * maximum load factor, relinking every record onto its new chain.
+     *
+     * @updates $this.index, $this.data
+     * @ensures this = #this
+     */
+    private void growIfNeeded() {
+        int oldBucketCount = this.bucketCount();
+        int size = this.index.getInt(SIZE_AT);
+        if (size > MAX_LOAD_FACTOR * oldBucketCount) {
+            int[] records = new int[size];
+            int count = 0;
+            for (int i = 0; i < oldBucketCount; i++) {
+                for (int r = this.head(i); r != 0; r = this.data.getInt(r)) {
+                    records[count] = r;
+                    count++;
+                }
+            }
+            int bucketCount = 2 * oldBucketCount + 1;
+            this.index = map(this.path + ".idx",
+                    INDEX_HEADER_SIZE + (long) bucketCount * Integer.BYTES);
+            this.index.putInt(BUCKET_COUNT_AT, bucketCount);
+            for (int i = 0; i < bucketCount; i++) {
+                this.setHead(i, 0);
+            }
+            for (int r : records) {
+                int i = mod(this.data.getInt(r + HASH_AT), bucketCount);
+                this.data.putInt(r, this.head(i));
+                this.setHead(i, r);
+            }
+            this.removeAnyHint = 0;
+        }
+    }
+
+    /**
+     * Creator of initial representation: an empty dictionary in the files
+     * at {@code path}, replacing whatever they held.
+     *
+     * @param filePath
+     *            the path of the two files, without the suffixes
+     * @replaces $this
+     * @ensures <pre>
+     * $this.path = filePath  and  this = {}  and
+     * [the files at filePath hold an empty dictionary]
+     * </pre>
+     */
+    private void createNewRep(String filePath) {
+        this.path = filePath;
+        this.index = map(this.path + ".idx", INDEX_HEADER_SIZE
+                + (long) DEFAULT_HASH_TABLE_SIZE * Integer.BYTES);
+        this.index.putInt(0, INDEX_MARKER);
+        this.index.putInt(BUCKET_COUNT_AT, DEFAULT_HASH_TABLE_SIZE);
+        this.index.putInt(SIZE_AT, 0);
+        this.index.putInt(DATA_END_AT, DATA_HEADER_SIZE);
+        for (int i = 0; i < DEFAULT_HASH_TABLE_SIZE; i++) {
+            this.setHead(i, 0);
+        }
+        this.data = map(this.path + ".dat", Math.max(DEFAULT_DATA_CAPACITY,
+                fileLength(this.path + ".dat")));
+        this.data.putInt(0, DATA_MARKER);
+        this.removeAnyHint = 0;
+    }
+
+    /**
+     * Maps the existing dictionary in the files at {@code filePath}.
+     *
+     * @param filePath
+     *            the path of the two files, without the suffixes
+     * @replaces $this
+     * @requires [the files at filePath hold a dictionary written by MappedMap]
+     * @ensures <pre>
+     * $this.path = filePath  and
+     * this = [the dictionary held by the files at filePath]
+     * </pre>
+     */
+    private void openRep(String filePath) {
+        this.path = filePath;
+        this.index = map(this.path + ".idx", INDEX_HEADER_SIZE);
+        assert this.index.getInt(0) == INDEX_MARKER : ""
+                + "Violation of: [the files hold a dictionary]";
+        this.index = map(this.path + ".idx", INDEX_HEADER_SIZE
+                + (long) this.bucketCount() * Integer.BYTES);
+        this.data = map(this.path + ".dat", fileLength(this.path + ".dat"));
+        assert this.data.getInt(0) == DATA_MARKER : ""
+                + "Violation of: [the files hold a dictionary]";
+        this.removeAnyHint = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor, backed by temporary files that are deleted
+     * when the virtual machine exits.
+     */
+    public MappedMap() {
+        this.createNewRep(newTemporaryPath());
+    }
+
+    /**
+     * Constructor backed by the files {@code path + ".idx"} and
+     * {@code path + ".dat"}: the dictionary they hold is reopened if the index
+     * file exists and is not empty, and a new empty dictionary is created in
+     * them otherwise.
+     *
+     * @param path
+     *            the path of the two files, without the suffixes
+     * @throws UncheckedIOException
+     *             if the files cannot be created, opened, or mapped
+     * @requires <pre>
+     * path is not null  and
+     * [the files at path do not exist, are empty, or hold a dictionary
+     *  written by MappedMap]
+     * </pre>
+     * @ensures <pre>
+     * this = [the dictionary held by the files at path, or {} if none]
+     * </pre>
+     */
+    public MappedMap(String path) {
+        assert path != null : "Violation of: path is not null";
+        if (fileLength(path + ".idx") >= INDEX_HEADER_SIZE) {
+            this.openRep(path);
+        } else {
+            this.createNewRep(path);
+        }
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final Map<String, Long> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.path);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * {@code this} takes over the files of {@code source}, and {@code source}
+     * is left with new temporary files.
+     * </p>
+     */
+    @Override
+    public final void transferFrom(Map<String, Long> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof MappedMap : ""
+                + "Violation of: source is of dynamic type MappedMap";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case.
+         */
+        MappedMap localSource = (MappedMap) source;
+        this.path = localSource.path;
+        this.index = localSource.index;
+        this.data = localSource.data;
+        this.removeAnyHint = localSource.removeAnyHint;
+        localSource.createNewRep(newTemporaryPath());
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(String key, Long value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int r = this.index.getInt(DATA_END_AT);
+        this.ensureDataCapacity(
+                (long) r + RECORD_HEADER_SIZE + keyBytes.length);
+        int i = mod(key.hashCode(), this.bucketCount());
+        this.data.putInt(r, this.head(i));
+        this.data.putLong(r + VALUE_AT, value);
+        this.data.putInt(r + HASH_AT, key.hashCode());
+        this.data.putInt(r + KEY_LENGTH_AT, keyBytes.length);
+        for (int k = 0; k < keyBytes.length; k++) {
+            this.data.put(r + RECORD_HEADER_SIZE + k, keyBytes[k]);
+        }
+        this.setHead(i, r);
+        this.index.putInt(DATA_END_AT,
+                r + RECORD_HEADER_SIZE + keyBytes.length);
+        this.index.putInt(SIZE_AT, this.index.getInt(SIZE_AT) + 1);
+        this.growIfNeeded();
+    }
+
+    @Override
+    public final Pair<String, Long> remove(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        int r = this.find(key);
+        assert r != 0 : "Violation of: key is in DOMAIN(this)";
+
+        return this.unlink(mod(key.hashCode(), this.bucketCount()), r);
+    }
+
+    @Override
+    public final Pair<String, Long> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        int i = this.removeAnyHint;
+        // to ensure we do not stop at an empty bucket.
+        while (this.head(i) == 0) {
+            i = (i + 1) % this.bucketCount();
+        }
+        /*
+         * Draining the map with repeated calls resumes the scan here, so the
+         * index is scanned about once rather than once per call.
+         */
+        this.removeAnyHint = i;
+        return this.unlink(i, this.head(i));
+    }
+
+    @Override
+    public final Long value(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        int r = this.find(key);
+        assert r != 0 : "Violation of: key is in DOMAIN(this)";
+
+        return this.data.getLong(r + VALUE_AT);
+    }
+
+    @Override
+    public final boolean hasKey(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.find(key) != 0;
+    }
+
+    @Override
+    public final int size() {
+        return this.index.getInt(SIZE_AT);
+    }
+
+    @Override
+    public final Iterator<Pair<String, Long>> iterator() {
+        return new MappedMapIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code MappedMap}.
+     */
+    private final class MappedMapIterator
+            implements Iterator<Pair<String, Long>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Bucket from which the current record comes.
+         */
+        private int currentBucket;
+
+        /**
+         * Offset of the record from which the next element will come, or 0 if
+         * the current bucket is exhausted.
+         */
+        private int currentRecord;
+
+        /**
+         * No-argument constructor.
+         */
+        MappedMapIterator() {
+            this.numberSeen = 0;
+            this.currentBucket = -1;
+            this.currentRecord = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < MappedMap.this.size();
+        }
+
+        @Override
+        public Pair<String, Long> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            while (this.currentRecord == 0) {
+                this.currentBucket++;
+                this.currentRecord = MappedMap.this.head(this.currentBucket);
+            }
+            int r = this.currentRecord;
+            this.currentRecord = MappedMap.this.data.getInt(r);
+            return new SimplePair(MappedMap.this.keyAt(r),
+                    MappedMap.this.data.getLong(r + VALUE_AT));
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final Long replaceValue(String key, Long value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        int r = this.find(key);
+        assert r != 0 : "Violation of: key is in DOMAIN(this)";
+
+        long oldValue = this.data.getLong(r + VALUE_AT);
+        this.data.putLong(r + VALUE_AT, value);
+        return oldValue;
+    }
+
+    /*
+     * MappedMap-specific methods ---------------------------------------------
+     */
+
+    /**
+     * Forces every change made so far out to the files on disk.
+     *
+     * @ensures [the files at $this.path hold this]
+     */
+    public final void flush() {
+        this.index.force();
+        this.data.force();
+    }
+
+}
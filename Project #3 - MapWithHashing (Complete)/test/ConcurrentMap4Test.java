@@ -0,0 +1,193 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code ConcurrentMap4} using default
+ * constructor, including a test of concurrent updates.
+ */
+public class ConcurrentMap4Test extends MapTest {
+
+    /**
+     * Number of threads updating the map concurrently.
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * Number of distinct keys updated by every thread.
+     */
+    private static final int KEYS = 500;
+
+    /**
+     * Number of times every thread updates each key.
+     */
+    private static final int ROUNDS = 20;
+
+    /**
+     * Milliseconds to wait for a thread of the draining test to finish.
+     */
+    private static final long JOIN_TIMEOUT = 10000;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new ConcurrentMap4<String, String>();
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    /**
+     * Testing .merge() from several threads at once: every increment must be
+     * counted and the size must match the number of distinct keys.
+     *
+     * @throws InterruptedException
+     *             if the test thread is interrupted while joining
+     */
+    @Test
+    public final void testConcurrentMerge() throws InterruptedException {
+        ConcurrentMap4<String, Integer> m = new ConcurrentMap4<>(THREADS);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(() -> {
+                for (int r = 0; r < ROUNDS; r++) {
+                    for (int k = 0; k < KEYS; k++) {
+                        m.merge("key" + k, 1, Integer::sum);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(KEYS, m.size());
+        for (int k = 0; k < KEYS; k++) {
+            assertEquals(Integer.valueOf(THREADS * ROUNDS), m.value("key" + k));
+        }
+        int seen = 0;
+        for (Map.Pair<String, Integer> p : m) {
+            assertEquals(Integer.valueOf(THREADS * ROUNDS), p.value());
+            seen++;
+        }
+        assertEquals(KEYS, seen);
+    }
+
+    /**
+     * Testing .add(), .replaceValue(), and .putIfAbsent() from several threads
+     * at once: every thread adds and then replaces the values of keys of its
+     * own, and all of them race to put the same shared keys, each of which
+     * exactly one thread must win.
+     *
+     * @throws InterruptedException
+     *             if the test thread is interrupted while joining
+     */
+    @Test
+    public final void testConcurrentAddReplaceValuePutIfAbsent()
+            throws InterruptedException {
+        ConcurrentMap4<String, Integer> m = new ConcurrentMap4<>(THREADS);
+        AtomicInteger wins = new AtomicInteger();
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                for (int k = 0; k < KEYS; k++) {
+                    m.add(id + ":" + k, k);
+                    if (m.putIfAbsent("shared" + k, id) == null) {
+                        wins.incrementAndGet();
+                    }
+                }
+                for (int k = 0; k < KEYS; k++) {
+                    m.replaceValue(id + ":" + k, -k);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(KEYS, wins.get());
+        assertEquals(THREADS * KEYS + KEYS, m.size());
+        for (int t = 0; t < THREADS; t++) {
+            for (int k = 0; k < KEYS; k++) {
+                assertEquals(Integer.valueOf(-k), m.value(t + ":" + k));
+            }
+        }
+        for (int k = 0; k < KEYS; k++) {
+            int winner = m.value("shared" + k);
+            assertTrue(0 <= winner && winner < THREADS);
+        }
+        int seen = 0;
+        for (Map.Pair<String, Integer> p : m) {
+            assertEquals(m.value(p.key()), p.value());
+            seen++;
+        }
+        assertEquals(THREADS * KEYS + KEYS, seen);
+    }
+
+    /**
+     * Testing .removeAny() from several threads at once, each removing pairs
+     * until it finds the map empty: every thread must stop, and every pair
+     * must be removed exactly once.
+     *
+     * @throws InterruptedException
+     *             if the test thread is interrupted while joining
+     */
+    @Test
+    public final void testConcurrentRemoveAnyDrain()
+            throws InterruptedException {
+        ConcurrentMap4<String, Integer> m = new ConcurrentMap4<>(THREADS);
+        for (int k = 0; k < THREADS * KEYS; k++) {
+            m.add("key" + k, k);
+        }
+        ConcurrentMap4<String, Integer> removed = new ConcurrentMap4<>(
+                THREADS);
+        AtomicInteger duplicates = new AtomicInteger();
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(() -> {
+                boolean empty = false;
+                while (!empty) {
+                    Map.Pair<String, Integer> p = null;
+                    try {
+                        p = m.removeAny();
+                    } catch (NoSuchElementException | AssertionError e) {
+                        /*
+                         * The precondition was found violated: by the assert
+                         * at the start of removeAny, or, if another thread
+                         * took the last pair after that, by the exception.
+                         */
+                        empty = true;
+                    }
+                    if (p != null && removed.putIfAbsent(p.key(),
+                            p.value()) != null) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            });
+            /*
+             * A thread that never stops must not keep the virtual machine
+             * running after the test has failed.
+             */
+            threads[t].setDaemon(true);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(JOIN_TIMEOUT);
+            assertFalse(thread.isAlive());
+        }
+        assertEquals(0, duplicates.get());
+        assertEquals(0, m.size());
+        assertEquals(THREADS * KEYS, removed.size());
+    }
+
+}
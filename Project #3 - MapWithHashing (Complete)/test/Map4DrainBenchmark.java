@@ -0,0 +1,104 @@
+import components.map.Map;
+
+/**
+ * Timing harness for draining a {@code Map4} whose hash table is much larger
+ * than its size: a fixed number of entries is added to tables of growing
+ * sizes, then the map is iterated once and emptied with {@code removeAny}.
+ * With the non-empty-bucket index the time per entry stays flat as the table
+ * gets sparser; a bucket-scanning implementation grows with the table size.
+ *
+ * <p>
+ * Run with {@code java Map4DrainBenchmark}; this is a plain {@code main}
+ * program, not a JUnit fixture.
+ * </p>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public final class Map4DrainBenchmark {
+
+    /**
+     * Number of entries in every map drained; at most 0.75 times the smallest
+     * table size, so that no table grows (and starts rehashing) while it is
+     * filled, and each row measures the table size it reports.
+     */
+    private static final int ENTRIES = 750;
+
+    /**
+     * Odd multiplier spreading the keys over the whole hash table; being odd,
+     * it maps distinct ints to distinct ints.
+     */
+    private static final int SPREAD = 0x9E3779B1;
+
+    /**
+     * Hash table sizes to try, all primes.
+     */
+    private static final int[] TABLE_SIZES = { 1009, 10007, 100003,
+        1000003 };
+
+    /**
+     * Number of untimed rounds run first for every table size.
+     */
+    private static final int WARMUP_ROUNDS = 5;
+
+    /**
+     * Number of timed rounds for every table size.
+     */
+    private static final int ROUNDS = 20;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Map4DrainBenchmark() {
+    }
+
+    /**
+     * Fills a new {@code Map4} with {@code hashTableSize} buckets with
+     * {@code ENTRIES} entries scattered over the table, then iterates over it
+     * and drains it, and returns the nanoseconds taken by the iteration and
+     * the draining.
+     *
+     * @param hashTableSize
+     *            the size of the hash table
+     * @return the elapsed time, in nanoseconds
+     */
+    private static long drainOnce(int hashTableSize) {
+        Map<Integer, Integer> m = new Map4<>(hashTableSize);
+        for (int i = 0; i < ENTRIES; i++) {
+            m.add(i * SPREAD, i);
+        }
+        long start = System.nanoTime();
+        long sum = 0;
+        for (Map.Pair<Integer, Integer> p : m) {
+            sum += p.value();
+        }
+        while (m.size() > 0) {
+            sum -= m.removeAny().value();
+        }
+        long elapsed = System.nanoTime() - start;
+        assert sum == 0 : "Violation of: every entry seen twice";
+        return elapsed;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments; ignored
+     */
+    public static void main(String[] args) {
+        System.out.println("table size    ns/entry (iterate + drain)");
+        for (int hashTableSize : TABLE_SIZES) {
+            for (int r = 0; r < WARMUP_ROUNDS; r++) {
+                drainOnce(hashTableSize);
+            }
+            long total = 0;
+            for (int r = 0; r < ROUNDS; r++) {
+                total += drainOnce(hashTableSize);
+            }
+            double perEntry = (double) total / ((long) ROUNDS * ENTRIES);
+            System.out.printf("%10d    %10.1f%n", hashTableSize, perEntry);
+        }
+    }
+
+}
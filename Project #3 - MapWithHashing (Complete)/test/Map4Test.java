@@ -1,11 +1,33 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
 import components.map.Map;
 import components.map.Map1L;
 
 /**
- * Customized JUnit test fixture for {@code Map4} using default constructor.
+ * Customized JUnit test fixture for {@code Map4} using default constructor,
+ * including tests of the {@code Map4}-only single-probe update methods.
  */
 public class Map4Test extends MapTest {
 
+    /**
+     * Prime hash table size used by the hash-distribution tests.
+     */
+    private static final int PRIME_HASH_TABLE_SIZE = 1009;
+
+    /**
+     * Number of keys used by the hash-distribution tests.
+     */
+    private static final int COLLIDING_KEYS = 100;
+
+    /**
+     * Longest chain tolerated when colliding keys are mixed.
+     */
+    private static final int MIXED_CHAIN_BOUND = 5;
+
     @Override
     protected final Map<String, String> constructorTest() {
         return new Map4<String, String>();
@@ -16,4 +38,238 @@ public class Map4Test extends MapTest {
         return new Map1L<String, String>();
     }
 
+    /**
+     * Creates and returns a {@code Map4<String, String>} with the given
+     * entries.
+     *
+     * @param args
+     *            the (key, value) pairs for the map
+     * @return the constructed map
+     * @requires <pre>
+     * [args.length is even]  and
+     * [the 'key' entries in args are unique]
+     * </pre>
+     * @ensures createFromArgsMap4 = [pairs in args]
+     */
+    private Map4<String, String> createFromArgsMap4(String... args) {
+        Map4<String, String> map = new Map4<String, String>();
+        for (int i = 0; i < args.length; i += 2) {
+            map.add(args[i], args[i + 1]);
+        }
+        return map;
+    }
+
+    /*
+     * Testing .putIfAbsent() in this section:=
+     */
+
+    /**
+     * Testing .putIfAbsent() of a key not in the {@code Map4}.
+     */
+    @Test
+    public final void testPutIfAbsentAbsent() {
+        Map4<String, String> m = this.createFromArgsMap4("one", "1");
+        Map<String, String> mExpected = this.createFromArgsMap4("one", "1",
+                "two", "2");
+        assertEquals(null, m.putIfAbsent("two", "2"));
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .putIfAbsent() of a key already in the {@code Map4}.
+     */
+    @Test
+    public final void testPutIfAbsentPresent() {
+        Map4<String, String> m = this.createFromArgsMap4("one", "1");
+        Map<String, String> mExpected = this.createFromArgsMap4("one", "1");
+        assertEquals("1", m.putIfAbsent("one", "2"));
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Testing .merge() in this section:=
+     */
+
+    /**
+     * Testing .merge() of a key not in the {@code Map4}.
+     */
+    @Test
+    public final void testMergeAbsent() {
+        Map4<String, String> m = this.createFromArgsMap4();
+        Map<String, String> mExpected = this.createFromArgsMap4("one", "1");
+        assertEquals("1", m.merge("one", "1", String::concat));
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .merge() of a key already in the {@code Map4}.
+     */
+    @Test
+    public final void testMergePresent() {
+        Map4<String, String> m = this.createFromArgsMap4("one", "1", "two",
+                "2");
+        Map<String, String> mExpected = this.createFromArgsMap4("one", "11",
+                "two", "2");
+        assertEquals("11", m.merge("one", "1", String::concat));
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .merge() whose remapping function returns null.
+     */
+    @Test
+    public final void testMergeToNullRemoves() {
+        Map4<String, String> m = this.createFromArgsMap4("one", "1", "two",
+                "2");
+        Map<String, String> mExpected = this.createFromArgsMap4("two", "2");
+        assertEquals(null, m.merge("one", "1", (x, y) -> null));
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Testing .compute() in this section:=
+     */
+
+    /**
+     * Testing .compute() of a key not in the {@code Map4}.
+     */
+    @Test
+    public final void testComputeAbsent() {
+        Map4<String, String> m = this.createFromArgsMap4();
+        Map<String, String> mExpected = this.createFromArgsMap4("one",
+                "one:null");
+        assertEquals("one:null", m.compute("one", (k, v) -> k + ":" + v));
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .compute() of a key already in the {@code Map4}.
+     */
+    @Test
+    public final void testComputePresent() {
+        Map4<String, String> m = this.createFromArgsMap4("one", "1");
+        Map<String, String> mExpected = this.createFromArgsMap4("one",
+                "one:1");
+        assertEquals("one:1", m.compute("one", (k, v) -> k + ":" + v));
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .compute() whose remapping function returns null.
+     */
+    @Test
+    public final void testComputeToNullRemoves() {
+        Map4<String, String> m = this.createFromArgsMap4("one", "1");
+        Map<String, String> mExpected = this.createFromArgsMap4();
+        assertEquals(null, m.compute("one", (k, v) -> null));
+        assertEquals(mExpected, m);
+        assertEquals(null, m.compute("two", (k, v) -> null));
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Testing .replaceValue() in this section:=
+     */
+
+    /**
+     * Testing .replaceValue() of a key in the {@code Map4}.
+     */
+    @Test
+    public final void testReplaceValue() {
+        Map4<String, String> m = this.createFromArgsMap4("one", "1", "two",
+                "2");
+        Map<String, String> mExpected = this.createFromArgsMap4("one", "1",
+                "two", "3");
+        assertEquals("2", m.replaceValue("two", "3"));
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Testing .statistics() in this section:=
+     */
+
+    /**
+     * Testing .statistics() of an empty {@code Map4}.
+     */
+    @Test
+    public final void testStatisticsEmpty() {
+        Map4<String, String> m = this.createFromArgsMap4();
+        Map4.Statistics stats = m.statistics();
+        assertEquals(0, stats.size());
+        assertEquals(0, stats.longestChain());
+        assertEquals(0.0, stats.averageProbeLength(), 0.0);
+        assertEquals(0, stats.rehashCount());
+        assertArrayEquals(new int[] { stats.bucketCount() },
+                stats.occupancyHistogram());
+    }
+
+    /**
+     * Testing .statistics() of keys whose hash codes all land in one bucket
+     * without mixing, and are spread out with it.
+     */
+    @Test
+    public final void testStatisticsCollidingKeys() {
+        Map4<Integer, Integer> plain = new Map4<>(PRIME_HASH_TABLE_SIZE,
+                false);
+        Map4<Integer, Integer> mixed = new Map4<>(PRIME_HASH_TABLE_SIZE, true);
+        for (int i = 0; i < COLLIDING_KEYS; i++) {
+            plain.add(i * PRIME_HASH_TABLE_SIZE, i);
+            mixed.add(i * PRIME_HASH_TABLE_SIZE, i);
+        }
+        Map4.Statistics plainStats = plain.statistics();
+        assertEquals(COLLIDING_KEYS, plainStats.size());
+        assertEquals(COLLIDING_KEYS, plainStats.longestChain());
+        assertEquals((COLLIDING_KEYS + 1) / 2.0,
+                plainStats.averageProbeLength(), 0.0);
+        int[] histogram = plainStats.occupancyHistogram();
+        assertEquals(PRIME_HASH_TABLE_SIZE - 1, histogram[0]);
+        assertEquals(1, histogram[COLLIDING_KEYS]);
+        Map4.Statistics mixedStats = mixed.statistics();
+        assertEquals(COLLIDING_KEYS, mixedStats.size());
+        assertTrue(mixedStats.longestChain() <= MIXED_CHAIN_BOUND);
+        for (int i = 0; i < COLLIDING_KEYS; i++) {
+            assertEquals(Integer.valueOf(i),
+                    mixed.value(i * PRIME_HASH_TABLE_SIZE));
+        }
+    }
+
+    /**
+     * Testing .newInstance() of a map that mixes hash codes gives a map that
+     * mixes them too.
+     */
+    @Test
+    public final void testNewInstanceMixed() {
+        final int defaultHashTableSize = 101;
+        final int keys = COLLIDING_KEYS / 2;
+        Map4<Integer, Integer> mixed = new Map4<>(PRIME_HASH_TABLE_SIZE, true);
+        @SuppressWarnings("unchecked")
+        Map4<Integer, Integer> m = (Map4<Integer, Integer>) mixed
+                .newInstance();
+        for (int i = 0; i < keys; i++) {
+            m.add(i * defaultHashTableSize, i);
+        }
+        assertTrue(m.statistics().longestChain() <= MIXED_CHAIN_BOUND);
+    }
+
+    /**
+     * Testing .statistics() counts the times the hash table grows.
+     */
+    @Test
+    public final void testStatisticsRehashCount() {
+        Map4<String, String> m = new Map4<String, String>(1);
+        m.add("one", "1");
+        assertEquals(1, m.statistics().rehashCount());
+        m.add("two", "2");
+        m.add("three", "3");
+        Map4.Statistics stats = m.statistics();
+        assertEquals(2, stats.rehashCount());
+        assertEquals(3, stats.size());
+        int entries = 0;
+        int[] histogram = stats.occupancyHistogram();
+        for (int length = 0; length < histogram.length; length++) {
+            entries += length * histogram[length];
+        }
+        assertEquals(3, entries);
+    }
+
 }
@@ -365,4 +365,55 @@ public abstract class MapTest {
      * Integration Testing (NOT REQUIRED):
      */
 
+    /**
+     * Number of pairs used by the integration tests; large enough to make a
+     * hash table grow several times.
+     */
+    private static final int MANY_PAIRS = 1000;
+
+    /**
+     * Testing .add() of many {@code Map.Pair<String, String>}, followed by
+     * .value() and .hasKey() on every key.
+     */
+    @Test
+    public final void testAddManyThenValue() {
+        Map<String, String> m = this.createFromArgsTest();
+        Map<String, String> mExpected = this.createFromArgsRef();
+        for (int i = 0; i < MANY_PAIRS; i++) {
+            m.add("key" + i, "" + i);
+            mExpected.add("key" + i, "" + i);
+        }
+        assertEquals(mExpected, m);
+        for (int i = 0; i < MANY_PAIRS; i++) {
+            assertEquals(true, m.hasKey("key" + i));
+            assertEquals("" + i, m.value("key" + i));
+        }
+        assertEquals(false, m.hasKey("key" + MANY_PAIRS));
+        assertEquals(MANY_PAIRS, m.size());
+    }
+
+    /**
+     * Testing .remove() and .removeAny() interleaved with .add() of many
+     * {@code Map.Pair<String, String>}, until the {@code Map} is empty.
+     */
+    @Test
+    public final void testAddManyThenRemoveAll() {
+        Map<String, String> m = this.createFromArgsTest();
+        Map<String, String> mExpected = this.createFromArgsRef();
+        for (int i = 0; i < MANY_PAIRS; i++) {
+            m.add("key" + i, "" + i);
+            mExpected.add("key" + i, "" + i);
+            if (i % 3 == 0) {
+                Pair<String, String> p = m.remove("key" + (i / 2));
+                assertEquals(mExpected.remove("key" + (i / 2)), p);
+            }
+        }
+        assertEquals(mExpected, m);
+        while (m.size() > 0) {
+            Pair<String, String> p = m.removeAny();
+            assertEquals(mExpected.remove(p.key()), p);
+        }
+        assertEquals(mExpected, m);
+    }
+
 }
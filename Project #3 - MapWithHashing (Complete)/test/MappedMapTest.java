@@ -0,0 +1,219 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * JUnit test fixture for {@code MappedMap}.
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class MappedMapTest {
+
+    /**
+     * Number of keys used by the growth tests; large enough to make the index
+     * and the data file grow several times.
+     */
+    private static final int MANY_KEYS = 5000;
+
+    /**
+     * Creates and returns a {@code MappedMap} with the given entries, backed
+     * by temporary files.
+     *
+     * @param args
+     *            the (key, value) pairs for the map, with each value given as
+     *            a {@code String}
+     * @return the constructed map
+     * @requires <pre>
+     * [args.length is even]  and
+     * [the 'key' entries in args are unique]  and
+     * [the 'value' entries in args are decimal numerals]
+     * </pre>
+     * @ensures createFromArgsTest = [pairs in args]
+     */
+    private MappedMap createFromArgsTest(String... args) {
+        MappedMap map = new MappedMap();
+        for (int i = 0; i < args.length; i += 2) {
+            map.add(args[i], Long.parseLong(args[i + 1]));
+        }
+        return map;
+    }
+
+    /**
+     * Creates and returns a {@code Map1L} with the given entries.
+     *
+     * @param args
+     *            the (key, value) pairs for the map, with each value given as
+     *            a {@code String}
+     * @return the constructed map
+     * @requires <pre>
+     * [args.length is even]  and
+     * [the 'key' entries in args are unique]  and
+     * [the 'value' entries in args are decimal numerals]
+     * </pre>
+     * @ensures createFromArgsRef = [pairs in args]
+     */
+    private Map<String, Long> createFromArgsRef(String... args) {
+        Map<String, Long> map = new Map1L<String, Long>();
+        for (int i = 0; i < args.length; i += 2) {
+            map.add(args[i], Long.parseLong(args[i + 1]));
+        }
+        return map;
+    }
+
+    /**
+     * Returns the path, without suffixes, of a dictionary in a new temporary
+     * directory, whose files are deleted when the virtual machine exits.
+     *
+     * @return the path of the dictionary's files
+     * @throws IOException
+     *             if the directory cannot be created
+     */
+    private String newDictionaryPath() throws IOException {
+        File directory = Files.createTempDirectory("MappedMapTest").toFile();
+        directory.deleteOnExit();
+        String path = new File(directory, "dictionary").getPath();
+        new File(path + ".idx").deleteOnExit();
+        new File(path + ".dat").deleteOnExit();
+        return path;
+    }
+
+    /**
+     * Testing the no-argument constructor.
+     */
+    @Test
+    public final void testNoArgumentConstructor() {
+        Map<String, Long> m = new MappedMap();
+        Map<String, Long> mExpected = this.createFromArgsRef();
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .add() of several keys, including non-ASCII ones.
+     */
+    @Test
+    public final void testAdd() {
+        Map<String, Long> m = this.createFromArgsTest("one", "1");
+        Map<String, Long> mExpected = this.createFromArgsRef("one", "1",
+                "\u00e9t\u00e9", "2", "", "-3");
+        m.add("\u00e9t\u00e9", 2L);
+        m.add("", -3L);
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .remove() of keys at the front and the back of their chains.
+     */
+    @Test
+    public final void testRemove() {
+        Map<String, Long> m = this.createFromArgsTest("one", "1", "two", "2",
+                "three", "3");
+        Map<String, Long> mExpected = this.createFromArgsRef("two", "2");
+        Map.Pair<String, Long> p = m.remove("one");
+        assertEquals("one", p.key());
+        assertEquals(Long.valueOf(1), p.value());
+        m.remove("three");
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .removeAny() until the map is empty.
+     */
+    @Test
+    public final void testRemoveAnyUntilEmpty() {
+        Map<String, Long> m = this.createFromArgsTest("one", "1", "two", "2",
+                "three", "3");
+        Map<String, Long> mRemoved = this.createFromArgsRef();
+        Map<String, Long> mExpected = this.createFromArgsRef("one", "1",
+                "two", "2", "three", "3");
+        while (m.size() > 0) {
+            Map.Pair<String, Long> p = m.removeAny();
+            mRemoved.add(p.key(), p.value());
+        }
+        assertEquals(mExpected, mRemoved);
+    }
+
+    /**
+     * Testing .value(), .hasKey(), and .replaceValue().
+     */
+    @Test
+    public final void testValueHasKeyReplaceValue() {
+        Map<String, Long> m = this.createFromArgsTest("one", "1", "two", "2");
+        assertEquals(Long.valueOf(2), m.value("two"));
+        assertEquals(true, m.hasKey("one"));
+        assertEquals(false, m.hasKey("three"));
+        assertEquals(Long.valueOf(1), m.replaceValue("one", Long.MAX_VALUE));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), m.value("one"));
+    }
+
+    /**
+     * Testing .clear() and .transferFrom().
+     */
+    @Test
+    public final void testClearTransferFrom() {
+        Map<String, Long> m = this.createFromArgsTest("one", "1");
+        Map<String, Long> source = this.createFromArgsTest("two", "2");
+        Map<String, Long> mExpected = this.createFromArgsRef("two", "2");
+        Map<String, Long> sourceExpected = this.createFromArgsRef();
+        m.clear();
+        assertEquals(sourceExpected, m);
+        m.transferFrom(source);
+        assertEquals(mExpected, m);
+        assertEquals(sourceExpected, source);
+        source.add("three", 3L);
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing many additions and removals, which grow the index and the data
+     * file.
+     */
+    @Test
+    public final void testManyKeys() {
+        Map<String, Long> m = new MappedMap();
+        Map<String, Long> mExpected = new Map1L<String, Long>();
+        for (int i = 0; i < MANY_KEYS; i++) {
+            m.add("key" + i, (long) i * i);
+            mExpected.add("key" + i, (long) i * i);
+        }
+        for (int i = 0; i < MANY_KEYS; i += 2) {
+            m.remove("key" + i);
+            mExpected.remove("key" + i);
+        }
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing that a dictionary written to files is reopened intact by a new
+     * {@code MappedMap}.
+     *
+     * @throws IOException
+     *             if the temporary directory cannot be created
+     */
+    @Test
+    public final void testReopen() throws IOException {
+        String path = this.newDictionaryPath();
+        MappedMap written = new MappedMap(path);
+        Map<String, Long> mExpected = new Map1L<String, Long>();
+        for (int i = 0; i < MANY_KEYS; i++) {
+            written.add("word" + i, (long) i);
+            mExpected.add("word" + i, (long) i);
+        }
+        written.remove("word0");
+        mExpected.remove("word0");
+        written.flush();
+        Map<String, Long> reopened = new MappedMap(path);
+        assertEquals(mExpected, reopened);
+        reopened.add("word0", 0L);
+        mExpected.add("word0", 0L);
+        assertEquals(mExpected, new MappedMap(path));
+    }
+
+}
@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code StringCountMap}.
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class StringCountMapTest {
+
+    /**
+     * Number of distinct words used by the growth test; large enough to make
+     * the hash table grow several times.
+     */
+    private static final int MANY_WORDS = 1000;
+
+    /**
+     * Testing the no-argument constructor.
+     */
+    @Test
+    public final void testNoArgumentConstructor() {
+        StringCountMap m = new StringCountMap();
+        assertEquals(0, m.size());
+        assertEquals(false, m.hasKey("one"));
+        assertEquals(0, m.count("one"));
+    }
+
+    /**
+     * Testing .increment() of a word not yet counted.
+     */
+    @Test
+    public final void testIncrementNew() {
+        StringCountMap m = new StringCountMap();
+        assertEquals(1, m.increment("one"));
+        assertEquals(1, m.size());
+        assertEquals(true, m.hasKey("one"));
+        assertEquals(1, m.count("one"));
+    }
+
+    /**
+     * Testing .increment() of a word already counted.
+     */
+    @Test
+    public final void testIncrementExisting() {
+        StringCountMap m = new StringCountMap();
+        m.increment("one");
+        m.increment("two");
+        assertEquals(2, m.increment("one"));
+        assertEquals(2, m.size());
+        assertEquals(2, m.count("one"));
+        assertEquals(1, m.count("two"));
+    }
+
+    /**
+     * Testing .incrementBy() of new and existing words.
+     */
+    @Test
+    public final void testIncrementBy() {
+        StringCountMap m = new StringCountMap();
+        assertEquals(3, m.incrementBy("one", 3));
+        assertEquals(7, m.incrementBy("one", 4));
+        assertEquals(1, m.size());
+    }
+
+    /**
+     * Testing .clear().
+     */
+    @Test
+    public final void testClear() {
+        StringCountMap m = new StringCountMap();
+        m.increment("one");
+        m.clear();
+        assertEquals(0, m.size());
+        assertEquals(false, m.hasKey("one"));
+    }
+
+    /**
+     * Testing .iterator() order and counts after the table has grown.
+     */
+    @Test
+    public final void testManyWordsIterator() {
+        StringCountMap m = new StringCountMap();
+        for (int i = 0; i < MANY_WORDS; i++) {
+            for (int j = 0; j <= i % 3; j++) {
+                m.increment("word" + i);
+            }
+        }
+        assertEquals(MANY_WORDS, m.size());
+        int i = 0;
+        for (String word : m) {
+            assertEquals("word" + i, word);
+            assertEquals(i % 3 + 1, m.count(word));
+            i++;
+        }
+        assertEquals(MANY_WORDS, i);
+    }
+
+}
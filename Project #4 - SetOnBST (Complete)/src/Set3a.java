@@ -1,4 +1,6 @@
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import components.binarytree.BinaryTree;
 import components.binarytree.BinaryTree1;
@@ -9,6 +11,14 @@ import components.set.SetSecondary;
  * {@code Set} represented as a {@code BinaryTree} (maintained as a binary
  * search tree) of elements with implementations of primary methods.
  *
+ * <p>
+ * {@code fromSorted} builds a perfectly balanced tree from elements already
+ * in increasing order in linear time, and {@code add(Set)} and
+ * {@code remove(Set)} with another {@code Set3a} merge the two in-order
+ * sequences and rebuild balanced trees from the results, also in linear time,
+ * instead of adding or removing one element at a time.
+ * </p>
+ *
  * @param <T>
  *            type of {@code Set} elements
  * @mathdefinitions <pre>
@@ -182,6 +192,116 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         return removedNode;
     }
 
+    /**
+     * Builds in {@code t} a perfectly balanced tree whose in-order labels are
+     * {@code labels[lo, hi)}.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     * @param t
+     *            the {@code BinaryTree} to build
+     * @param labels
+     *            the labels, in increasing order
+     * @param lo
+     *            the position of the first label
+     * @param hi
+     *            the position after the last label
+     * @replaces t
+     * @requires <pre>
+     * 0 <= lo <= hi <= |labels|  and
+     * [labels[lo, hi) is strictly increasing]
+     * </pre>
+     * @ensures <pre>
+     * IS_BST(t)  and  labels(t) = entries(labels[lo, hi))  and
+     * height(t) = [ceiling of log2(hi - lo + 1)]
+     * </pre>
+     */
+    private static <T> void buildTree(BinaryTree<T> t, List<T> labels,
+            int lo, int hi) {
+        assert t != null : "Violation of: t is not null";
+        assert 0 <= lo && lo <= hi && hi <= labels.size() : ""
+                + "Violation of: 0 <= lo <= hi <= |labels|";
+
+        t.clear();
+        if (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            BinaryTree<T> leftSubtree = t.newInstance();
+            BinaryTree<T> rightSubtree = t.newInstance();
+            buildTree(leftSubtree, labels, lo, mid);
+            buildTree(rightSubtree, labels, mid + 1, hi);
+            t.assemble(labels.get(mid), leftSubtree, rightSubtree);
+        }
+    }
+
+    /**
+     * Merges the increasing sequences {@code a} and {@code b}, appending
+     * their union, their intersection, and the elements of {@code a} not in
+     * {@code b} to {@code union}, {@code intersection}, and
+     * {@code difference}, each in increasing order.
+     *
+     * @param <T>
+     *            type of elements
+     * @param a
+     *            the first sequence
+     * @param b
+     *            the second sequence
+     * @param union
+     *            receives a union b
+     * @param intersection
+     *            receives a intersection b
+     * @param difference
+     *            receives a \ b
+     * @updates union, intersection, difference
+     * @requires [a and b are strictly increasing]
+     */
+    private static <T extends Comparable<T>> void merge(Iterator<T> a,
+            Iterator<T> b, List<T> union, List<T> intersection,
+            List<T> difference) {
+        T x = null;
+        if (a.hasNext()) {
+            x = a.next();
+        }
+        T y = null;
+        if (b.hasNext()) {
+            y = b.next();
+        }
+        while (x != null || y != null) {
+            int comparison;
+            if (x == null) {
+                comparison = 1;
+            } else if (y == null) {
+                comparison = -1;
+            } else {
+                comparison = x.compareTo(y);
+            }
+            if (comparison < 0) {
+                union.add(x);
+                difference.add(x);
+            } else if (comparison > 0) {
+                union.add(y);
+            } else {
+                /*
+                 * The element of a is kept, matching what add(T) would have
+                 * left in a.
+                 */
+                union.add(x);
+                intersection.add(x);
+            }
+            if (comparison <= 0) {
+                x = null;
+                if (a.hasNext()) {
+                    x = a.next();
+                }
+            }
+            if (comparison >= 0) {
+                y = null;
+                if (b.hasNext()) {
+                    y = b.next();
+                }
+            }
+        }
+    }
+
     /**
      * Creator of initial representation.
      */
@@ -200,6 +320,43 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         this.createNewRep();
     }
 
+    /**
+     * Returns a new {@code Set3a} of the elements produced by {@code sorted},
+     * held in a perfectly balanced tree built in time linear in their number.
+     *
+     * @param <T>
+     *            type of {@code Set} elements
+     * @param sorted
+     *            the elements, in strictly increasing order
+     * @return the new set
+     * @requires <pre>
+     * sorted is not null  and
+     * [the elements remaining in sorted are not null and strictly
+     *  increasing]
+     * </pre>
+     * @ensures <pre>
+     * fromSorted = [the elements remaining in sorted]  and
+     * [sorted has no elements remaining]
+     * </pre>
+     */
+    public static <T extends Comparable<T>> Set3a<T> fromSorted(
+            Iterator<T> sorted) {
+        assert sorted != null : "Violation of: sorted is not null";
+
+        List<T> labels = new ArrayList<T>();
+        while (sorted.hasNext()) {
+            T x = sorted.next();
+            assert x != null : "Violation of: elements are not null";
+            assert labels.isEmpty() || labels.get(labels.size() - 1)
+                    .compareTo(x) < 0 : ""
+                            + "Violation of: elements are strictly increasing";
+            labels.add(x);
+        }
+        Set3a<T> set = new Set3a<T>();
+        buildTree(set.tree, labels, 0, labels.size());
+        return set;
+    }
+
     /*
      * Standard methods -------------------------------------------------------
      */
@@ -276,4 +433,56 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         return this.tree.iterator();
     }
 
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final void add(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        if (s instanceof Set3a<?>) {
+            /*
+             * This cast cannot fail: s is of dynamic type Set3a<?>, and the ?
+             * must be T or the call would not have compiled.
+             */
+            Set3a<T> localS = (Set3a<T>) s;
+            List<T> union = new ArrayList<T>();
+            List<T> intersection = new ArrayList<T>();
+            merge(this.tree.iterator(), localS.tree.iterator(), union,
+                    intersection, new ArrayList<T>());
+            buildTree(this.tree, union, 0, union.size());
+            buildTree(localS.tree, intersection, 0, intersection.size());
+        } else {
+            super.add(s);
+        }
+    }
+
+    @Override
+    public final Set<T> remove(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        Set<T> removed;
+        if (s instanceof Set3a<?>) {
+            /*
+             * This cast cannot fail: s is of dynamic type Set3a<?>, and the ?
+             * must be T or the call would not have compiled.
+             */
+            Set3a<T> localS = (Set3a<T>) s;
+            List<T> intersection = new ArrayList<T>();
+            List<T> difference = new ArrayList<T>();
+            merge(this.tree.iterator(), localS.tree.iterator(),
+                    new ArrayList<T>(), intersection, difference);
+            Set3a<T> localRemoved = (Set3a<T>) this.newInstance();
+            buildTree(localRemoved.tree, intersection, 0, intersection.size());
+            buildTree(this.tree, difference, 0, difference.size());
+            removed = localRemoved;
+        } else {
+            removed = super.remove(s);
+        }
+        return removed;
+    }
+
 }
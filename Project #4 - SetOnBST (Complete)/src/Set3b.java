@@ -0,0 +1,869 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as an AVL tree of linked nodes (a binary search tree
+ * in which the heights of the two subtrees of every node differ by at most
+ * one), with implementations of primary methods.
+ *
+ * <p>
+ * Unlike {@code Set3a}, whose tree takes whatever shape the order of the
+ * additions gives it (a chain, for sorted input), {@code Set3b} rotates nodes
+ * after every {@code add} and {@code remove} to keep the tree balanced, so its
+ * height never exceeds about 1.44 log2(|this| + 2) and {@code add},
+ * {@code remove}, {@code removeAny}, and {@code contains} all take
+ * O(log |this|) time in the worst case, whatever the order of the input.
+ * </p>
+ *
+ * <p>
+ * Every node also refers to its parent, so {@code add} and {@code remove} walk
+ * down the tree in a loop and then back up it, rebalancing as they go, with no
+ * recursion and no allocation besides the one node {@code add} creates.
+ * </p>
+ *
+ * <p>
+ * Every node also records the size of its subtree, which supports ordered
+ * navigation beyond the {@code Set} kernel: {@code first}, {@code last},
+ * {@code floor}, {@code ceiling}, {@code rank}, and {@code select} each take
+ * O(log |this|) time, and {@code subSet} iterates over the k elements in a
+ * range in O(log |this| + k) time.
+ * </p>
+ *
+ * <p>
+ * {@code contains}, {@code size}, and iteration only read the nodes: they
+ * change nothing and (apart from the iterator itself) allocate nothing, unlike
+ * the disassemble-and-reassemble search of {@code Set3a}. So any number of
+ * threads may read a {@code Set3b} at once without locking, provided that no
+ * thread updates it meanwhile and that it was safely published to them (e.g.,
+ * through a {@code final} or {@code volatile} field, or before the readers
+ * were started).
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_BST(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [tree satisfies the binary search tree properties as described in the
+ *   slides with the ordering reported by compareTo for T, including that
+ *   it has no duplicate labels]
+ *
+ * IS_AVL(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [for every subtree of tree, the heights of its left and right subtrees
+ *   differ by at most one]
+ *
+ * TREE(
+ *   n: Node
+ *  ): binary tree of T is
+ *  [the binary tree whose root is the label of n and whose left and right
+ *   subtrees are TREE(n.left) and TREE(n.right), or the empty tree if n is
+ *   null]
+ * </pre>
+ * @convention <pre>
+ * IS_BST(TREE($this.root))  and  IS_AVL(TREE($this.root))  and
+ * [for every node n of TREE($this.root), n.height = height(TREE(n)) and
+ *  n.subtreeSize = |TREE(n)|]  and
+ * [$this.root is null or $this.root.parent = null]  and
+ * [for every node n of TREE($this.root), n.left and n.right are null or
+ *  have parent n]  and
+ * $this.size = |TREE($this.root)|
+ * </pre>
+ * @correspondence this = labels(TREE($this.root))
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class Set3b<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node class for the AVL tree.
+     */
+    private final class Node {
+
+        /**
+         * Label of node.
+         */
+        private T label;
+
+        /**
+         * Root of left subtree, or null.
+         */
+        private Node left;
+
+        /**
+         * Root of right subtree, or null.
+         */
+        private Node right;
+
+        /**
+         * Parent node, or null for the root.
+         */
+        private Node parent;
+
+        /**
+         * Height of the subtree rooted at this node.
+         */
+        private int height;
+
+        /**
+         * Number of nodes in the subtree rooted at this node.
+         */
+        private int subtreeSize;
+
+        /**
+         * Constructor of a leaf labeled {@code x} with parent {@code p}.
+         *
+         * @param x
+         *            the label
+         * @param p
+         *            the parent, or null
+         */
+        Node(T x, Node p) {
+            this.label = x;
+            this.left = null;
+            this.right = null;
+            this.parent = p;
+            this.height = 1;
+            this.subtreeSize = 1;
+        }
+
+    }
+
+    /**
+     * Root of the tree, or null if {@code this} is empty.
+     */
+    private Node root;
+
+    /**
+     * Number of elements in {@code this}.
+     */
+    private int size;
+
+    /**
+     * Reports the height of the subtree rooted at {@code n}.
+     *
+     * @param n
+     *            the root of the subtree, or null
+     * @return height(TREE(n))
+     */
+    private int height(Node n) {
+        int height = 0;
+        if (n != null) {
+            height = n.height;
+        }
+        return height;
+    }
+
+    /**
+     * Reports the number of nodes in the subtree rooted at {@code n}.
+     *
+     * @param n
+     *            the root of the subtree, or null
+     * @return |TREE(n)|
+     */
+    private int subtreeSize(Node n) {
+        int subtreeSize = 0;
+        if (n != null) {
+            subtreeSize = n.subtreeSize;
+        }
+        return subtreeSize;
+    }
+
+    /**
+     * Recomputes the height and subtree size of {@code n} from those of its
+     * children.
+     *
+     * @param n
+     *            the node
+     * @updates n.height, n.subtreeSize
+     * @requires n is not null
+     * @ensures <pre>
+     * n.height = 1 + max(height(n.left), height(n.right))  and
+     * n.subtreeSize = 1 + subtreeSize(n.left) + subtreeSize(n.right)
+     * </pre>
+     */
+    private void updateNode(Node n) {
+        n.height = 1 + Math.max(this.height(n.left), this.height(n.right));
+        n.subtreeSize = 1 + this.subtreeSize(n.left)
+                + this.subtreeSize(n.right);
+    }
+
+    /**
+     * Makes {@code replacement} take the place of {@code n} as a child of
+     * {@code n}'s parent, or as the root if {@code n} is the root.
+     *
+     * @param n
+     *            the node being replaced
+     * @param replacement
+     *            the node taking its place, or null
+     * @updates $this.root, n.parent, replacement.parent
+     * @requires n is not null
+     * @ensures <pre>
+     * [replacement is where n was in TREE($this.root), with its parent
+     *  reference updated]
+     * </pre>
+     */
+    private void replaceChild(Node n, Node replacement) {
+        Node p = n.parent;
+        if (p == null) {
+            this.root = replacement;
+        } else if (p.left == n) {
+            p.left = replacement;
+        } else {
+            p.right = replacement;
+        }
+        if (replacement != null) {
+            replacement.parent = p;
+        }
+    }
+
+    /**
+     * Rotates the subtree rooted at {@code n} to the right, and returns its new
+     * root (the former left child of {@code n}).
+     *
+     * @param n
+     *            the root of the subtree
+     * @return the new root of the subtree
+     * @updates $this
+     * @requires n is in TREE($this.root) and n.left is not null
+     * @ensures <pre>
+     * [rotateRight has taken the place of #n in TREE($this.root)]  and
+     * this = #this
+     * </pre>
+     */
+    private Node rotateRight(Node n) {
+        Node pivot = n.left;
+        n.left = pivot.right;
+        if (pivot.right != null) {
+            pivot.right.parent = n;
+        }
+        this.replaceChild(n, pivot);
+        pivot.right = n;
+        n.parent = pivot;
+        this.updateNode(n);
+        this.updateNode(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates the subtree rooted at {@code n} to the left, and returns its new
+     * root (the former right child of {@code n}).
+     *
+     * @param n
+     *            the root of the subtree
+     * @return the new root of the subtree
+     * @updates $this
+     * @requires n is in TREE($this.root) and n.right is not null
+     * @ensures <pre>
+     * [rotateLeft has taken the place of #n in TREE($this.root)]  and
+     * this = #this
+     * </pre>
+     */
+    private Node rotateLeft(Node n) {
+        Node pivot = n.right;
+        n.right = pivot.left;
+        if (pivot.left != null) {
+            pivot.left.parent = n;
+        }
+        this.replaceChild(n, pivot);
+        pivot.left = n;
+        n.parent = pivot;
+        this.updateNode(n);
+        this.updateNode(pivot);
+        return pivot;
+    }
+
+    /**
+     * Restores the AVL property at {@code n}, whose subtrees are AVL trees
+     * whose heights differ by at most two, and returns the node that takes the
+     * place of {@code n} in the tree.
+     *
+     * @param n
+     *            the root of the subtree
+     * @return the new root of the subtree
+     * @updates $this
+     * @requires <pre>
+     * n is in TREE($this.root)  and
+     * IS_AVL(TREE(n.left))  and  IS_AVL(TREE(n.right))  and
+     * |height(TREE(n.left)) - height(TREE(n.right))| <= 2
+     * </pre>
+     * @ensures <pre>
+     * IS_AVL(TREE(rebalance))  and
+     * [rebalance has taken the place of #n in TREE($this.root)]  and
+     * this = #this
+     * </pre>
+     */
+    private Node rebalance(Node n) {
+        Node newRoot = n;
+        int balance = this.height(n.left) - this.height(n.right);
+        if (balance > 1) {
+            if (this.height(n.left.left) < this.height(n.left.right)) {
+                this.rotateLeft(n.left);
+            }
+            newRoot = this.rotateRight(n);
+        } else if (balance < -1) {
+            if (this.height(n.right.right) < this.height(n.right.left)) {
+                this.rotateRight(n.right);
+            }
+            newRoot = this.rotateLeft(n);
+        } else {
+            this.updateNode(n);
+        }
+        return newRoot;
+    }
+
+    /**
+     * Rebalances the tree from {@code n} up towards the root after a node has
+     * been added below {@code n} or removed from below it; once a subtree is
+     * back to the height it had before, nothing above it needs rebalancing,
+     * and only the subtree sizes of the remaining ancestors are updated.
+     *
+     * @param n
+     *            the lowest node whose subtree has changed, or null
+     * @updates $this
+     * @requires <pre>
+     * [TREE($this.root) is an AVL tree except that the heights and subtree
+     *  sizes recorded at n and its ancestors may be off by one, and the
+     *  heights of the subtrees of one of them may differ by two]
+     * </pre>
+     * @ensures IS_AVL(TREE($this.root)) and this = #this
+     */
+    private void rebalanceUp(Node n) {
+        Node current = n;
+        boolean heightsSettled = false;
+        while (current != null) {
+            if (heightsSettled) {
+                this.updateNode(current);
+                current = current.parent;
+            } else {
+                int oldHeight = current.height;
+                Node subtreeRoot = this.rebalance(current);
+                heightsSettled = subtreeRoot.height == oldHeight;
+                current = subtreeRoot.parent;
+            }
+        }
+    }
+
+    /**
+     * Returns the node with the greatest label less than or equal to
+     * {@code x}, or null if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the node, or null
+     * @ensures <pre>
+     * if [some label of TREE($this.root) is <= x] then
+     *   floorNode.label = [the greatest such label]
+     * else
+     *   floorNode = null
+     * </pre>
+     */
+    private Node floorNode(T x) {
+        Node best = null;
+        Node current = this.root;
+        while (current != null) {
+            int comparison = x.compareTo(current.label);
+            if (comparison >= 0) {
+                best = current;
+                if (comparison == 0) {
+                    current = null;
+                } else {
+                    current = current.right;
+                }
+            } else {
+                current = current.left;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the node with the least label greater than or equal to
+     * {@code x}, or null if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the node, or null
+     * @ensures <pre>
+     * if [some label of TREE($this.root) is >= x] then
+     *   ceilingNode.label = [the least such label]
+     * else
+     *   ceilingNode = null
+     * </pre>
+     */
+    private Node ceilingNode(T x) {
+        Node best = null;
+        Node current = this.root;
+        while (current != null) {
+            int comparison = x.compareTo(current.label);
+            if (comparison <= 0) {
+                best = current;
+                if (comparison == 0) {
+                    current = null;
+                } else {
+                    current = current.left;
+                }
+            } else {
+                current = current.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Removes {@code n}, which has at most one child, from the tree, putting
+     * its child (if any) in its place and rebalancing above it.
+     *
+     * @param n
+     *            the node to remove
+     * @updates $this
+     * @requires n is in TREE($this.root) and [n.left or n.right is null]
+     * @ensures <pre>
+     * IS_BST(TREE($this.root))  and  IS_AVL(TREE($this.root))  and
+     * this = #this \ {n.label}
+     * </pre>
+     */
+    private void unlink(Node n) {
+        Node child = n.left;
+        if (child == null) {
+            child = n.right;
+        }
+        Node p = n.parent;
+        this.replaceChild(n, child);
+        n.parent = null;
+        n.left = null;
+        n.right = null;
+        this.rebalanceUp(p);
+    }
+
+    /**
+     * Returns the node labeled {@code x} in the subtree rooted at {@code n},
+     * or null if there is none. Only follows references: no node is changed
+     * and nothing is allocated.
+     *
+     * @param n
+     *            the root of the subtree, or null
+     * @param x
+     *            the label to be searched for
+     * @return the node labeled x, or null
+     * @requires IS_BST(TREE(n))
+     * @ensures <pre>
+     * if x is in labels(TREE(n)) then
+     *   findInTree.label = x
+     * else
+     *   findInTree = null
+     * </pre>
+     */
+    private Node findInTree(Node n, T x) {
+        Node current = n;
+        int comparison = 1;
+        while (current != null && comparison != 0) {
+            comparison = x.compareTo(current.label);
+            if (comparison < 0) {
+                current = current.left;
+            } else if (comparison > 0) {
+                current = current.right;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set3b() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set3b<?> : ""
+                + "Violation of: source is of dynamic type Set3b<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set3b<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set3b<T> localSource = (Set3b<T>) source;
+        this.root = localSource.root;
+        this.size = localSource.size;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+        Node p = null;
+        Node current = this.root;
+        boolean goLeft = false;
+        while (current != null) {
+            p = current;
+            goLeft = x.compareTo(current.label) < 0;
+            if (goLeft) {
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        Node n = new Node(x, p);
+        if (p == null) {
+            this.root = n;
+        } else if (goLeft) {
+            p.left = n;
+        } else {
+            p.right = n;
+        }
+        this.rebalanceUp(p);
+        this.size++;
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+        Node n = this.findInTree(this.root, x);
+        T removed = n.label;
+        if (n.left != null && n.right != null) {
+            /*
+             * Move the smallest label of the right subtree, whose node has no
+             * left child, up into n, and remove that node instead.
+             */
+            Node successor = n.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            n.label = successor.label;
+            n = successor;
+        }
+        this.unlink(n);
+        this.size--;
+        return removed;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+        Node smallest = this.root;
+        while (smallest.left != null) {
+            smallest = smallest.left;
+        }
+        this.unlink(smallest);
+        this.size--;
+        return smallest.label;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+        return this.findInTree(this.root, x) != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        Node smallest = this.root;
+        if (smallest != null) {
+            while (smallest.left != null) {
+                smallest = smallest.left;
+            }
+        }
+        return new Set3bIterator(smallest, null);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3b}, visiting
+     * the elements in increasing order, from a given node up to an optional
+     * bound, by following child and parent references.
+     */
+    private final class Set3bIterator implements Iterator<T> {
+
+        /**
+         * Node whose label comes next, or null if all have been seen.
+         */
+        private Node nextNode;
+
+        /**
+         * Exclusive upper bound of the labels visited, or null for none.
+         */
+        private final T high;
+
+        /**
+         * Constructor visiting the labels from that of {@code start} on, up
+         * to but excluding {@code high}.
+         *
+         * @param start
+         *            the node whose label comes first, or null for none
+         * @param high
+         *            the exclusive upper bound, or null for none
+         */
+        Set3bIterator(Node start, T high) {
+            this.nextNode = start;
+            this.high = high;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextNode != null && (this.high == null
+                    || this.nextNode.label.compareTo(this.high) < 0);
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Node n = this.nextNode;
+            if (n.right != null) {
+                // the successor is the smallest node of the right subtree.
+                Node successor = n.right;
+                while (successor.left != null) {
+                    successor = successor.left;
+                }
+                this.nextNode = successor;
+            } else {
+                // the successor is the first ancestor n is to the left of.
+                Node child = n;
+                Node ancestor = n.parent;
+                while (ancestor != null && ancestor.right == child) {
+                    child = ancestor;
+                    ancestor = ancestor.parent;
+                }
+                this.nextNode = ancestor;
+            }
+            return n.label;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Ordered-set methods ----------------------------------------------------
+     */
+
+    /**
+     * Reports the smallest element of {@code this}.
+     *
+     * @return the smallest element
+     * @requires |this| > 0
+     * @ensures first is in this and [first <= every element of this]
+     */
+    public final T first() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+        Node n = this.root;
+        while (n.left != null) {
+            n = n.left;
+        }
+        return n.label;
+    }
+
+    /**
+     * Reports the largest element of {@code this}.
+     *
+     * @return the largest element
+     * @requires |this| > 0
+     * @ensures last is in this and [last >= every element of this]
+     */
+    public final T last() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+        Node n = this.root;
+        while (n.right != null) {
+            n = n.right;
+        }
+        return n.label;
+    }
+
+    /**
+     * Reports the greatest element of {@code this} less than or equal to
+     * {@code x}, or null if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the greatest element <= x, or null
+     * @requires x is not null
+     * @ensures <pre>
+     * if [some element of this is <= x] then
+     *   floor = [the greatest such element]
+     * else
+     *   floor = null
+     * </pre>
+     */
+    public final T floor(T x) {
+        assert x != null : "Violation of: x is not null";
+        Node n = this.floorNode(x);
+        T floor = null;
+        if (n != null) {
+            floor = n.label;
+        }
+        return floor;
+    }
+
+    /**
+     * Reports the least element of {@code this} greater than or equal to
+     * {@code x}, or null if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the least element >= x, or null
+     * @requires x is not null
+     * @ensures <pre>
+     * if [some element of this is >= x] then
+     *   ceiling = [the least such element]
+     * else
+     *   ceiling = null
+     * </pre>
+     */
+    public final T ceiling(T x) {
+        assert x != null : "Violation of: x is not null";
+        Node n = this.ceilingNode(x);
+        T ceiling = null;
+        if (n != null) {
+            ceiling = n.label;
+        }
+        return ceiling;
+    }
+
+    /**
+     * Reports the number of elements of {@code this} less than {@code x},
+     * which need not be in {@code this}.
+     *
+     * @param x
+     *            the bound
+     * @return the number of elements < x
+     * @requires x is not null
+     * @ensures rank = |{y: T where (y is in this and y < x) (y)}|
+     */
+    public final int rank(T x) {
+        assert x != null : "Violation of: x is not null";
+        int rank = 0;
+        Node current = this.root;
+        while (current != null) {
+            int comparison = x.compareTo(current.label);
+            if (comparison > 0) {
+                rank += this.subtreeSize(current.left) + 1;
+                current = current.right;
+            } else if (comparison < 0) {
+                current = current.left;
+            } else {
+                rank += this.subtreeSize(current.left);
+                current = null;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Reports the element of {@code this} with exactly {@code k} smaller
+     * elements.
+     *
+     * @param k
+     *            the rank of the element
+     * @return the element of rank k
+     * @requires 0 <= k < |this|
+     * @ensures select is in this and rank(select) = k
+     */
+    public final T select(int k) {
+        assert 0 <= k && k < this.size() : "Violation of: 0 <= k < |this|";
+        Node current = this.root;
+        int remaining = k;
+        int leftSize = this.subtreeSize(current.left);
+        while (remaining != leftSize) {
+            if (remaining < leftSize) {
+                current = current.left;
+            } else {
+                remaining -= leftSize + 1;
+                current = current.right;
+            }
+            leftSize = this.subtreeSize(current.left);
+        }
+        return current.label;
+    }
+
+    /**
+     * Returns an {@code Iterable} over the elements of {@code this} from
+     * {@code low}, inclusive, to {@code high}, exclusive, in increasing order.
+     * Starting the iteration costs O(log |this|) time, and each element
+     * visited O(1) amortized time; {@code this} must not be changed while
+     * iterating.
+     *
+     * @param low
+     *            the inclusive lower bound
+     * @param high
+     *            the exclusive upper bound
+     * @return the elements in [low, high)
+     * @requires low is not null and high is not null
+     * @ensures <pre>
+     * subSet = [the elements y of this with low <= y < high, in increasing
+     *           order]
+     * </pre>
+     */
+    public final Iterable<T> subSet(T low, T high) {
+        assert low != null : "Violation of: low is not null";
+        assert high != null : "Violation of: high is not null";
+        return () -> new Set3bIterator(this.ceilingNode(low), high);
+    }
+
+}
@@ -0,0 +1,597 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a persistent AVL tree of immutable nodes, with
+ * implementations of primary methods.
+ *
+ * <p>
+ * No node is ever changed once built: {@code add} and {@code remove} copy only
+ * the nodes on the path from the root to the element (rebalancing the copies
+ * as {@code Set3b} does in place) and share every other subtree with the
+ * previous version, so each takes O(log |this|) time and allocates
+ * O(log |this|) nodes. A {@code Set3p} is thus a handle on one version of the
+ * tree, and {@code snapshot} hands out another handle on the current version
+ * in O(1) time; later updates through either handle never affect the other.
+ * {@code with} and {@code without} return the next version directly and leave
+ * {@code this} alone.
+ * </p>
+ *
+ * <p>
+ * Since the fields of every node are {@code final}, a snapshot may be read by
+ * any number of threads at once without locking while other threads keep
+ * updating the set it came from, provided that no thread updates the snapshot
+ * itself meanwhile and that it was safely published to them (e.g., through a
+ * {@code final} or {@code volatile} field, or before the readers were
+ * started): its own {@code root} and {@code size} fields are not
+ * {@code final}.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_BST(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [tree satisfies the binary search tree properties as described in the
+ *   slides with the ordering reported by compareTo for T, including that
+ *   it has no duplicate labels]
+ *
+ * IS_AVL(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [for every subtree of tree, the heights of its left and right subtrees
+ *   differ by at most one]
+ *
+ * TREE(
+ *   n: Node
+ *  ): binary tree of T is
+ *  [the binary tree whose root is the label of n and whose left and right
+ *   subtrees are TREE(n.left) and TREE(n.right), or the empty tree if n is
+ *   null]
+ * </pre>
+ * @convention <pre>
+ * IS_BST(TREE($this.root))  and  IS_AVL(TREE($this.root))  and
+ * [for every node n of TREE($this.root), n.height = height(TREE(n))]  and
+ * $this.size = |TREE($this.root)|
+ * </pre>
+ * @correspondence this = labels(TREE($this.root))
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class Set3p<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Immutable node class for the AVL tree.
+     *
+     * @param <T>
+     *            type of label
+     */
+    private static final class Node<T> {
+
+        /**
+         * Label of node.
+         */
+        private final T label;
+
+        /**
+         * Root of left subtree, or null.
+         */
+        private final Node<T> left;
+
+        /**
+         * Root of right subtree, or null.
+         */
+        private final Node<T> right;
+
+        /**
+         * Height of the subtree rooted at this node.
+         */
+        private final int height;
+
+        /**
+         * Constructor from label and subtrees.
+         *
+         * @param label
+         *            the label
+         * @param left
+         *            the root of the left subtree, or null
+         * @param right
+         *            the root of the right subtree, or null
+         */
+        Node(T label, Node<T> left, Node<T> right) {
+            this.label = label;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+        }
+
+    }
+
+    /**
+     * Root of the tree, or null if {@code this} is empty.
+     */
+    private Node<T> root;
+
+    /**
+     * Number of elements in {@code this}.
+     */
+    private int size;
+
+    /**
+     * Reports the height of the subtree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of label
+     * @param n
+     *            the root of the subtree, or null
+     * @return height(TREE(n))
+     */
+    private static <T> int height(Node<T> n) {
+        int height = 0;
+        if (n != null) {
+            height = n.height;
+        }
+        return height;
+    }
+
+    /**
+     * Returns a node labeled {@code label} with subtrees {@code left} and
+     * {@code right}, rotated if needed to satisfy the AVL property.
+     *
+     * @param <T>
+     *            type of label
+     * @param label
+     *            the label
+     * @param left
+     *            the root of the left subtree, or null
+     * @param right
+     *            the root of the right subtree, or null
+     * @return the root of the balanced subtree
+     * @requires <pre>
+     * IS_AVL(TREE(left))  and  IS_AVL(TREE(right))  and
+     * |height(TREE(left)) - height(TREE(right))| <= 2
+     * </pre>
+     * @ensures <pre>
+     * IS_AVL(TREE(balanced))  and
+     * TREE(balanced) has the in-order labels of TREE(left), then label, then
+     *  TREE(right)
+     * </pre>
+     */
+    private static <T> Node<T> balanced(T label, Node<T> left,
+            Node<T> right) {
+        Node<T> n;
+        int balance = height(left) - height(right);
+        if (balance > 1) {
+            if (height(left.left) >= height(left.right)) {
+                n = new Node<T>(left.label, left.left,
+                        new Node<T>(label, left.right, right));
+            } else {
+                Node<T> pivot = left.right;
+                n = new Node<T>(pivot.label,
+                        new Node<T>(left.label, left.left, pivot.left),
+                        new Node<T>(label, pivot.right, right));
+            }
+        } else if (balance < -1) {
+            if (height(right.right) >= height(right.left)) {
+                n = new Node<T>(right.label,
+                        new Node<T>(label, left, right.left), right.right);
+            } else {
+                Node<T> pivot = right.left;
+                n = new Node<T>(pivot.label,
+                        new Node<T>(label, left, pivot.left),
+                        new Node<T>(right.label, pivot.right, right.right));
+            }
+        } else {
+            n = new Node<T>(label, left, right);
+        }
+        return n;
+    }
+
+    /**
+     * Returns the root of a tree holding the labels of the subtree rooted at
+     * {@code n} and {@code x}, copying only the nodes on the path to where
+     * {@code x} goes.
+     *
+     * @param <T>
+     *            type of label
+     * @param n
+     *            the root of the subtree, or null
+     * @param x
+     *            the label to be inserted
+     * @return the root of the new subtree
+     * @aliases reference {@code x}
+     * @requires <pre>
+     * IS_BST(TREE(n))  and  IS_AVL(TREE(n))  and  x is not in labels(TREE(n))
+     * </pre>
+     * @ensures <pre>
+     * IS_BST(TREE(inserted))  and  IS_AVL(TREE(inserted))  and
+     * labels(TREE(inserted)) = labels(TREE(n)) union {x}
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Node<T> inserted(Node<T> n,
+            T x) {
+        Node<T> newRoot;
+        if (n == null) {
+            newRoot = new Node<T>(x, null, null);
+        } else if (x.compareTo(n.label) < 0) {
+            newRoot = balanced(n.label, inserted(n.left, x), n.right);
+        } else {
+            newRoot = balanced(n.label, n.left, inserted(n.right, x));
+        }
+        return newRoot;
+    }
+
+    /**
+     * Returns the root of a tree holding the labels of the subtree rooted at
+     * {@code n} except the smallest one, copying only the nodes on the path
+     * to it.
+     *
+     * @param <T>
+     *            type of label
+     * @param n
+     *            the root of the subtree
+     * @return the root of the new subtree
+     * @requires n is not null and IS_BST(TREE(n)) and IS_AVL(TREE(n))
+     * @ensures <pre>
+     * IS_BST(TREE(withoutSmallest))  and  IS_AVL(TREE(withoutSmallest))  and
+     * labels(TREE(withoutSmallest)) =
+     *  labels(TREE(n)) \ {[the smallest label in TREE(n)]}
+     * </pre>
+     */
+    private static <T> Node<T> withoutSmallest(Node<T> n) {
+        Node<T> newRoot;
+        if (n.left == null) {
+            newRoot = n.right;
+        } else {
+            newRoot = balanced(n.label, withoutSmallest(n.left), n.right);
+        }
+        return newRoot;
+    }
+
+    /**
+     * Returns the root of a tree holding the labels of the subtree rooted at
+     * {@code n} except {@code x}, copying only the nodes on the path to it.
+     *
+     * @param <T>
+     *            type of label
+     * @param n
+     *            the root of the subtree
+     * @param x
+     *            the label to be removed
+     * @return the root of the new subtree
+     * @requires <pre>
+     * IS_BST(TREE(n))  and  IS_AVL(TREE(n))  and  x is in labels(TREE(n))
+     * </pre>
+     * @ensures <pre>
+     * IS_BST(TREE(removed))  and  IS_AVL(TREE(removed))  and
+     * labels(TREE(removed)) = labels(TREE(n)) \ {x}
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Node<T> removed(Node<T> n,
+            T x) {
+        Node<T> newRoot;
+        int comparison = x.compareTo(n.label);
+        if (comparison < 0) {
+            newRoot = balanced(n.label, removed(n.left, x), n.right);
+        } else if (comparison > 0) {
+            newRoot = balanced(n.label, n.left, removed(n.right, x));
+        } else if (n.right == null) {
+            newRoot = n.left;
+        } else {
+            newRoot = balanced(smallest(n.right).label, n.left,
+                    withoutSmallest(n.right));
+        }
+        return newRoot;
+    }
+
+    /**
+     * Returns the node with the smallest label in the subtree rooted at
+     * {@code n}.
+     *
+     * @param <T>
+     *            type of label
+     * @param n
+     *            the root of the subtree
+     * @return the left-most node
+     * @requires n is not null
+     */
+    private static <T> Node<T> smallest(Node<T> n) {
+        Node<T> current = n;
+        while (current.left != null) {
+            current = current.left;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the node labeled {@code x} in the subtree rooted at {@code n},
+     * or null if there is none.
+     *
+     * @param <T>
+     *            type of label
+     * @param n
+     *            the root of the subtree, or null
+     * @param x
+     *            the label to be searched for
+     * @return the node labeled x, or null
+     * @requires IS_BST(TREE(n))
+     * @ensures <pre>
+     * if x is in labels(TREE(n)) then
+     *   findInTree.label = x
+     * else
+     *   findInTree = null
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Node<T> findInTree(Node<T> n,
+            T x) {
+        Node<T> current = n;
+        int comparison = 1;
+        while (current != null && comparison != 0) {
+            comparison = x.compareTo(current.label);
+            if (comparison < 0) {
+                current = current.left;
+            } else if (comparison > 0) {
+                current = current.right;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set3p() {
+        this.createNewRep();
+    }
+
+    /**
+     * Constructor of a handle on the version rooted at {@code root}.
+     *
+     * @param root
+     *            the root of the version, or null
+     * @param size
+     *            the number of labels in the version
+     * @requires <pre>
+     * IS_BST(TREE(root))  and  IS_AVL(TREE(root))  and  size = |TREE(root)|
+     * </pre>
+     */
+    private Set3p(Node<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set3p<?> : ""
+                + "Violation of: source is of dynamic type Set3p<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set3p<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set3p<T> localSource = (Set3p<T>) source;
+        this.root = localSource.root;
+        this.size = localSource.size;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+        this.root = inserted(this.root, x);
+        this.size++;
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+        T removedLabel = findInTree(this.root, x).label;
+        this.root = removed(this.root, x);
+        this.size--;
+        return removedLabel;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+        T x = smallest(this.root).label;
+        this.root = withoutSmallest(this.root);
+        this.size--;
+        return x;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+        return findInTree(this.root, x) != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set3pIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3p}, visiting
+     * the elements of the version current when it was created in increasing
+     * order.
+     */
+    private final class Set3pIterator implements Iterator<T> {
+
+        /**
+         * Nodes whose labels, and right subtrees, are still to be visited,
+         * with the next one on top at position {@code depth} - 1.
+         */
+        private final Object[] path;
+
+        /**
+         * Number of nodes in {@code path}.
+         */
+        private int depth;
+
+        /**
+         * No-argument constructor.
+         */
+        Set3pIterator() {
+            this.path = new Object[height(Set3p.this.root)];
+            this.depth = 0;
+            this.pushLeftPath(Set3p.this.root);
+        }
+
+        /**
+         * Pushes {@code n} and its chain of left descendants onto
+         * {@code path}.
+         *
+         * @param n
+         *            the first node to push, or null
+         */
+        private void pushLeftPath(Node<T> n) {
+            Node<T> current = n;
+            while (current != null) {
+                this.path[this.depth] = current;
+                this.depth++;
+                current = current.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.depth > 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.depth--;
+            /*
+             * This cast cannot fail: only nodes are ever pushed onto path.
+             */
+            Node<T> n = (Node<T>) this.path[this.depth];
+            this.path[this.depth] = null;
+            this.pushLeftPath(n.right);
+            return n.label;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Persistent-set methods -------------------------------------------------
+     */
+
+    /**
+     * Returns a new {@code Set3p} holding the current version of
+     * {@code this}, sharing all of its nodes; later changes to either set do
+     * not affect the other.
+     *
+     * @return the snapshot
+     * @ensures snapshot = this
+     */
+    public final Set3p<T> snapshot() {
+        return new Set3p<T>(this.root, this.size);
+    }
+
+    /**
+     * Returns a new {@code Set3p} holding the elements of {@code this} and
+     * {@code x}, sharing all but O(log |this|) nodes with {@code this}, which
+     * is left unchanged.
+     *
+     * @param x
+     *            the element to add
+     * @return the new version
+     * @aliases reference {@code x}
+     * @requires x is not in this
+     * @ensures with = this union {x}
+     */
+    public final Set3p<T> with(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+        return new Set3p<T>(inserted(this.root, x), this.size + 1);
+    }
+
+    /**
+     * Returns a new {@code Set3p} holding the elements of {@code this} except
+     * {@code x}, sharing all but O(log |this|) nodes with {@code this}, which
+     * is left unchanged.
+     *
+     * @param x
+     *            the element to remove
+     * @return the new version
+     * @requires x is in this
+     * @ensures without = this \ {x}
+     */
+    public final Set3p<T> without(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+        return new Set3p<T>(removed(this.root, x), this.size - 1);
+    }
+
+}
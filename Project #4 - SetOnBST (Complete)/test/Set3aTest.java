@@ -1,11 +1,26 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
 import components.set.Set;
 import components.set.Set1L;
 
 /**
- * Customized JUnit test fixture for {@code Set3a}.
+ * Customized JUnit test fixture for {@code Set3a}, including tests of the
+ * linear-time bulk construction and set algebra.
  */
 public class Set3aTest extends SetTest {
 
+    /**
+     * Number of elements used by the sorted-input test; adding this many
+     * elements in order one at a time would make a chain this deep.
+     */
+    private static final int MANY_ELEMENTS = 100000;
+
     @Override
     protected final Set<String> constructorTest() {
         return new Set3a<String>();
@@ -16,4 +31,98 @@ public class Set3aTest extends SetTest {
         return new Set1L<String>();
     }
 
+    /**
+     * Creates and returns a {@code Set3a<String>} with the given entries, in
+     * increasing order, using {@code fromSorted}.
+     *
+     * @param args
+     *            the entries for the set, in strictly increasing order
+     * @return the constructed set
+     * @requires [args is strictly increasing]
+     * @ensures createFromSorted = [entries in args]
+     */
+    private Set3a<String> createFromSorted(String... args) {
+        return Set3a.fromSorted(Arrays.asList(args).iterator());
+    }
+
+    /**
+     * Testing .fromSorted() of no elements and of a few elements.
+     */
+    @Test
+    public final void testFromSortedSmall() {
+        Set<String> sExpected = this.constructorRef();
+        assertEquals(sExpected, this.createFromSorted());
+        sExpected.add("a");
+        sExpected.add("b");
+        sExpected.add("c");
+        Set<String> sActual = this.createFromSorted("a", "b", "c");
+        assertEquals(sExpected, sActual);
+        sActual.remove("b");
+        sExpected.remove("b");
+        assertEquals(sExpected, sActual);
+    }
+
+    /**
+     * Testing .fromSorted() of many elements, whose tree must be balanced for
+     * .contains() and .remove() to work without deep recursion.
+     */
+    @Test
+    public final void testFromSortedMany() {
+        List<Integer> sorted = new ArrayList<Integer>();
+        for (int i = 0; i < MANY_ELEMENTS; i++) {
+            sorted.add(i);
+        }
+        Set<Integer> s = Set3a.fromSorted(sorted.iterator());
+        assertEquals(MANY_ELEMENTS, s.size());
+        assertEquals(true, s.contains(MANY_ELEMENTS - 1));
+        assertEquals(false, s.contains(MANY_ELEMENTS));
+        assertEquals(Integer.valueOf(0), s.remove(0));
+        assertEquals(MANY_ELEMENTS - 1, s.size());
+    }
+
+    /**
+     * Testing .add(Set) of an overlapping {@code Set3a}: this becomes the
+     * union and the argument the intersection.
+     */
+    @Test
+    public final void testAddSet() {
+        Set<String> s = this.createFromSorted("a", "c", "e", "g");
+        Set<String> t = this.createFromSorted("b", "c", "g", "h");
+        s.add(t);
+        assertEquals(this.createFromSorted("a", "b", "c", "e", "g", "h"), s);
+        assertEquals(this.createFromSorted("c", "g"), t);
+    }
+
+    /**
+     * Testing .remove(Set) of an overlapping {@code Set3a}: this becomes the
+     * difference, and the intersection is returned.
+     */
+    @Test
+    public final void testRemoveSet() {
+        Set<String> s = this.createFromSorted("a", "c", "e", "g");
+        Set<String> t = this.createFromSorted("b", "c", "g", "h");
+        Set<String> removed = s.remove(t);
+        assertEquals(this.createFromSorted("a", "e"), s);
+        assertEquals(this.createFromSorted("c", "g"), removed);
+        assertEquals(this.createFromSorted("b", "c", "g", "h"), t);
+    }
+
+    /**
+     * Testing .add(Set) and .remove(Set) of a {@code Set} that is not a
+     * {@code Set3a}, which fall back on the element-by-element versions.
+     */
+    @Test
+    public final void testAddRemoveOtherSet() {
+        Set<String> s = this.createFromSorted("a", "c");
+        Set<String> t = this.constructorRef();
+        t.add("c");
+        t.add("d");
+        s.add(t);
+        assertEquals(this.createFromSorted("a", "c", "d"), s);
+        assertEquals(1, t.size());
+        Set<String> removed = s.remove(t);
+        assertEquals(this.createFromSorted("a", "d"), s);
+        assertEquals(this.createFromSorted("c"), removed);
+    }
+
 }
@@ -0,0 +1,172 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import components.set.Set;
+
+/**
+ * Timing harness comparing {@code Set3a} with {@code Set3b}: adds a shuffled
+ * run of integers to an empty set, then removes them all again, and reports
+ * the throughput of each phase along with the bytes allocated per operation
+ * (where the virtual machine can measure them).
+ *
+ * <p>
+ * The input is shuffled so that {@code Set3a}'s unbalanced tree stays about
+ * as shallow as {@code Set3b}'s; sorted input would make {@code Set3a}
+ * quadratic. Run with {@code java Set3bBenchmark}; this is a plain
+ * {@code main} program, not a JUnit fixture.
+ * </p>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public final class Set3bBenchmark {
+
+    /**
+     * Number of elements added and removed in each round.
+     */
+    private static final int ELEMENTS = 200000;
+
+    /**
+     * Number of untimed rounds run first for every implementation.
+     */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Number of timed rounds for every implementation.
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * Seed for the shuffle, so every run sees the same input.
+     */
+    private static final long SEED = 20240601L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Set3bBenchmark() {
+    }
+
+    /**
+     * Returns the integers 0 through {@code n} - 1 in a random order.
+     *
+     * @param n
+     *            the number of integers
+     * @return the shuffled integers
+     */
+    private static Integer[] shuffled(int n) {
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        Random random = new Random(SEED);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        return values;
+    }
+
+    /**
+     * Reports the number of bytes allocated so far by the current thread, or
+     * -1 if the virtual machine cannot tell.
+     *
+     * @return the bytes allocated by the current thread, or -1
+     */
+    private static long allocatedBytes() {
+        long bytes = -1;
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            bytes = ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return bytes;
+    }
+
+    /**
+     * Adds every element of {@code values} to {@code s} and then removes them
+     * all, recording the elapsed nanoseconds and allocated bytes of the two
+     * phases in {@code result}.
+     *
+     * @param s
+     *            the set to use
+     * @param values
+     *            the elements
+     * @param result
+     *            add nanoseconds, add bytes, remove nanoseconds, and remove
+     *            bytes, in that order
+     * @updates result
+     * @requires s = {} and [the entries of values are all different]
+     * @ensures s = {}
+     */
+    private static void addThenRemove(Set<Integer> s, Integer[] values,
+            long[] result) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (Integer x : values) {
+            s.add(x);
+        }
+        result[0] += System.nanoTime() - start;
+        result[1] += allocatedBytes() - bytes;
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        for (Integer x : values) {
+            s.remove(x);
+        }
+        result[2] += System.nanoTime() - start;
+        result[3] += allocatedBytes() - bytes;
+    }
+
+    /**
+     * Runs the benchmark for one implementation and prints its results.
+     *
+     * @param name
+     *            the name to print
+     * @param s
+     *            an empty set of the implementation
+     * @param values
+     *            the elements
+     * @requires s = {} and [the entries of values are all different]
+     */
+    private static void run(String name, Set<Integer> s, Integer[] values) {
+        long[] result = new long[4];
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            addThenRemove(s, values, result);
+        }
+        result = new long[4];
+        for (int r = 0; r < ROUNDS; r++) {
+            addThenRemove(s, values, result);
+        }
+        double operations = (double) ROUNDS * values.length;
+        System.out.printf("%-6s %12.0f %10.1f %12.0f %10.1f%n", name,
+                operations / (result[0] / NANOS_PER_MILLI),
+                result[1] / operations,
+                operations / (result[2] / NANOS_PER_MILLI),
+                result[3] / operations);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments; ignored
+     */
+    public static void main(String[] args) {
+        Integer[] values = shuffled(ELEMENTS);
+        System.out.println("(add and remove: operations per ms, "
+                + "bytes allocated per operation; -1 if unknown)");
+        System.out.printf("%-6s %12s %10s %12s %10s%n", "", "add/ms",
+                "B/add", "remove/ms", "B/remove");
+        run("Set3a", new Set3a<Integer>(), values);
+        run("Set3b", new Set3b<Integer>(), values);
+    }
+
+}
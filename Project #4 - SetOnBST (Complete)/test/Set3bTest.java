@@ -0,0 +1,206 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set3b}, including tests of sorted
+ * input, which would degrade an unbalanced tree to a chain.
+ */
+public class Set3bTest extends SetTest {
+
+    /**
+     * Number of elements used by the sorted-input tests; an unbalanced tree
+     * of this many elements added in order would be this deep.
+     */
+    private static final int MANY_ELEMENTS = 100000;
+
+    /**
+     * Number of threads reading the set concurrently.
+     */
+    private static final int READERS = 8;
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set3b<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    /**
+     * Testing .add(), .contains(), and the iterator with elements added in
+     * increasing order.
+     */
+    @Test
+    public final void testAddSortedInput() {
+        Set<Integer> s = new Set3b<Integer>();
+        for (int i = 0; i < MANY_ELEMENTS; i++) {
+            s.add(i);
+        }
+        assertEquals(MANY_ELEMENTS, s.size());
+        assertEquals(true, s.contains(0));
+        assertEquals(true, s.contains(MANY_ELEMENTS - 1));
+        assertEquals(false, s.contains(MANY_ELEMENTS));
+        int expected = 0;
+        for (int x : s) {
+            assertEquals(expected, x);
+            expected++;
+        }
+        assertEquals(MANY_ELEMENTS, expected);
+    }
+
+    /**
+     * Testing .remove() and .removeAny() with elements added in decreasing
+     * order.
+     */
+    @Test
+    public final void testRemoveSortedInput() {
+        Set<Integer> s = new Set3b<Integer>();
+        for (int i = MANY_ELEMENTS - 1; i >= 0; i--) {
+            s.add(i);
+        }
+        for (int i = 0; i < MANY_ELEMENTS; i += 2) {
+            assertEquals(Integer.valueOf(i), s.remove(i));
+        }
+        assertEquals(MANY_ELEMENTS / 2, s.size());
+        int expected = 1;
+        while (s.size() > 0) {
+            assertEquals(Integer.valueOf(expected), s.removeAny());
+            expected += 2;
+        }
+    }
+
+    /**
+     * Testing .contains() and the iterator from several threads at once, with
+     * no thread updating the set.
+     *
+     * @throws InterruptedException
+     *             if the test thread is interrupted while joining
+     */
+    @Test
+    public final void testConcurrentReaders() throws InterruptedException {
+        Set<Integer> s = new Set3b<Integer>();
+        for (int i = 0; i < MANY_ELEMENTS; i += 2) {
+            s.add(i);
+        }
+        AtomicInteger wrongAnswers = new AtomicInteger(0);
+        Thread[] threads = new Thread[READERS];
+        for (int t = 0; t < READERS; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < MANY_ELEMENTS; i++) {
+                    if (s.contains(i) != (i % 2 == 0)) {
+                        wrongAnswers.incrementAndGet();
+                    }
+                }
+                int expected = 0;
+                for (int x : s) {
+                    if (x != expected) {
+                        wrongAnswers.incrementAndGet();
+                    }
+                    expected += 2;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, wrongAnswers.get());
+        assertEquals(MANY_ELEMENTS / 2, s.size());
+    }
+
+    /**
+     * Creates and returns a {@code Set3b<String>} with the given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures createFromArgsSet3b = [entries in args]
+     */
+    private Set3b<String> createFromArgsSet3b(String... args) {
+        Set3b<String> set = new Set3b<String>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /*
+     * Testing the ordered-set methods in this section:=
+     */
+
+    /**
+     * Testing .first() and .last().
+     */
+    @Test
+    public final void testFirstLast() {
+        Set3b<String> s = this.createFromArgsSet3b("j", "c", "x", "m");
+        assertEquals("c", s.first());
+        assertEquals("x", s.last());
+        assertEquals(4, s.size());
+    }
+
+    /**
+     * Testing .floor() and .ceiling() at, between, below, and above the
+     * elements.
+     */
+    @Test
+    public final void testFloorCeiling() {
+        Set3b<String> s = this.createFromArgsSet3b("j", "c", "x", "m");
+        assertEquals("j", s.floor("j"));
+        assertEquals("j", s.ceiling("j"));
+        assertEquals("j", s.floor("k"));
+        assertEquals("m", s.ceiling("k"));
+        assertEquals(null, s.floor("a"));
+        assertEquals("c", s.ceiling("a"));
+        assertEquals("x", s.floor("z"));
+        assertEquals(null, s.ceiling("z"));
+    }
+
+    /**
+     * Testing .rank() and .select() against each other, and .rank() of
+     * elements not in the set.
+     */
+    @Test
+    public final void testRankSelect() {
+        Set3b<Integer> s = new Set3b<Integer>();
+        for (int i = MANY_ELEMENTS - 2; i >= 0; i -= 2) {
+            s.add(i);
+        }
+        for (int k = 0; k < s.size(); k++) {
+            assertEquals(Integer.valueOf(2 * k), s.select(k));
+            assertEquals(k, s.rank(2 * k));
+            assertEquals(k + 1, s.rank(2 * k + 1));
+        }
+        assertEquals(0, s.rank(-1));
+    }
+
+    /**
+     * Testing .subSet() for a range inside, a range outside, and a range
+     * covering all of the set.
+     */
+    @Test
+    public final void testSubSet() {
+        Set3b<String> s = this.createFromArgsSet3b("j", "c", "x", "m", "e");
+        StringBuilder inside = new StringBuilder();
+        for (String x : s.subSet("d", "n")) {
+            inside.append(x);
+        }
+        assertEquals("ejm", inside.toString());
+        assertEquals(false, s.subSet("y", "z").iterator().hasNext());
+        StringBuilder all = new StringBuilder();
+        for (String x : s.subSet("a", "z")) {
+            all.append(x);
+        }
+        assertEquals("cejmx", all.toString());
+    }
+
+}
@@ -0,0 +1,106 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set3p}, including tests of
+ * snapshots and of the version-returning methods.
+ */
+public class Set3pTest extends SetTest {
+
+    /**
+     * Number of elements used by the sorted-input test.
+     */
+    private static final int MANY_ELEMENTS = 100000;
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set3p<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    /**
+     * Creates and returns a {@code Set3p<String>} with the given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures createFromArgsSet3p = [entries in args]
+     */
+    private Set3p<String> createFromArgsSet3p(String... args) {
+        Set3p<String> set = new Set3p<String>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /**
+     * Testing .snapshot(): updates to the set after the snapshot is taken,
+     * and to the snapshot itself, do not affect the other.
+     */
+    @Test
+    public final void testSnapshotIsolation() {
+        Set3p<String> s = this.createFromArgsSet3p("j", "i", "k");
+        Set3p<String> snapshot = s.snapshot();
+        assertEquals(this.createFromArgsSet3p("j", "i", "k"), snapshot);
+        s.add("h");
+        s.remove("j");
+        assertEquals(this.createFromArgsSet3p("j", "i", "k"), snapshot);
+        assertEquals(this.createFromArgsSet3p("h", "i", "k"), s);
+        snapshot.removeAny();
+        assertEquals(this.createFromArgsSet3p("h", "i", "k"), s);
+        assertEquals(2, snapshot.size());
+    }
+
+    /**
+     * Testing .with() and .without(), which leave the original unchanged.
+     */
+    @Test
+    public final void testWithWithout() {
+        Set3p<String> s = this.createFromArgsSet3p("j", "i", "k");
+        Set3p<String> added = s.with("l");
+        Set3p<String> removed = s.without("i");
+        assertEquals(this.createFromArgsSet3p("j", "i", "k"), s);
+        assertEquals(this.createFromArgsSet3p("j", "i", "k", "l"), added);
+        assertEquals(this.createFromArgsSet3p("j", "k"), removed);
+    }
+
+    /**
+     * Testing many versions built from sorted input, each still holding its
+     * own elements after later versions are made.
+     */
+    @Test
+    public final void testManyVersions() {
+        Set3p<Integer> s = new Set3p<Integer>();
+        Set3p<Integer> half = null;
+        for (int i = 0; i < MANY_ELEMENTS; i++) {
+            s.add(i);
+            if (i == MANY_ELEMENTS / 2 - 1) {
+                half = s.snapshot();
+            }
+        }
+        for (int i = 0; i < MANY_ELEMENTS; i += 2) {
+            s.remove(i);
+        }
+        assertEquals(MANY_ELEMENTS / 2, half.size());
+        assertEquals(MANY_ELEMENTS / 2, s.size());
+        int expected = 0;
+        for (int x : half) {
+            assertEquals(expected, x);
+            expected++;
+        }
+        assertEquals(MANY_ELEMENTS / 2, expected);
+        assertEquals(false, s.contains(0));
+        assertEquals(true, s.contains(1));
+    }
+
+}
@@ -11,6 +11,18 @@ import components.sortingmachine.SortingMachineSecondary;
  * {@code SortingMachine} represented as a {@code Queue} and an array (using an
  * embedding of heap sort), with implementations of primary methods.
  *
+ * <p>
+ * Checking the whole heap takes time linear in its size, so with assertions
+ * enabled the checks of the representation are sampled: every method checks
+ * the constant-time parts of the convention, but the heap ordering and the
+ * entries of the heap are checked only once every |$this.heap| calls (and by
+ * the static helper methods, not at all), which keeps the cost of checking
+ * constant per call, amortized. Running with the system property
+ * {@code SortingMachine5a.fullChecks} set to {@code true} (and assertions
+ * enabled) checks everything on every call instead, as a debugging aid that
+ * makes {@code removeFirst} and iteration take linear time per call.
+ * </p>
+ *
  * @param <T>
  *            type of {@code SortingMachine} entries
  * @mathdefinitions <pre>
@@ -69,6 +81,14 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * Private members --------------------------------------------------------
      */
 
+    /**
+     * Whether {@code conventionHolds} checks the heap ordering and the entries
+     * of $this.heap on every call, rather than once every |$this.heap| calls,
+     * and {@code siftDown} checks that both subtrees it is given are heaps.
+     */
+    private static final boolean FULL_CHECKS = Boolean
+            .getBoolean("SortingMachine5a.fullChecks");
+
     /**
      * Order.
      */
@@ -95,33 +115,10 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     private int heapSize;
 
     /**
-     * Exchanges entries at indices {@code i} and {@code j} of {@code array}.
-     *
-     * @param <T>
-     *            type of array entries
-     * @param array
-     *            the array whose entries are to be exchanged
-     * @param i
-     *            one index
-     * @param j
-     *            the other index
-     * @updates array
-     * @requires 0 <= i < |array| and 0 <= j < |array|
-     * @ensures array = [#array with entries at indices i and j exchanged]
+     * Number of calls to {@code conventionHolds} left before the next one
+     * checks the whole heap; only used when assertions are enabled.
      */
-    private static <T> void exchangeEntries(T[] array, int i, int j) {
-        assert array != null : "Violation of: array is not null";
-        assert 0 <= i : "Violation of: 0 <= i";
-        assert i < array.length : "Violation of: i < |array|";
-        assert 0 <= j : "Violation of: 0 <= j";
-        assert j < array.length : "Violation of: j < |array|";
-
-        if (i != j) {
-            T k = array[i];
-            array[i] = array[j];
-            array[j] = k;
-        }
-    }
+    private int checksUntilFull;
 
     /**
      * Given an array that represents a complete binary tree and an index
@@ -166,96 +163,91 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert order != null : "Violation of: order is not null";
         assert 0 <= top : "Violation of: 0 <= top";
         assert last < array.length : "Violation of: last < |array|";
-        for (int i = 0; i < array.length; i++) {
-            assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
-        }
-        assert isHeap(array, 2 * top + 1, last, order) : ""
+        assert !FULL_CHECKS || allNotNull(array) : ""
+                + "Violation of: all entries in array are not null";
+        assert !FULL_CHECKS || isHeap(array, 2 * top + 1, last, order) : ""
                 + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 1, last,"
                 + " [relation computed by order.compare method])";
-        assert isHeap(array, 2 * top + 2, last, order) : ""
+        assert !FULL_CHECKS || isHeap(array, 2 * top + 2, last, order) : ""
                 + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 2, last,"
                 + " [relation computed by order.compare method])";
 
         /*
          * Impractical to check last requires clause; no need to check the other
          * requires clause, because it must be true when using the array
-         * representation for a complete binary tree.
+         * representation for a complete binary tree. The checks that take
+         * time linear in |array| are only made in full-checks mode.
          */
 
-        int leftChildIndex = 2 * top + 1; // the def. of odd.
-        int rightChildIndex = leftChildIndex + 1; // the def. of even.
-        if (rightChildIndex <= last) {
-            int index = leftChildIndex;
-            if (order.compare(array[leftChildIndex],
-                    array[rightChildIndex]) > 0) {
-                index = rightChildIndex;
-            }
-            if (order.compare(array[top], array[index]) > 0) {
-                exchangeEntries(array, top, index);
-                siftDown(array, index, last, order);
+        /*
+         * Floyd's "bounce": the root's entry is taken out, and the hole it
+         * leaves first moves all the way down to a leaf, each step promoting
+         * the smaller child (one comparison per level, where comparing the
+         * children with the root's entry as well would take two); the entry
+         * then moves back up from that leaf to its place. The entries sifted
+         * down by removeFirst come from the bottom of the heap, so they rarely
+         * move back up more than a level or two.
+         */
+        T x = array[top];
+        int hole = top;
+        int child = 2 * hole + 1;
+        while (child <= last) {
+            if (child < last
+                    && order.compare(array[child], array[child + 1]) > 0) {
+                child++;
             }
-        } else if (leftChildIndex <= last
-                && order.compare(array[top], array[leftChildIndex]) > 0) {
-            exchangeEntries(array, top, leftChildIndex);
-            siftDown(array, leftChildIndex, last, order);
+            array[hole] = array[child];
+            hole = child;
+            child = 2 * hole + 1;
         }
+        int parent = (hole - 1) / 2;
+        while (hole > top && order.compare(array[parent], x) > 0) {
+            array[hole] = array[parent];
+            hole = parent;
+            parent = (hole - 1) / 2;
+        }
+        array[hole] = x;
     }
 
     /**
-     * Heapifies the subtree of the given array rooted at the given {@code top}.
+     * Heapifies the given array, bottom-up: sifting down the root of every
+     * subtree, from the last one with children back to the root of the whole
+     * array, makes each subtree a heap once both of its own subtrees are. This
+     * is Floyd's construction, which takes O(|array|) comparisons in total.
      *
      * @param <T>
      *            type of array entries
      * @param array
      *            the complete binary tree
-     * @param top
-     *            the index of the root of the "subtree" to heapify
      * @param order
      *            the total preorder for sorting
      * @updates array
      * @requires <pre>
-     * 0 <= top  and
      * for all i: integer
      *     where (0 <= i  and  i < |array|)
      *   ([entry at position i in array is not null])  and
-     * [subtree rooted at {@code top} is a complete binary tree]  and
      * IS_TOTAL_PREORDER([relation computed by order.compare method])
      * </pre>
      * @ensures <pre>
-     * SUBTREE_IS_HEAP(array, top, |array| - 1,
+     * SUBTREE_IS_HEAP(array, 0, |array| - 1,
      *     [relation computed by order.compare method])  and
      * perms(array, #array)
      * </pre>
      */
-    private static <T> void heapify(T[] array, int top, Comparator<T> order) {
+    private static <T> void heapify(T[] array, Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
         assert order != null : "Violation of: order is not null";
-        assert 0 <= top : "Violation of: 0 <= top";
-        for (int i = 0; i < array.length; i++) {
-            assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
-        }
+        assert allNotNull(array) : ""
+                + "Violation of: all entries in array are not null";
 
         /*
-         * Impractical to check last requires clause; no need to check the other
-         * requires clause, because it must be true when using the array
-         * representation for a complete binary tree.
+         * Impractical to check last requires clause.
          */
 
-        int leftChildIndex = 2 * top + 1; // the def. of odd.
-        int rightChildIndex = leftChildIndex + 1; // the def. of even.
-        if (leftChildIndex <= array.length) {
-            if (!isHeap(array, leftChildIndex, array.length - 1, order)) {
-                heapify(array, leftChildIndex, order);
-            }
-            if (rightChildIndex <= array.length) {
-                if (!isHeap(array, leftChildIndex, array.length - 1, order)) {
-                    heapify(array, leftChildIndex, order);
-                }
-            }
+        int last = array.length - 1;
+        for (int top = array.length / 2 - 1; top >= 0; top--) {
+            siftDown(array, top, last, order);
         }
-        siftDown(array, top, array.length - 1, order);
     }
 
     /**
@@ -300,7 +292,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
             heap[i] = q.dequeue();
             i++;
         }
-        heapify(heap, 0, order);
+        heapify(heap, order);
         return heap;
     }
 
@@ -337,33 +329,64 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert array != null : "Violation of: array is not null";
         assert 0 <= top : "Violation of: 0 <= top";
         assert last < array.length : "Violation of: last < |array|";
-        for (int i = 0; i < array.length; i++) {
-            assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
-        }
 
         /*
-         * No need to check the other requires clause, because it must be true
-         * when using the Array representation for a complete binary tree.
+         * Impractical to check the requires clause on the entries of array
+         * here, where it would make this method take time quadratic in the
+         * size of the subtree; no need to check the other requires clause,
+         * because it must be true when using the Array representation for a
+         * complete binary tree.
          */
 
-        int left = 2 * top + 1;
+        /*
+         * The subtree is checked one level at a time: its entries at each
+         * level are those at the indices [low, high], and each must not come
+         * before its parent.
+         */
         boolean isHeap = true;
-        if (left <= last) {
-            isHeap = (order.compare(array[top], array[left]) <= 0)
-                    && isHeap(array, left, last, order);
-            int right = left + 1;
-            if (isHeap && (right <= last)) {
-                isHeap = (order.compare(array[top], array[right]) <= 0)
-                        && isHeap(array, right, last, order);
+        int low = 2 * top + 1;
+        int high = low + 1;
+        while (isHeap && low <= last) {
+            int stop = Math.min(high, last);
+            for (int i = low; isHeap && i <= stop; i++) {
+                isHeap = order.compare(array[(i - 1) / 2], array[i]) <= 0;
             }
+            low = 2 * low + 1;
+            high = 2 * high + 2;
         }
         return isHeap;
     }
 
+    /**
+     * Checks that no entry of {@code array} is null.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @return true iff no entry of {@code array} is null
+     * @ensures <pre>
+     * allNotNull =
+     *  for all i: integer
+     *      where (0 <= i  and  i < |array|)
+     *    ([entry at position i in array is not null])
+     * </pre>
+     */
+    private static <T> boolean allNotNull(T[] array) {
+        assert array != null : "Violation of: array is not null";
+
+        boolean allNotNull = true;
+        for (int i = 0; allNotNull && i < array.length; i++) {
+            allNotNull = array[i] != null;
+        }
+        return allNotNull;
+    }
+
     /**
      * Checks that the part of the convention repeated below holds for the
-     * current representation.
+     * current representation. The parts that take constant time are checked
+     * on every call; the rest only on every call in full-checks mode, and
+     * otherwise once every |$this.heap| calls (see the class comment).
      *
      * @return true if the convention holds (or if assertion checking is off);
      *         otherwise reports a violated assertion
@@ -392,17 +415,20 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
             assert this.heapSize <= this.heap.length : ""
                     + "Violation of: if not $this.insertionMode then"
                     + " $this.heapSize <= |$this.heap|";
-            for (int i = 0; i < this.heap.length; i++) {
-                assert this.heap[i] != null : ""
+            if (FULL_CHECKS || this.checksUntilFull <= 0) {
+                assert allNotNull(this.heap) : ""
                         + "Violation of: if not $this.insertionMode then"
                         + " all entries in $this.heap are not null";
+                assert isHeap(this.heap, 0, this.heapSize - 1,
+                        this.machineOrder) : ""
+                                + "Violation of: if not $this.insertionMode then"
+                                + " SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,"
+                                + " [relation computed by $this.machineOrder.compare"
+                                + " method])";
+                this.checksUntilFull = this.heap.length;
+            } else {
+                this.checksUntilFull--;
             }
-            assert isHeap(this.heap, 0, this.heapSize - 1,
-                    this.machineOrder) : ""
-                            + "Violation of: if not $this.insertionMode then"
-                            + " SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,"
-                            + " [relation computed by $this.machineOrder.compare"
-                            + " method])";
         }
         return true;
     }
@@ -417,7 +443,8 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * $this.insertionMode = true  and
      * $this.machineOrder = order  and
      * $this.entries = <>  and
-     * $this.heapSize = 0
+     * $this.heapSize = 0  and
+     * $this.checksUntilFull = 0
      * </pre>
      */
     private void createNewRep(Comparator<T> order) {
@@ -425,6 +452,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         this.machineOrder = order;
         this.entries = new Queue1L<>();
         this.heapSize = 0;
+        this.checksUntilFull = 0;
     }
 
     /*
@@ -484,6 +512,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         this.entries = localSource.entries;
         this.heap = localSource.heap;
         this.heapSize = localSource.heapSize;
+        this.checksUntilFull = 0;
         localSource.createNewRep(localSource.machineOrder);
         assert this.conventionHolds();
         assert localSource.conventionHolds();
@@ -521,7 +550,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         T removed = this.heap[0];
         this.heap[0] = this.heap[this.heapSize - 1];
         this.heapSize--;
-        siftDown(this.heap, 0, this.heapSize, this.machineOrder);
+        siftDown(this.heap, 0, this.heapSize - 1, this.machineOrder);
         assert this.conventionHolds();
         return removed;
     }
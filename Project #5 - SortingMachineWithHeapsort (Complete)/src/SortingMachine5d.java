@@ -0,0 +1,726 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as a {@code Queue} and an array (using an
+ * embedding of heap sort on a d-ary heap), with implementations of primary
+ * methods.
+ *
+ * <p>
+ * This is {@code SortingMachine5a} with each node of the heap having up to
+ * {@code arity} children instead of two, where the arity is fixed when the
+ * machine is constructed (4 by default). The children of the entry at index i
+ * are at the indices [arity * i + 1, arity * i + arity], so they are adjacent
+ * in the array, and the heap is only about log(n) / log(arity) levels deep.
+ * {@code removeFirst} then makes arity - 1 comparisons per level on fewer
+ * levels, touching fewer cache lines on its way to a leaf. In
+ * {@code SortingMachine5dBenchmark}, an arity of 4 builds the heap two to three
+ * times faster than an arity of 2 and, on multi-million-entry heaps of cheaply
+ * compared entries, removes entries about as fast or a little faster, despite
+ * making about 45% more comparisons; when comparisons are expensive, or the
+ * arity is 8 or more, the extra comparisons outweigh the shallower heap.
+ * </p>
+ *
+ * <p>
+ * As in {@code SortingMachine5a}, with assertions enabled the checks of the
+ * representation are sampled, and the system property
+ * {@code SortingMachine5d.fullChecks} set to {@code true} makes them check
+ * everything on every call.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * SUBTREE_IS_HEAP (
+ *   a: string of T,
+ *   d: integer,
+ *   start: integer,
+ *   stop: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  [the subtree of a (when a is interpreted as a complete d-ary tree) rooted
+ *   at index start and only through entry stop of a satisfies the heap
+ *   ordering property according to the relation r]
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * $this.arity >= 2  and
+ * if $this.insertionMode then
+ *   $this.heapSize = 0
+ * else
+ *   $this.entries = <>  and
+ *   for all i: integer
+ *       where (0 <= i  and  i < |$this.heap|)
+ *     ([entry at position i in $this.heap is not null])  and
+ *   SUBTREE_IS_HEAP($this.heap, $this.arity, 0, $this.heapSize - 1,
+ *     [relation computed by $this.machineOrder.compare method])  and
+ *   0 <= $this.heapSize <= |$this.heap|
+ * </pre>
+ * @correspondence <pre>
+ * if $this.insertionMode then
+ *   this = (true, $this.machineOrder, multiset_entries($this.entries))
+ * else
+ *   this = (false, $this.machineOrder, multiset_entries($this.heap[0, $this.heapSize)))
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class SortingMachine5d<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Arity of the heap when none is given.
+     */
+    private static final int DEFAULT_ARITY = 4;
+
+    /**
+     * Whether {@code conventionHolds} checks the arity-way heap ordering and
+     * the entries of $this.heap on every call, rather than once every
+     * |$this.heap| calls, and {@code siftDown} checks that all arity subtrees
+     * it is given are heaps.
+     */
+    private static final boolean FULL_CHECKS = Boolean
+            .getBoolean("SortingMachine5d.fullChecks");
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Greatest number of children of a node of the heap.
+     */
+    private int arity;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Entries.
+     */
+    private Queue<T> entries;
+
+    /**
+     * Heap.
+     */
+    private T[] heap;
+
+    /**
+     * Heap size.
+     */
+    private int heapSize;
+
+    /**
+     * Number of calls to {@code conventionHolds} left before the next one
+     * checks the whole heap; only used when assertions are enabled.
+     */
+    private int checksUntilFull;
+
+    /**
+     * Given an array that represents a complete d-ary tree and an index
+     * referring to the root of a subtree that would be a heap except for its
+     * root, sifts the root down to turn that whole subtree into a heap.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete d-ary tree
+     * @param arity
+     *            the greatest number of children of a node
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * arity >= 2  and  0 <= top  and  last < |array|  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |array|)
+     *   ([entry at position i in array is not null])  and
+     * for all c: integer
+     *     where (arity * top + 1 <= c  and  c <= arity * top + arity)
+     *   (SUBTREE_IS_HEAP(array, arity, c, last,
+     *      [relation computed by order.compare method]))  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, arity, top, last,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)  and
+     * [the entries in array outside the subtree rooted at top and only through
+     *  entry last are the same as in #array]
+     * </pre>
+     */
+    private static <T> void siftDown(T[] array, int arity, int top, int last,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
+        assert order != null : "Violation of: order is not null";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        assert 0 <= top : "Violation of: 0 <= top";
+        assert last < array.length : "Violation of: last < |array|";
+        assert !FULL_CHECKS || allNotNull(array) : ""
+                + "Violation of: all entries in array are not null";
+        if (FULL_CHECKS) {
+            for (int c = arity * top + 1; c <= arity * top + arity; c++) {
+                assert isHeap(array, arity, c, last, order) : ""
+                        + "Violation of: SUBTREE_IS_HEAP(array, arity, c, last,"
+                        + " [relation computed by order.compare method])";
+            }
+        }
+
+        /*
+         * Impractical to check last requires clause. The checks that take
+         * time linear in |array| are only made in full-checks mode.
+         */
+
+        /*
+         * Floyd's "bounce", as in SortingMachine5a: the hole left by the root's
+         * entry moves down to a leaf, each step promoting the smallest child
+         * (arity - 1 comparisons per level), and the entry then moves back up
+         * from that leaf to its place. The index of the first child is a long,
+         * as in isHeap, because it can pass the greatest int while the hole is
+         * still in the heap.
+         */
+        T x = array[top];
+        int hole = top;
+        long child = (long) arity * hole + 1;
+        while (child <= last) {
+            int first = (int) child;
+            int stop = (int) Math.min(child + arity - 1, last);
+            int smallest = first;
+            for (int c = first + 1; c <= stop; c++) {
+                if (order.compare(array[smallest], array[c]) > 0) {
+                    smallest = c;
+                }
+            }
+            array[hole] = array[smallest];
+            hole = smallest;
+            child = (long) arity * hole + 1;
+        }
+        int parent = (hole - 1) / arity;
+        while (hole > top && order.compare(array[parent], x) > 0) {
+            array[hole] = array[parent];
+            hole = parent;
+            parent = (hole - 1) / arity;
+        }
+        array[hole] = x;
+    }
+
+    /**
+     * Heapifies the given array, bottom-up (Floyd's construction, as in
+     * {@code SortingMachine5a}).
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete d-ary tree
+     * @param arity
+     *            the greatest number of children of a node
+     * @param order
+     *            the total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * arity >= 2  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |array|)
+     *   ([entry at position i in array is not null])  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, arity, 0, |array| - 1,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)
+     * </pre>
+     */
+    private static <T> void heapify(T[] array, int arity,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
+        assert order != null : "Violation of: order is not null";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        assert allNotNull(array) : ""
+                + "Violation of: all entries in array are not null";
+
+        /*
+         * Impractical to check last requires clause.
+         */
+
+        int last = array.length - 1;
+        if (last > 0) {
+            for (int top = (last - 1) / arity; top >= 0; top--) {
+                siftDown(array, arity, top, last, order);
+            }
+        }
+    }
+
+    /**
+     * Constructs and returns an array representing a heap with the entries from
+     * the given {@code Queue}.
+     *
+     * @param <T>
+     *            type of {@code Queue} and array entries
+     * @param q
+     *            the {@code Queue} with the entries for the heap
+     * @param arity
+     *            the greatest number of children of a node
+     * @param order
+     *            the total preorder for sorting
+     * @return the array representation of a heap
+     * @clears q
+     * @requires <pre>
+     * arity >= 2  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(buildHeap, arity, 0, |buildHeap| - 1)  and
+     * perms(buildHeap, #q)  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |buildHeap|)
+     *   ([entry at position i in buildHeap is not null])
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T[] buildHeap(Queue<T> q, int arity,
+            Comparator<T> order) {
+        assert q != null : "Violation of: q is not null";
+        assert order != null : "Violation of: order is not null";
+
+        /*
+         * Impractical to check the requires clause.
+         */
+
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+
+        T[] heap = (T[]) (new Object[q.length()]);
+        int i = 0;
+        while (q.length() > 0) {
+            heap[i] = q.dequeue();
+            i++;
+        }
+        heapify(heap, arity, order);
+        return heap;
+    }
+
+    /**
+     * Checks if the subtree of the given {@code array} rooted at the given
+     * {@code top} is a heap.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete d-ary tree
+     * @param arity
+     *            the greatest number of children of a node
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @return true if the subtree of the given {@code array} rooted at the
+     *         given {@code top} is a heap; false otherwise
+     * @requires <pre>
+     * arity >= 2  and  0 <= top  and  last < |array|  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |array|)
+     *   ([entry at position i in array is not null])
+     * </pre>
+     * @ensures <pre>
+     * isHeap = SUBTREE_IS_HEAP(array, arity, top, last,
+     *     [relation computed by order.compare method])
+     * </pre>
+     */
+    private static <T> boolean isHeap(T[] array, int arity, int top, int last,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        assert 0 <= top : "Violation of: 0 <= top";
+        assert last < array.length : "Violation of: last < |array|";
+
+        /*
+         * Impractical to check the requires clause on the entries of array
+         * here (see SortingMachine5a.isHeap).
+         */
+
+        /*
+         * The subtree is checked one level at a time: its entries at each
+         * level are those at the indices [low, high], and each must not come
+         * before its parent. The indices are longs because high can pass the
+         * greatest int before low passes last.
+         */
+        boolean isHeap = true;
+        long low = (long) arity * top + 1;
+        long high = (long) arity * top + arity;
+        while (isHeap && low <= last) {
+            int stop = (int) Math.min(high, last);
+            for (int i = (int) low; isHeap && i <= stop; i++) {
+                isHeap = order.compare(array[(i - 1) / arity], array[i]) <= 0;
+            }
+            low = arity * low + 1;
+            high = arity * high + arity;
+        }
+        return isHeap;
+    }
+
+    /**
+     * Checks that no entry of {@code array} is null.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @return true iff no entry of {@code array} is null
+     * @ensures <pre>
+     * allNotNull =
+     *  for all i: integer
+     *      where (0 <= i  and  i < |array|)
+     *    ([entry at position i in array is not null])
+     * </pre>
+     */
+    private static <T> boolean allNotNull(T[] array) {
+        assert array != null : "Violation of: array is not null";
+
+        boolean allNotNull = true;
+        for (int i = 0; allNotNull && i < array.length; i++) {
+            allNotNull = array[i] != null;
+        }
+        return allNotNull;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation. The parts that take constant time are checked
+     * on every call; the rest only on every call in full-checks mode, and
+     * otherwise once every |$this.heap| calls.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.arity >= 2  and
+     * if $this.insertionMode then
+     *   $this.heapSize = 0
+     * else
+     *   $this.entries = <>  and
+     *   for all i: integer
+     *       where (0 <= i  and  i < |$this.heap|)
+     *     ([entry at position i in $this.heap is not null])  and
+     *   SUBTREE_IS_HEAP($this.heap, $this.arity, 0, $this.heapSize - 1,
+     *     [relation computed by $this.machineOrder.compare method])  and
+     *   0 <= $this.heapSize <= |$this.heap|
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.arity >= 2 : "Violation of: $this.arity >= 2";
+        if (this.insertionMode) {
+            assert this.heapSize == 0 : ""
+                    + "Violation of: if $this.insertionMode then $this.heapSize = 0";
+        } else {
+            assert this.entries.length() == 0 : ""
+                    + "Violation of: if not $this.insertionMode then $this.entries = <>";
+            assert 0 <= this.heapSize : ""
+                    + "Violation of: if not $this.insertionMode then 0 <= $this.heapSize";
+            assert this.heapSize <= this.heap.length : ""
+                    + "Violation of: if not $this.insertionMode then"
+                    + " $this.heapSize <= |$this.heap|";
+            if (FULL_CHECKS || this.checksUntilFull <= 0) {
+                assert allNotNull(this.heap) : ""
+                        + "Violation of: if not $this.insertionMode then"
+                        + " all entries in $this.heap are not null";
+                assert isHeap(this.heap, this.arity, 0, this.heapSize - 1,
+                        this.machineOrder) : ""
+                                + "Violation of: if not $this.insertionMode then"
+                                + " SUBTREE_IS_HEAP($this.heap, $this.arity, 0,"
+                                + " $this.heapSize - 1, [relation computed by"
+                                + " $this.machineOrder.compare method])";
+                this.checksUntilFull = this.heap.length;
+            } else {
+                this.checksUntilFull--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param arity
+     *            the greatest number of children of a node of the heap
+     * @requires <pre>
+     * IS_TOTAL_PREORDER([relation computed by order.compare method]  and
+     * arity >= 2
+     * </pre>
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.arity = arity  and
+     * $this.entries = <>  and
+     * $this.heapSize = 0  and
+     * $this.checksUntilFull = 0
+     * </pre>
+     */
+    private void createNewRep(Comparator<T> order, int arity) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.arity = arity;
+        this.entries = new Queue1L<>();
+        this.heapSize = 0;
+        this.checksUntilFull = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order, with a heap of the default arity (4).
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine5d(Comparator<T> order) {
+        this(order, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructor from order and arity.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param arity
+     *            the greatest number of children of a node of the heap
+     * @requires arity >= 2
+     */
+    public SortingMachine5d(Comparator<T> order, int arity) {
+        assert arity >= 2 : "Violation of: arity >= 2";
+        this.createNewRep(order, arity);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(Comparator.class, int.class)
+                    .newInstance(this.machineOrder, this.arity);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder, this.arity);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5d<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5d<?>";
+
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5d<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+
+        SortingMachine5d<T> localSource = (SortingMachine5d<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.arity = localSource.arity;
+        this.entries = localSource.entries;
+        this.heap = localSource.heap;
+        this.heapSize = localSource.heapSize;
+        this.checksUntilFull = 0;
+        localSource.createNewRep(localSource.machineOrder, localSource.arity);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.entries.enqueue(x);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.heap = buildHeap(this.entries, this.arity, this.machineOrder);
+        this.heapSize = this.heap.length;
+        this.insertionMode = false;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T removed = this.heap[0];
+        this.heap[0] = this.heap[this.heapSize - 1];
+        this.heapSize--;
+        siftDown(this.heap, this.arity, 0, this.heapSize - 1,
+                this.machineOrder);
+        assert this.conventionHolds();
+        return removed;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        int size = this.heapSize;
+        if (this.insertionMode) {
+            size = this.entries.length();
+        }
+        assert this.conventionHolds();
+        return size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5dIterator();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the greatest number of children of a node of the heap.
+     *
+     * @return the arity of the heap
+     * @ensures arity = [the arity this was constructed with]
+     */
+    public final int arity() {
+        assert this.conventionHolds();
+        return this.arity;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5d}.
+     */
+    private final class SortingMachine5dIterator implements Iterator<T> {
+
+        /**
+         * Representation iterator when in insertion mode.
+         */
+        private Iterator<T> queueIterator;
+
+        /**
+         * Representation iterator count when in extraction mode.
+         */
+        private int arrayCurrentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5dIterator() {
+            if (SortingMachine5d.this.insertionMode) {
+                this.queueIterator = SortingMachine5d.this.entries.iterator();
+            } else {
+                this.arrayCurrentIndex = 0;
+            }
+            assert SortingMachine5d.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext;
+            if (SortingMachine5d.this.insertionMode) {
+                hasNext = this.queueIterator.hasNext();
+            } else {
+                hasNext = this.arrayCurrentIndex < SortingMachine5d.this.heapSize;
+            }
+            assert SortingMachine5d.this.conventionHolds();
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+
+                throw new NoSuchElementException();
+            }
+            T next;
+            if (SortingMachine5d.this.insertionMode) {
+                next = this.queueIterator.next();
+            } else {
+                next = SortingMachine5d.this.heap[this.arrayCurrentIndex];
+                this.arrayCurrentIndex++;
+            }
+            assert SortingMachine5d.this.conventionHolds();
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,1007 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as an in-memory buffer and a list of
+ * sorted runs spilled to temporary files (an external merge sort), with
+ * implementations of primary methods.
+ *
+ * <p>
+ * {@code add} puts entries in a buffer of at most {@code runLength} entries;
+ * whenever the buffer fills up, its entries are sorted and written, with the
+ * machine's {@code Serializer}, to a new temporary file as a "run", so that
+ * no more than {@code runLength} entries are ever held in memory.
+ * {@code changeToExtractionMode} writes what is left in the buffer as a last
+ * run and opens every run, and {@code removeFirst} then takes the smallest
+ * head of all the runs from a heap of runs ordered by their heads (a k-way
+ * merge), reading the next entry of that run in its place. If nothing was
+ * ever spilled, the buffer is simply sorted in memory.
+ * </p>
+ *
+ * <p>
+ * At most {@code MAX_FAN_IN} runs are merged at once, so that no more than
+ * that many files are open at a time: if there are more runs than that,
+ * {@code changeToExtractionMode} first merges groups of them into longer
+ * runs. Run files are deleted as soon as they have been read to the end (or,
+ * for runs merged into a longer one, once that one is written), by
+ * {@code clear}, and, failing that, when the virtual machine exits. Failures
+ * to create, write, or read them are reported as
+ * {@code UncheckedIOException}s; when {@code add} or
+ * {@code changeToExtractionMode} fails this way, {@code this} is left in
+ * insertion mode with the entries it had before the call.
+ * </p>
+ *
+ * <p>
+ * An iterator reads the runs again through a stream of its own, which it
+ * closes when it has read its run to the end. The stream of an iterator left
+ * partway through a run is closed when {@code this} is next changed (after
+ * which the iterator may not be used anyway); if {@code this} is never
+ * changed again, it stays open until the iterator is garbage collected.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * RUN_ENTRIES (
+ *   r: Run
+ *  ) : finite multiset of T is
+ *  [the multiset of r.head (if not null) and the entries of r's file after
+ *   the first r.read ones]
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * $this.runLength > 0  and
+ * 0 <= $this.bufferStart <= $this.bufferSize <= |$this.buffer| <=
+ *   $this.runLength  and
+ * [the entries of $this.buffer at [$this.bufferStart, $this.bufferSize)
+ *  are not null, and the others are null]  and
+ * [every run in $this.runs has a file holding its length entries in
+ *  increasing order, and 0 <= read <= length]  and
+ * $this.size = $this.bufferSize - $this.bufferStart +
+ *   [sum of |RUN_ENTRIES(r)| over the runs r in $this.runs]  and
+ * if $this.insertionMode then
+ *   $this.bufferStart = 0  and
+ *   [every run in $this.runs is unopened, with read = 0 and head = null]
+ * else
+ *   [$this.buffer[$this.bufferStart, $this.bufferSize) is sorted]  and
+ *   ($this.runs = <>  or  $this.bufferStart = $this.bufferSize)  and
+ *   [every run in $this.runs is open, with a head that is not null and
+ *    comes no later than the entries after it in its file]  and
+ *   [$this.runs is a heap of runs ordered by their heads]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.buffer[$this.bufferStart, $this.bufferSize))
+ *         union [union of RUN_ENTRIES(r) over the runs r in $this.runs])
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class SortingMachine5e<T> extends SortingMachineSecondary<T> {
+
+    /**
+     * Writes entries of type {@code T} to, and reads them back from, the run
+     * files of a {@code SortingMachine5e}.
+     *
+     * @param <T>
+     *            type of entries
+     */
+    public interface Serializer<T> {
+
+        /**
+         * Writes {@code x} to {@code out}.
+         *
+         * @param out
+         *            the output
+         * @param x
+         *            the entry to write
+         * @throws IOException
+         *             if {@code out} fails
+         * @ensures [out holds x, in a form read can read back]
+         */
+        void write(DataOutput out, T x) throws IOException;
+
+        /**
+         * Reads and returns an entry written by {@code write} from
+         * {@code in}.
+         *
+         * @param in
+         *            the input
+         * @return the entry read, which is not null
+         * @throws IOException
+         *             if {@code in} fails or ends first
+         * @ensures [read is equal to the entry that was written]
+         */
+        T read(DataInput in) throws IOException;
+
+    }
+
+    /**
+     * {@code Serializer} of {@code String}s, of any length, as UTF-8.
+     */
+    public static final class StringSerializer implements Serializer<String> {
+
+        @Override
+        public void write(DataOutput out, String x) throws IOException {
+            byte[] bytes = x.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Greatest number of runs merged at once.
+     */
+    private static final int MAX_FAN_IN = 64;
+
+    /**
+     * Length of the buffer of a new machine, if the run length is larger.
+     */
+    private static final int INITIAL_LENGTH = 16;
+
+    /**
+     * Size, in bytes, of the buffer of each run file stream.
+     */
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Sorted run of entries in a temporary file, together with the state of
+     * reading it back.
+     */
+    private final class Run {
+
+        /**
+         * The file.
+         */
+        private final File file;
+
+        /**
+         * Number of entries in the file.
+         */
+        private final int length;
+
+        /**
+         * Number of entries read from the file so far, including the head.
+         */
+        private int read;
+
+        /**
+         * Input stream of the file while it is open, or null.
+         */
+        private DataInputStream in;
+
+        /**
+         * Entry read last, which has not been removed yet, or null if there
+         * is none.
+         */
+        private T head;
+
+        /**
+         * Constructor from the file and the number of entries in it.
+         *
+         * @param file
+         *            the file
+         * @param length
+         *            the number of entries in the file
+         */
+        Run(File file, int length) {
+            this.file = file;
+            this.length = length;
+        }
+
+        /**
+         * Opens the file and reads the first entry into {@code head}.
+         *
+         * @requires [this is unopened]  and  this.length > 0
+         */
+        void open() {
+            this.in = SortingMachine5e.this.openInput(this.file);
+            this.advance();
+        }
+
+        /**
+         * Replaces {@code head} with the next entry of the file, or, if there
+         * is none, with null, closing the file (but leaving it to the caller
+         * to delete).
+         *
+         * @requires [this is open]
+         */
+        void advance() {
+            if (this.read < this.length) {
+                this.head = SortingMachine5e.this.readEntry(this.in);
+                this.read++;
+            } else {
+                this.head = null;
+                closeInput(this.in);
+                this.in = null;
+            }
+        }
+
+        /**
+         * Closes the file, if it is open, leaving this unopened.
+         */
+        void close() {
+            if (this.in != null) {
+                closeInput(this.in);
+                this.in = null;
+            }
+            this.read = 0;
+            this.head = null;
+        }
+
+        /**
+         * Closes the file, if it is open, and deletes it.
+         */
+        void discard() {
+            if (this.in != null) {
+                closeInput(this.in);
+                this.in = null;
+            }
+            this.file.delete();
+        }
+
+    }
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Serializer for the entries written to run files.
+     */
+    private Serializer<T> serializer;
+
+    /**
+     * Greatest number of entries held in memory.
+     */
+    private int runLength;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Buffer of entries not written to a run.
+     */
+    private T[] buffer;
+
+    /**
+     * Index of the first entry in the buffer that has not been removed.
+     */
+    private int bufferStart;
+
+    /**
+     * Index just past the last entry in the buffer.
+     */
+    private int bufferSize;
+
+    /**
+     * Runs written so far; a heap ordered by the runs' heads in extraction
+     * mode.
+     */
+    private List<Run> runs;
+
+    /**
+     * Size of {@code this}.
+     */
+    private int size;
+
+    /**
+     * Streams opened by iterators of {@code this} and not yet read to the
+     * end.
+     */
+    private final List<DataInputStream> iteratorInputs =
+            new ArrayList<DataInputStream>();
+
+    /**
+     * Opens {@code file} for reading.
+     *
+     * @param file
+     *            the file
+     * @return the input stream
+     * @throws UncheckedIOException
+     *             if the file cannot be opened
+     */
+    private DataInputStream openInput(File file) {
+        try {
+            return new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(file), STREAM_BUFFER_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes {@code in}, ignoring failures: nothing has been written to it.
+     *
+     * @param in
+     *            the input stream
+     */
+    private static void closeInput(DataInputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            // nothing is lost; the file is deleted or read again anyway.
+        }
+    }
+
+    /**
+     * Closes the streams of the iterators of {@code this} that are partway
+     * through a run, since those iterators may not be used once {@code this}
+     * is changed.
+     */
+    private void closeIteratorInputs() {
+        for (DataInputStream in : this.iteratorInputs) {
+            closeInput(in);
+        }
+        this.iteratorInputs.clear();
+    }
+
+    /**
+     * Reads the next entry from {@code in}.
+     *
+     * @param in
+     *            the input stream
+     * @return the entry
+     * @throws UncheckedIOException
+     *             if the entry cannot be read
+     */
+    private T readEntry(DataInputStream in) {
+        try {
+            return this.serializer.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a new temporary file for a run.
+     *
+     * @return the file
+     * @throws UncheckedIOException
+     *             if the file cannot be created
+     */
+    private static File newRunFile() {
+        try {
+            File file = File.createTempFile("SortingMachine5e", ".run");
+            file.deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sifts the run at index {@code top} of {@code heap} down, comparing the
+     * runs' heads, to turn the subtree rooted there into a heap.
+     *
+     * @param heap
+     *            the heap of runs
+     * @param top
+     *            the index of the root of the "subtree"
+     * @updates heap
+     * @requires <pre>
+     * 0 <= top < |heap|  and  [every run in heap has a head]  and
+     * [the subtrees rooted at the children of top are heaps]
+     * </pre>
+     * @ensures <pre>
+     * [the subtree rooted at top is a heap]  and  perms(heap, #heap)
+     * </pre>
+     */
+    private void siftDown(List<Run> heap, int top) {
+        Run x = heap.get(top);
+        int last = heap.size() - 1;
+        int current = top;
+        boolean placed = false;
+        while (!placed) {
+            int child = 2 * current + 1;
+            if (child < last && this.machineOrder.compare(heap.get(child).head,
+                    heap.get(child + 1).head) > 0) {
+                child++;
+            }
+            if (child <= last && this.machineOrder.compare(x.head,
+                    heap.get(child).head) > 0) {
+                heap.set(current, heap.get(child));
+                current = child;
+            } else {
+                placed = true;
+            }
+        }
+        heap.set(current, x);
+    }
+
+    /**
+     * Opens every run of {@code heap} and arranges them into a heap ordered by
+     * their heads.
+     *
+     * @param heap
+     *            the runs
+     * @throws UncheckedIOException
+     *             if a run cannot be opened or read, after closing every run
+     *             of {@code heap} again
+     * @updates heap
+     * @requires [every run in heap is unopened and not empty]
+     * @ensures <pre>
+     * [every run in heap is open]  and  [heap is a heap]  and
+     * perms(heap, #heap)
+     * </pre>
+     */
+    private void openAll(List<Run> heap) {
+        try {
+            for (Run r : heap) {
+                r.open();
+            }
+        } catch (RuntimeException e) {
+            for (Run r : heap) {
+                r.close();
+            }
+            throw e;
+        }
+        for (int top = heap.size() / 2 - 1; top >= 0; top--) {
+            this.siftDown(heap, top);
+        }
+    }
+
+    /**
+     * Removes and returns the smallest head of the runs in {@code heap},
+     * reading the next entry of its run in its place.
+     *
+     * @param heap
+     *            the heap of runs
+     * @return the smallest head
+     * @updates heap
+     * @requires |heap| > 0  and  [heap is a heap of open runs]
+     * @ensures <pre>
+     * [nextMerged is the head of the run at the root of #heap, which comes
+     *  first of all the heads]  and
+     * [heap is a heap of the runs of #heap that had entries left]
+     * </pre>
+     */
+    private T nextMerged(List<Run> heap) {
+        Run r = heap.get(0);
+        T x = r.head;
+        r.advance();
+        if (r.head == null) {
+            Run last = heap.remove(heap.size() - 1);
+            if (last != r) {
+                heap.set(0, last);
+            }
+        }
+        if (!heap.isEmpty()) {
+            this.siftDown(heap, 0);
+        }
+        return x;
+    }
+
+    /**
+     * Sorts the entries of the buffer, writes them to a new run, and empties
+     * the buffer.
+     *
+     * @throws UncheckedIOException
+     *             if the run cannot be written, after deleting its file and
+     *             leaving the entries in the buffer
+     * @updates this
+     * @requires $this.insertionMode  and  $this.bufferSize > 0
+     * @ensures <pre>
+     * $this.bufferSize = 0  and
+     * $this.runs = #$this.runs * <[a new run of the entries of
+     *   #$this.buffer[0, #$this.bufferSize)]>
+     * </pre>
+     */
+    private void spill() {
+        Arrays.sort(this.buffer, 0, this.bufferSize, this.machineOrder);
+        File file = newRunFile();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file),
+                        STREAM_BUFFER_SIZE))) {
+            for (int i = 0; i < this.bufferSize; i++) {
+                this.serializer.write(out, this.buffer[i]);
+            }
+        } catch (IOException e) {
+            file.delete();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            file.delete();
+            throw e;
+        }
+        Arrays.fill(this.buffer, 0, this.bufferSize, null);
+        this.runs.add(new Run(file, this.bufferSize));
+        this.bufferSize = 0;
+    }
+
+    /**
+     * Merges the runs of {@code group} into a single new run, deleting their
+     * files once it is written.
+     *
+     * @param group
+     *            the runs to merge
+     * @return the new run
+     * @throws UncheckedIOException
+     *             if a run cannot be read or the new one written, after
+     *             deleting the new run's file and closing the runs of
+     *             {@code group} again, which are left unopened
+     * @clears group
+     * @requires [every run in group is unopened and not empty]
+     * @ensures [mergeRuns is an unopened run of the entries of #group]
+     */
+    private Run mergeRuns(List<Run> group) {
+        List<Run> inputs = new ArrayList<Run>(group);
+        int length = 0;
+        for (Run r : inputs) {
+            length += r.length;
+        }
+        File file = newRunFile();
+        try {
+            this.openAll(group);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(file),
+                            STREAM_BUFFER_SIZE))) {
+                while (!group.isEmpty()) {
+                    this.serializer.write(out, this.nextMerged(group));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } catch (RuntimeException e) {
+            for (Run r : inputs) {
+                r.close();
+            }
+            file.delete();
+            throw e;
+        }
+        for (Run r : inputs) {
+            r.discard();
+        }
+        return new Run(file, length);
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation. Only the parts that take constant time are
+     * checked.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.runLength > 0  and
+     * 0 <= $this.bufferStart <= $this.bufferSize <= |$this.buffer| <=
+     *   $this.runLength  and
+     * if $this.insertionMode then
+     *   $this.bufferStart = 0
+     * else
+     *   ($this.runs = <>  or  $this.bufferStart = $this.bufferSize)
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.runLength > 0 : "Violation of: $this.runLength > 0";
+        assert 0 <= this.bufferStart : "Violation of: 0 <= $this.bufferStart";
+        assert this.bufferStart <= this.bufferSize : ""
+                + "Violation of: $this.bufferStart <= $this.bufferSize";
+        assert this.bufferSize <= this.buffer.length : ""
+                + "Violation of: $this.bufferSize <= |$this.buffer|";
+        assert this.buffer.length <= this.runLength : ""
+                + "Violation of: |$this.buffer| <= $this.runLength";
+        if (this.insertionMode) {
+            assert this.bufferStart == 0 : ""
+                    + "Violation of: if $this.insertionMode then"
+                    + " $this.bufferStart = 0";
+        } else {
+            assert this.runs.isEmpty()
+                    || this.bufferStart == this.bufferSize : ""
+                            + "Violation of: if not $this.insertionMode then"
+                            + " ($this.runs = <>  or"
+                            + "  $this.bufferStart = $this.bufferSize)";
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param entrySerializer
+     *            serializer for the entries written to run files
+     * @param length
+     *            greatest number of entries held in memory
+     * @requires <pre>
+     * IS_TOTAL_PREORDER([relation computed by order.compare method]  and
+     * length > 0
+     * </pre>
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.serializer = entrySerializer  and
+     * $this.runLength = length  and
+     * $this.bufferStart = 0  and  $this.bufferSize = 0  and
+     * $this.runs = <>  and  $this.size = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order,
+            Serializer<T> entrySerializer, int length) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.serializer = entrySerializer;
+        this.runLength = length;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.buffer = (T[]) (new Object[Math.min(length, INITIAL_LENGTH)]);
+        this.bufferStart = 0;
+        this.bufferSize = 0;
+        this.runs = new ArrayList<Run>();
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order, serializer, and run length.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param serializer
+     *            serializer for the entries written to run files
+     * @param runLength
+     *            greatest number of entries held in memory
+     * @requires runLength > 0
+     */
+    public SortingMachine5e(Comparator<T> order, Serializer<T> serializer,
+            int runLength) {
+        assert serializer != null : "Violation of: serializer is not null";
+        assert runLength > 0 : "Violation of: runLength > 0";
+        this.createNewRep(order, serializer, runLength);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass()
+                    .getConstructor(Comparator.class, Serializer.class,
+                            int.class)
+                    .newInstance(this.machineOrder, this.serializer,
+                            this.runLength);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.closeIteratorInputs();
+        for (Run r : this.runs) {
+            r.discard();
+        }
+        this.createNewRep(this.machineOrder, this.serializer, this.runLength);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5e<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5e<?>";
+
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5e<?>, and the ? must be T or the call would not have
+         * compiled. The runs of this are discarded, as by clear.
+         */
+
+        SortingMachine5e<T> localSource = (SortingMachine5e<T>) source;
+        this.closeIteratorInputs();
+        localSource.closeIteratorInputs();
+        for (Run r : this.runs) {
+            r.discard();
+        }
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.serializer = localSource.serializer;
+        this.runLength = localSource.runLength;
+        this.buffer = localSource.buffer;
+        this.bufferStart = localSource.bufferStart;
+        this.bufferSize = localSource.bufferSize;
+        this.runs = localSource.runs;
+        this.size = localSource.size;
+        localSource.createNewRep(localSource.machineOrder,
+                localSource.serializer, localSource.runLength);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.closeIteratorInputs();
+        if (this.bufferSize == this.runLength) {
+            this.spill();
+        } else if (this.bufferSize == this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, (int) Math
+                    .min(this.runLength, 2L * this.buffer.length));
+        }
+        this.buffer[this.bufferSize] = x;
+        this.bufferSize++;
+        this.size++;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        /*
+         * The mode changes only once the runs are written, merged, and opened,
+         * so that if any of that fails this is left in insertion mode, with
+         * its entries in the buffer and unopened runs.
+         */
+        this.closeIteratorInputs();
+        if (this.runs.isEmpty()) {
+            Arrays.sort(this.buffer, 0, this.bufferSize, this.machineOrder);
+        } else {
+            if (this.bufferSize > 0) {
+                this.spill();
+            }
+            while (this.runs.size() > MAX_FAN_IN) {
+                List<Run> group = this.runs.subList(0, MAX_FAN_IN);
+                Run merged = this.mergeRuns(new ArrayList<Run>(group));
+                group.clear();
+                this.runs.add(merged);
+            }
+            this.openAll(this.runs);
+        }
+        this.insertionMode = false;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        this.closeIteratorInputs();
+        T removed;
+        if (this.runs.isEmpty()) {
+            removed = this.buffer[this.bufferStart];
+            this.buffer[this.bufferStart] = null;
+            this.bufferStart++;
+        } else {
+            Run first = this.runs.get(0);
+            removed = this.nextMerged(this.runs);
+            if (first.head == null) {
+                first.discard();
+            }
+        }
+        this.size--;
+        assert this.conventionHolds();
+        return removed;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        assert this.conventionHolds();
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5eIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5e}, visiting the entries in the buffer and then
+     * those of each run (its head, and then the rest of its file, read again
+     * from a separate stream).
+     */
+    private final class SortingMachine5eIterator implements Iterator<T> {
+
+        /**
+         * Index of the next entry of the buffer to visit.
+         */
+        private int bufferIndex;
+
+        /**
+         * Index of the next run to visit.
+         */
+        private int runIndex;
+
+        /**
+         * Stream of the run being visited, or null.
+         */
+        private DataInputStream reader;
+
+        /**
+         * Number of entries of {@code reader} left to visit.
+         */
+        private int readerRemaining;
+
+        /**
+         * Entry to be returned by the next call to {@code next}, or null if
+         * there is none.
+         */
+        private T pending;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5eIterator() {
+            this.bufferIndex = SortingMachine5e.this.bufferStart;
+            this.runIndex = 0;
+            this.readerRemaining = 0;
+            this.fetch();
+            assert SortingMachine5e.this.conventionHolds();
+        }
+
+        /**
+         * Closes {@code reader} and forgets it.
+         */
+        private void closeReader() {
+            closeInput(this.reader);
+            SortingMachine5e.this.iteratorInputs.remove(this.reader);
+            this.reader = null;
+            this.readerRemaining = 0;
+        }
+
+        /**
+         * Makes {@code pending} the next entry to visit, or null if there is
+         * none.
+         *
+         * @throws UncheckedIOException
+         *             if a run file cannot be read, after closing
+         *             {@code reader}
+         */
+        private void fetch() {
+            try {
+                this.fetchOrFail();
+            } catch (RuntimeException e) {
+                if (this.reader != null) {
+                    this.closeReader();
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Makes {@code pending} the next entry to visit, or null if there is
+         * none, leaving {@code reader} open if reading fails.
+         *
+         * @throws UncheckedIOException
+         *             if a run file cannot be read
+         */
+        private void fetchOrFail() {
+            SortingMachine5e<T> m = SortingMachine5e.this;
+            this.pending = null;
+            while (this.pending == null && (this.bufferIndex < m.bufferSize
+                    || this.readerRemaining > 0
+                    || this.runIndex < m.runs.size())) {
+                if (this.bufferIndex < m.bufferSize) {
+                    this.pending = m.buffer[this.bufferIndex];
+                    this.bufferIndex++;
+                } else if (this.readerRemaining > 0) {
+                    this.pending = m.readEntry(this.reader);
+                    this.readerRemaining--;
+                    if (this.readerRemaining == 0) {
+                        this.closeReader();
+                    }
+                } else {
+                    Run r = m.runs.get(this.runIndex);
+                    this.runIndex++;
+                    this.pending = r.head;
+                    this.readerRemaining = r.length - r.read;
+                    if (this.readerRemaining > 0) {
+                        this.reader = m.openInput(r.file);
+                        m.iteratorInputs.add(this.reader);
+                        for (int i = 0; i < r.read; i++) {
+                            m.readEntry(this.reader);
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.pending != null;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+
+                throw new NoSuchElementException();
+            }
+            T next = this.pending;
+            this.fetch();
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
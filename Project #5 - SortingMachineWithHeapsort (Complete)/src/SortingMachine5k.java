@@ -0,0 +1,593 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * Bounded {@code SortingMachine} that keeps only the {@code capacity} entries
+ * that come first in its order (the "top k"), represented as an array heap as
+ * in {@code SortingMachine5a}, with implementations of primary methods.
+ *
+ * <p>
+ * This narrows the {@code SortingMachine} contract in one respect: once the
+ * machine holds {@code capacity} entries, {@code add} keeps the
+ * {@code capacity} entries of the old contents and {@code x} that come first
+ * in order, dropping one that comes last, so {@code size} never exceeds
+ * {@code capacity}. With a capacity no smaller than the number of entries
+ * added, it behaves exactly like any other {@code SortingMachine}.
+ * </p>
+ *
+ * <p>
+ * In insertion mode the array is a heap in the reverse of the machine's
+ * order, so the entry that comes last is at the root: {@code add} either
+ * appends {@code x} and sifts it up, or compares it with the root only and,
+ * if it comes earlier, replaces the root and sifts it down. Adding N entries
+ * thus takes O(N log capacity) time and O(capacity) space, however large N
+ * is. {@code changeToExtractionMode} rebuilds the array as a heap in the
+ * machine's order (Floyd's construction, O(capacity)), from which
+ * {@code removeFirst} removes entries as in {@code SortingMachine5a}.
+ * </p>
+ *
+ * <p>
+ * As in {@code SortingMachine5a}, with assertions enabled the checks of the
+ * representation are sampled: the heap ordering of the current mode (the
+ * reverse of the machine's order in insertion mode, which is what decides
+ * the entry {@code add} drops) and the entries of the array are checked once
+ * every |$this.heap| calls, and the system property
+ * {@code SortingMachine5k.fullChecks} set to {@code true} makes them be
+ * checked on every call.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * SUBTREE_IS_HEAP (
+ *   a: string of T,
+ *   start: integer,
+ *   stop: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  [the subtree of a (when a is interpreted as a complete binary tree) rooted
+ *   at index start and only through entry stop of a satisfies the heap
+ *   ordering property according to the relation r]
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * $this.capacity > 0  and
+ * 0 <= $this.heapSize <= |$this.heap| <= $this.capacity  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.heap|)
+ *   ([entry at position i in $this.heap is not null]  iff
+ *    i < $this.heapSize)  and
+ * if $this.insertionMode then
+ *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+ *     [reverse of the relation computed by $this.machineOrder.compare method])
+ * else
+ *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+ *     [relation computed by $this.machineOrder.compare method])
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.heap[0, $this.heapSize)))
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class SortingMachine5k<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Length of the heap array of a new machine, if the capacity is larger.
+     */
+    private static final int INITIAL_LENGTH = 16;
+
+    /**
+     * Whether {@code conventionHolds} checks the heap ordering of the current
+     * mode and the entries of $this.heap on every call, rather than once every
+     * |$this.heap| calls.
+     */
+    private static final boolean FULL_CHECKS = Boolean
+            .getBoolean("SortingMachine5k.fullChecks");
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Greatest number of entries kept.
+     */
+    private int capacity;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Heap.
+     */
+    private T[] heap;
+
+    /**
+     * Heap size.
+     */
+    private int heapSize;
+
+    /**
+     * Number of calls to {@code conventionHolds} left before the next one
+     * checks the whole heap; only used when assertions are enabled.
+     */
+    private int checksUntilFull;
+
+    /**
+     * Reports whether the entry at index {@code i} of {@code this.heap} must
+     * be above the one at index {@code j} in the heap of the current mode.
+     *
+     * @param i
+     *            one index
+     * @param j
+     *            the other index
+     * @return true iff the entry at {@code i} strictly precedes the one at
+     *         {@code j} in the heap's order
+     * @requires 0 <= i < $this.heapSize  and  0 <= j < $this.heapSize
+     * @ensures <pre>
+     * above = [$this.heap[i] comes strictly before $this.heap[j] in
+     *          $this.machineOrder if not $this.insertionMode, or strictly
+     *          after it if $this.insertionMode]
+     * </pre>
+     */
+    private boolean above(int i, int j) {
+        int c = this.machineOrder.compare(this.heap[i], this.heap[j]);
+        boolean above = c < 0;
+        if (this.insertionMode) {
+            above = c > 0;
+        }
+        return above;
+    }
+
+    /**
+     * Sifts the entry at index {@code top} down the subtree rooted there, in
+     * the heap of the current mode, to turn that whole subtree into a heap.
+     *
+     * @param top
+     *            the index of the root of the "subtree"
+     * @updates this
+     * @requires <pre>
+     * 0 <= top < $this.heapSize  and
+     * [the subtrees rooted at the children of top are heaps in the current
+     *  mode's order]
+     * </pre>
+     * @ensures <pre>
+     * [the subtree rooted at top is a heap in the current mode's order]  and
+     * perms($this.heap, #$this.heap)
+     * </pre>
+     */
+    private void siftDown(int top) {
+        assert 0 <= top : "Violation of: 0 <= top";
+        assert top < this.heapSize : "Violation of: top < $this.heapSize";
+
+        /*
+         * A plain top-down sift, exchanging the entry with its child that
+         * comes first in the heap's order for as long as that child does.
+         */
+        int last = this.heapSize - 1;
+        int current = top;
+        boolean placed = false;
+        while (!placed) {
+            int child = 2 * current + 1;
+            if (child < last && this.above(child + 1, child)) {
+                child++;
+            }
+            if (child <= last && this.above(child, current)) {
+                T tmp = this.heap[current];
+                this.heap[current] = this.heap[child];
+                this.heap[child] = tmp;
+                current = child;
+            } else {
+                placed = true;
+            }
+        }
+    }
+
+    /**
+     * Sifts the entry at index {@code bottom} up, in the heap of the current
+     * mode, to turn the whole array into a heap.
+     *
+     * @param bottom
+     *            the index of the entry
+     * @updates this
+     * @requires <pre>
+     * 0 <= bottom < $this.heapSize  and
+     * [$this.heap[0, $this.heapSize) would be a heap in the current mode's
+     *  order but for the entry at bottom]
+     * </pre>
+     * @ensures <pre>
+     * [$this.heap[0, $this.heapSize) is a heap in the current mode's order]
+     * and  perms($this.heap, #$this.heap)
+     * </pre>
+     */
+    private void siftUp(int bottom) {
+        assert 0 <= bottom : "Violation of: 0 <= bottom";
+        assert bottom < this.heapSize : "Violation of: bottom < $this.heapSize";
+
+        int current = bottom;
+        while (current > 0 && this.above(current, (current - 1) / 2)) {
+            int parent = (current - 1) / 2;
+            T tmp = this.heap[current];
+            this.heap[current] = this.heap[parent];
+            this.heap[parent] = tmp;
+            current = parent;
+        }
+    }
+
+    /**
+     * Checks that the entries of $this.heap are not null exactly at
+     * [0, $this.heapSize).
+     *
+     * @return true iff the entries of $this.heap are not null exactly at
+     *         [0, $this.heapSize)
+     * @ensures <pre>
+     * entriesHold =
+     *  for all i: integer
+     *      where (0 <= i  and  i < |$this.heap|)
+     *    ([entry at position i in $this.heap is not null]  iff
+     *     i < $this.heapSize)
+     * </pre>
+     */
+    private boolean entriesHold() {
+        boolean entriesHold = true;
+        for (int i = 0; entriesHold && i < this.heap.length; i++) {
+            entriesHold = (this.heap[i] != null) == (i < this.heapSize);
+        }
+        return entriesHold;
+    }
+
+    /**
+     * Checks that $this.heap[0, $this.heapSize) is a heap in the current
+     * mode's order.
+     *
+     * @return true iff $this.heap[0, $this.heapSize) is a heap in the current
+     *         mode's order
+     * @requires [the entries of $this.heap at [0, $this.heapSize) are not
+     *           null]
+     * @ensures <pre>
+     * isHeap =
+     *  if $this.insertionMode then
+     *    SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+     *      [reverse of the relation computed by $this.machineOrder.compare
+     *       method])
+     *  else
+     *    SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+     *      [relation computed by $this.machineOrder.compare method])
+     * </pre>
+     */
+    private boolean isHeap() {
+        boolean isHeap = true;
+        for (int i = 1; isHeap && i < this.heapSize; i++) {
+            isHeap = !this.above(i, (i - 1) / 2);
+        }
+        return isHeap;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation. The parts that take constant time are checked
+     * on every call; the rest only on every call in full-checks mode, and
+     * otherwise once every |$this.heap| calls (see the class comment).
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.capacity > 0  and
+     * 0 <= $this.heapSize <= |$this.heap| <= $this.capacity  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |$this.heap|)
+     *   ([entry at position i in $this.heap is not null]  iff
+     *    i < $this.heapSize)  and
+     * if $this.insertionMode then
+     *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+     *     [reverse of the relation computed by $this.machineOrder.compare
+     *      method])
+     * else
+     *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+     *     [relation computed by $this.machineOrder.compare method])
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.capacity > 0 : "Violation of: $this.capacity > 0";
+        assert 0 <= this.heapSize : "Violation of: 0 <= $this.heapSize";
+        assert this.heapSize <= this.heap.length : ""
+                + "Violation of: $this.heapSize <= |$this.heap|";
+        assert this.heap.length <= this.capacity : ""
+                + "Violation of: |$this.heap| <= $this.capacity";
+        if (FULL_CHECKS || this.checksUntilFull <= 0) {
+            assert this.entriesHold() : ""
+                    + "Violation of: [entry at position i in $this.heap is not"
+                    + " null]  iff  i < $this.heapSize";
+            assert this.isHeap() : ""
+                    + "Violation of: SUBTREE_IS_HEAP($this.heap, 0,"
+                    + " $this.heapSize - 1, [relation of the current mode])";
+            this.checksUntilFull = this.heap.length;
+        } else {
+            this.checksUntilFull--;
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param capacity
+     *            greatest number of entries kept
+     * @requires <pre>
+     * IS_TOTAL_PREORDER([relation computed by order.compare method]  and
+     * capacity > 0
+     * </pre>
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.capacity = capacity  and
+     * $this.heapSize = 0  and
+     * $this.checksUntilFull = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order, int capacity) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.capacity = capacity;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.heap = (T[]) (new Object[Math.min(capacity, INITIAL_LENGTH)]);
+        this.heapSize = 0;
+        this.checksUntilFull = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order and capacity.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param capacity
+     *            greatest number of entries kept
+     * @requires capacity > 0
+     */
+    public SortingMachine5k(Comparator<T> order, int capacity) {
+        assert capacity > 0 : "Violation of: capacity > 0";
+        this.createNewRep(order, capacity);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(Comparator.class, int.class)
+                    .newInstance(this.machineOrder, this.capacity);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder, this.capacity);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5k<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5k<?>";
+
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5k<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+
+        SortingMachine5k<T> localSource = (SortingMachine5k<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.capacity = localSource.capacity;
+        this.heap = localSource.heap;
+        this.heapSize = localSource.heapSize;
+        this.checksUntilFull = 0;
+        localSource.createNewRep(localSource.machineOrder,
+                localSource.capacity);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    /**
+     * Adds {@code x} to the contents of {@code this}, keeping only the
+     * {@code capacity} entries that come first in order.
+     *
+     * @param x
+     *            the element to be added
+     * @aliases reference x
+     * @updates this.contents
+     * @requires this.insertion_mode
+     * @ensures <pre>
+     * if |#this.contents| < this.capacity then
+     *   this.contents = #this.contents union {x}
+     * else
+     *   [this.contents is #this.contents union {x} less one of its entries
+     *    that comes last in this.order]
+     * </pre>
+     */
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.heapSize < this.capacity) {
+            if (this.heapSize == this.heap.length) {
+                @SuppressWarnings("unchecked")
+                T[] longer = (T[]) (new Object[(int) Math.min(this.capacity,
+                        2L * this.heap.length)]);
+                System.arraycopy(this.heap, 0, longer, 0, this.heapSize);
+                this.heap = longer;
+            }
+            this.heap[this.heapSize] = x;
+            this.heapSize++;
+            this.siftUp(this.heapSize - 1);
+        } else if (this.machineOrder.compare(x, this.heap[0]) < 0) {
+            this.heap[0] = x;
+            this.siftDown(0);
+        }
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.insertionMode = false;
+        for (int top = this.heapSize / 2 - 1; top >= 0; top--) {
+            this.siftDown(top);
+        }
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T removed = this.heap[0];
+        this.heapSize--;
+        this.heap[0] = this.heap[this.heapSize];
+        this.heap[this.heapSize] = null;
+        if (this.heapSize > 0) {
+            this.siftDown(0);
+        }
+        assert this.conventionHolds();
+        return removed;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        assert this.conventionHolds();
+        return this.heapSize;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5kIterator();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the greatest number of entries {@code this} keeps.
+     *
+     * @return the capacity of {@code this}
+     * @ensures capacity = [the capacity this was constructed with]
+     */
+    public final int capacity() {
+        assert this.conventionHolds();
+        return this.capacity;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5k}.
+     */
+    private final class SortingMachine5kIterator implements Iterator<T> {
+
+        /**
+         * Representation iterator count.
+         */
+        private int arrayCurrentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5kIterator() {
+            this.arrayCurrentIndex = 0;
+            assert SortingMachine5k.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.arrayCurrentIndex < SortingMachine5k.this.heapSize;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+
+                throw new NoSuchElementException();
+            }
+            T next = SortingMachine5k.this.heap[this.arrayCurrentIndex];
+            this.arrayCurrentIndex++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
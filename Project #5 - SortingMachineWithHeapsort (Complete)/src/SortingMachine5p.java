@@ -0,0 +1,774 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as an array that is sorted, on
+ * {@code changeToExtractionMode}, by a parallel merge sort run in a
+ * {@code ForkJoinPool}, or, for few entries, turned into a heap, with
+ * implementations of primary methods.
+ *
+ * <p>
+ * With at least {@code PARALLEL_THRESHOLD} entries, the array is sorted by a
+ * merge sort whose halves are sorted, and then merged, in parallel: stretches
+ * of at most {@code SEQUENTIAL_CUTOFF} entries are sorted with
+ * {@code Arrays.sort}, and the merges are themselves split in two around the
+ * middle entry of the longer run, so that the top merge does not serialize
+ * the whole sort. The sort alternates between the array and a scratch array
+ * of the same length, which is dropped once it is done. {@code removeFirst}
+ * then takes the entries from the front of the sorted array in constant time.
+ * With fewer entries, the cost of forking tasks would outweigh the gain, and
+ * the array is instead made into a heap as by {@code SortingMachine5a}.
+ * </p>
+ *
+ * <p>
+ * The pool defaults to {@code ForkJoinPool.commonPool()}, whose parallelism
+ * follows the number of processors; another pool, with a different
+ * parallelism, may be passed to the constructor.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * SUBTREE_IS_HEAP (
+ *   a: string of T,
+ *   start: integer,
+ *   stop: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  [the subtree of a (when a is interpreted as a complete binary tree) rooted
+ *   at index start and only through entry stop of a satisfies the heap
+ *   ordering property according to the relation r]
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * 0 <= $this.start <= $this.end <= |$this.entries|  and
+ * [the entries of $this.entries at [$this.start, $this.end) are not null,
+ *  and the others are null]  and
+ * if $this.insertionMode then
+ *   $this.start = 0  and  not $this.sorted
+ * else if $this.sorted then
+ *   [$this.entries[$this.start, $this.end) is sorted according to
+ *    [relation computed by $this.machineOrder.compare method]]
+ * else
+ *   $this.start = 0  and
+ *   SUBTREE_IS_HEAP($this.entries, 0, $this.end - 1,
+ *     [relation computed by $this.machineOrder.compare method])
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.entries[$this.start, $this.end)))
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class SortingMachine5p<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Least number of entries sorted in parallel rather than made into a heap.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /**
+     * Greatest number of entries sorted, or merged, by a single task without
+     * forking more.
+     */
+    private static final int SEQUENTIAL_CUTOFF = 1 << 13;
+
+    /**
+     * Length of the array of a new machine.
+     */
+    private static final int INITIAL_LENGTH = 16;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Pool that runs the parallel sort.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Whether the entries are sorted (rather than a heap) in extraction mode.
+     */
+    private boolean sorted;
+
+    /**
+     * Entries.
+     */
+    private T[] entries;
+
+    /**
+     * Index of the first entry.
+     */
+    private int start;
+
+    /**
+     * Index just past the last entry.
+     */
+    private int end;
+
+    /**
+     * Given an array that represents a complete binary tree and an index
+     * referring to the root of a subtree that would be a heap except for its
+     * root, sifts the root down to turn that whole subtree into a heap.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete binary tree
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * 0 <= top  and  last < |array|  and
+     * [the entries of array through last are not null]  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 1, last,
+     *     [relation computed by order.compare method])  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 2, last,
+     *     [relation computed by order.compare method])  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, top, last,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)  and
+     * [the entries of array outside the subtree are the same as in #array]
+     * </pre>
+     */
+    private static <T> void siftDown(T[] array, int top, int last,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
+        assert order != null : "Violation of: order is not null";
+        assert 0 <= top : "Violation of: 0 <= top";
+        assert last < array.length : "Violation of: last < |array|";
+
+        /*
+         * Impractical to check the other requires clauses. The hole left by
+         * the root's entry moves down to a leaf and the entry then moves back
+         * up to its place, as in SortingMachine5a.
+         */
+
+        T x = array[top];
+        int hole = top;
+        int child = 2 * hole + 1;
+        while (child <= last) {
+            if (child < last
+                    && order.compare(array[child], array[child + 1]) > 0) {
+                child++;
+            }
+            array[hole] = array[child];
+            hole = child;
+            child = 2 * hole + 1;
+        }
+        int parent = (hole - 1) / 2;
+        while (hole > top && order.compare(array[parent], x) > 0) {
+            array[hole] = array[parent];
+            hole = parent;
+            parent = (hole - 1) / 2;
+        }
+        array[hole] = x;
+    }
+
+    /**
+     * Returns the first index in {@code array[lo, hi)} of an entry that does
+     * not come before {@code x} (if {@code strict} is false), or that comes
+     * after {@code x} (if {@code strict} is true), or {@code hi} if there is
+     * none.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param lo
+     *            the first index of the range
+     * @param hi
+     *            the index just past the range
+     * @param x
+     *            the entry to look for
+     * @param strict
+     *            whether entries equal to {@code x} are skipped
+     * @param order
+     *            total preorder for sorting
+     * @return the index
+     * @requires <pre>
+     * 0 <= lo <= hi <= |array|  and
+     * [array[lo, hi) is sorted according to
+     *  [relation computed by order.compare method]]
+     * </pre>
+     * @ensures <pre>
+     * lo <= search <= hi  and
+     * [the entries of array[lo, search) come before x (or, if strict, do not
+     *  come after x), and the others of array[lo, hi) do not]
+     * </pre>
+     */
+    private static <T> int search(T[] array, int lo, int hi, T x,
+            boolean strict, Comparator<T> order) {
+        int low = lo;
+        int high = hi;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int c = order.compare(array[mid], x);
+            if (c < 0 || (strict && c == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Task that sorts a range of one array, leaving the result either in
+     * that array or in the same range of another.
+     *
+     * @param <T>
+     *            type of array entries
+     */
+    private static final class SortTask<T> extends RecursiveAction {
+
+        /**
+         * Serialization version; tasks are never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The array to sort.
+         */
+        private final T[] array;
+
+        /**
+         * The scratch array.
+         */
+        private final T[] scratch;
+
+        /**
+         * The first index of the range.
+         */
+        private final int lo;
+
+        /**
+         * The index just past the range.
+         */
+        private final int hi;
+
+        /**
+         * Whether the result goes in {@code scratch} rather than
+         * {@code array}.
+         */
+        private final boolean intoScratch;
+
+        /**
+         * The order.
+         */
+        private final Comparator<T> order;
+
+        /**
+         * Constructor.
+         *
+         * @param array
+         *            the array to sort
+         * @param scratch
+         *            the scratch array
+         * @param lo
+         *            the first index of the range
+         * @param hi
+         *            the index just past the range
+         * @param intoScratch
+         *            whether the result goes in {@code scratch}
+         * @param order
+         *            the order
+         */
+        SortTask(T[] array, T[] scratch, int lo, int hi, boolean intoScratch,
+                Comparator<T> order) {
+            this.array = array;
+            this.scratch = scratch;
+            this.lo = lo;
+            this.hi = hi;
+            this.intoScratch = intoScratch;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.hi - this.lo <= SEQUENTIAL_CUTOFF) {
+                Arrays.sort(this.array, this.lo, this.hi, this.order);
+                if (this.intoScratch) {
+                    System.arraycopy(this.array, this.lo, this.scratch,
+                            this.lo, this.hi - this.lo);
+                }
+            } else {
+                /*
+                 * The halves are sorted into the other array than this one's
+                 * result, and then merged from there into it.
+                 */
+                int mid = (this.lo + this.hi) >>> 1;
+                invokeAll(
+                        new SortTask<T>(this.array, this.scratch, this.lo, mid,
+                                !this.intoScratch, this.order),
+                        new SortTask<T>(this.array, this.scratch, mid, this.hi,
+                                !this.intoScratch, this.order));
+                T[] from = this.array;
+                T[] to = this.scratch;
+                if (!this.intoScratch) {
+                    from = this.scratch;
+                    to = this.array;
+                }
+                new MergeTask<T>(from, this.lo, mid, mid, this.hi, to, this.lo,
+                        this.order).compute();
+            }
+        }
+
+    }
+
+    /**
+     * Task that merges two sorted ranges of one array into another array,
+     * taking equal entries from the first range first.
+     *
+     * @param <T>
+     *            type of array entries
+     */
+    private static final class MergeTask<T> extends RecursiveAction {
+
+        /**
+         * Serialization version; tasks are never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The array holding both ranges.
+         */
+        private final T[] from;
+
+        /**
+         * The first index of the first range.
+         */
+        private final int lo1;
+
+        /**
+         * The index just past the first range.
+         */
+        private final int hi1;
+
+        /**
+         * The first index of the second range.
+         */
+        private final int lo2;
+
+        /**
+         * The index just past the second range.
+         */
+        private final int hi2;
+
+        /**
+         * The array to merge into.
+         */
+        private final T[] to;
+
+        /**
+         * The index in {@code to} of the first merged entry.
+         */
+        private final int out;
+
+        /**
+         * The order.
+         */
+        private final Comparator<T> order;
+
+        /**
+         * Constructor.
+         *
+         * @param from
+         *            the array holding both ranges
+         * @param lo1
+         *            the first index of the first range
+         * @param hi1
+         *            the index just past the first range
+         * @param lo2
+         *            the first index of the second range
+         * @param hi2
+         *            the index just past the second range
+         * @param to
+         *            the array to merge into
+         * @param out
+         *            the index in {@code to} of the first merged entry
+         * @param order
+         *            the order
+         */
+        MergeTask(T[] from, int lo1, int hi1, int lo2, int hi2, T[] to,
+                int out, Comparator<T> order) {
+            this.from = from;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.to = to;
+            this.out = out;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = this.hi1 - this.lo1;
+            int n2 = this.hi2 - this.lo2;
+            if (n1 + n2 <= SEQUENTIAL_CUTOFF) {
+                this.merge();
+            } else {
+                /*
+                 * The middle entry of the longer range splits it in two, and
+                 * a binary search splits the other range at the same entry;
+                 * the two lower parts and the two upper parts are then merged
+                 * independently.
+                 */
+                int m1;
+                int m2;
+                if (n1 >= n2) {
+                    m1 = (this.lo1 + this.hi1) >>> 1;
+                    m2 = search(this.from, this.lo2, this.hi2,
+                            this.from[m1], false, this.order);
+                } else {
+                    m2 = (this.lo2 + this.hi2) >>> 1;
+                    m1 = search(this.from, this.lo1, this.hi1,
+                            this.from[m2], true, this.order);
+                }
+                int split = this.out + (m1 - this.lo1) + (m2 - this.lo2);
+                invokeAll(
+                        new MergeTask<T>(this.from, this.lo1, m1, this.lo2, m2,
+                                this.to, this.out, this.order),
+                        new MergeTask<T>(this.from, m1, this.hi1, m2, this.hi2,
+                                this.to, split, this.order));
+            }
+        }
+
+        /**
+         * Merges the two ranges sequentially.
+         */
+        private void merge() {
+            int i = this.lo1;
+            int j = this.lo2;
+            int k = this.out;
+            while (i < this.hi1 && j < this.hi2) {
+                if (this.order.compare(this.from[j], this.from[i]) < 0) {
+                    this.to[k] = this.from[j];
+                    j++;
+                } else {
+                    this.to[k] = this.from[i];
+                    i++;
+                }
+                k++;
+            }
+            System.arraycopy(this.from, i, this.to, k, this.hi1 - i);
+            k += this.hi1 - i;
+            System.arraycopy(this.from, j, this.to, k, this.hi2 - j);
+        }
+
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation. Only the parts that take constant time are
+     * checked.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * 0 <= $this.start <= $this.end <= |$this.entries|  and
+     * if $this.insertionMode then
+     *   $this.start = 0  and  not $this.sorted
+     * else if not $this.sorted then
+     *   $this.start = 0
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert 0 <= this.start : "Violation of: 0 <= $this.start";
+        assert this.start <= this.end : ""
+                + "Violation of: $this.start <= $this.end";
+        assert this.end <= this.entries.length : ""
+                + "Violation of: $this.end <= |$this.entries|";
+        if (this.insertionMode) {
+            assert this.start == 0 && !this.sorted : ""
+                    + "Violation of: if $this.insertionMode then"
+                    + " $this.start = 0  and  not $this.sorted";
+        } else if (!this.sorted) {
+            assert this.start == 0 : ""
+                    + "Violation of: if not $this.insertionMode  and"
+                    + "  not $this.sorted then $this.start = 0";
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param sortPool
+     *            pool that runs the parallel sort
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.pool = sortPool  and
+     * not $this.sorted  and
+     * $this.start = 0  and  $this.end = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order, ForkJoinPool sortPool) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.pool = sortPool;
+        this.sorted = false;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.entries = (T[]) (new Object[INITIAL_LENGTH]);
+        this.start = 0;
+        this.end = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order, sorting in {@code ForkJoinPool.commonPool()}.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine5p(Comparator<T> order) {
+        this(order, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor from order and the pool that runs the parallel sort.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param pool
+     *            pool that runs the parallel sort
+     */
+    public SortingMachine5p(Comparator<T> order, ForkJoinPool pool) {
+        assert pool != null : "Violation of: pool is not null";
+        this.createNewRep(order, pool);
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass()
+                    .getConstructor(Comparator.class, ForkJoinPool.class)
+                    .newInstance(this.machineOrder, this.pool);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder, this.pool);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5p<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5p<?>";
+
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5p<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+
+        SortingMachine5p<T> localSource = (SortingMachine5p<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.pool = localSource.pool;
+        this.sorted = localSource.sorted;
+        this.entries = localSource.entries;
+        this.start = localSource.start;
+        this.end = localSource.end;
+        localSource.createNewRep(localSource.machineOrder, localSource.pool);
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.end == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries, 2 * this.end);
+        }
+        this.entries[this.end] = x;
+        this.end++;
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.end < PARALLEL_THRESHOLD) {
+            for (int top = this.end / 2 - 1; top >= 0; top--) {
+                siftDown(this.entries, top, this.end - 1, this.machineOrder);
+            }
+        } else {
+            T[] scratch = (T[]) (new Object[this.end]);
+            this.pool.invoke(new SortTask<T>(this.entries, scratch, 0,
+                    this.end, false, this.machineOrder));
+            this.sorted = true;
+        }
+        this.insertionMode = false;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T removed;
+        if (this.sorted) {
+            removed = this.entries[this.start];
+            this.entries[this.start] = null;
+            this.start++;
+        } else {
+            removed = this.entries[0];
+            this.end--;
+            this.entries[0] = this.entries[this.end];
+            this.entries[this.end] = null;
+            if (this.end > 0) {
+                siftDown(this.entries, 0, this.end - 1, this.machineOrder);
+            }
+        }
+        assert this.conventionHolds();
+        return removed;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        assert this.conventionHolds();
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        assert this.conventionHolds();
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        assert this.conventionHolds();
+        return this.end - this.start;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5pIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5p}.
+     */
+    private final class SortingMachine5pIterator implements Iterator<T> {
+
+        /**
+         * Index of the next entry to visit.
+         */
+        private int currentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5pIterator() {
+            this.currentIndex = SortingMachine5p.this.start;
+            assert SortingMachine5p.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            assert SortingMachine5p.this.conventionHolds();
+            return this.currentIndex < SortingMachine5p.this.end;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+
+                throw new NoSuchElementException();
+            }
+            T next = SortingMachine5p.this.entries[this.currentIndex];
+            this.currentIndex++;
+            assert SortingMachine5p.this.conventionHolds();
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,156 @@
+import java.util.Comparator;
+import java.util.Random;
+
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Timing harness for {@code SortingMachine5a}: adds a shuffled run of integers,
+ * switches to extraction mode, and removes every entry again, reporting the
+ * time and the number of comparisons per entry of the heap construction
+ * ({@code changeToExtractionMode}) and of {@code removeFirst}.
+ *
+ * <p>
+ * Floyd's construction should cost fewer than two comparisons per entry at
+ * every size, and {@code removeFirst} about log2(n) + O(1). Run with
+ * {@code java SortingMachine5aBenchmark}, without {@code -ea} (the assertions
+ * in {@code SortingMachine5a} check the whole heap); this is a plain
+ * {@code main} program, not a JUnit fixture.
+ * </p>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public final class SortingMachine5aBenchmark {
+
+    /**
+     * Numbers of entries to sort, one round each after the warm-up.
+     */
+    private static final int[] SIZES = {1000000, 2000000, 4000000};
+
+    /**
+     * Number of entries in each untimed warm-up round.
+     */
+    private static final int WARMUP_SIZE = 200000;
+
+    /**
+     * Number of untimed warm-up rounds.
+     */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Seed for the shuffle, so every run sees the same input.
+     */
+    private static final long SEED = 20240601L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Integer order that counts the comparisons made with it.
+     */
+    private static final class CountingOrder implements Comparator<Integer> {
+
+        /**
+         * Number of comparisons made so far.
+         */
+        private long count;
+
+        @Override
+        public int compare(Integer o1, Integer o2) {
+            this.count++;
+            return o1.compareTo(o2);
+        }
+
+    }
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SortingMachine5aBenchmark() {
+    }
+
+    /**
+     * Returns the integers 0 through {@code n} - 1 in a random order.
+     *
+     * @param n
+     *            the number of integers
+     * @return the shuffled integers
+     */
+    private static Integer[] shuffled(int n) {
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        Random random = new Random(SEED);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        return values;
+    }
+
+    /**
+     * Sorts {@code values} with a {@code SortingMachine5a} and, if
+     * {@code print}, prints the cost per entry of each phase.
+     *
+     * @param values
+     *            the entries to sort
+     * @param print
+     *            whether to print the results
+     */
+    private static void run(Integer[] values, boolean print) {
+        CountingOrder order = new CountingOrder();
+        SortingMachine<Integer> m = new SortingMachine5a<Integer>(order);
+        for (Integer x : values) {
+            m.add(x);
+        }
+        long start = System.nanoTime();
+        m.changeToExtractionMode();
+        long buildNanos = System.nanoTime() - start;
+        long buildComparisons = order.count;
+        order.count = 0;
+        start = System.nanoTime();
+        int expected = 0;
+        while (m.size() > 0) {
+            int x = m.removeFirst();
+            if (x != expected) {
+                throw new AssertionError("removeFirst returned " + x
+                        + " where " + expected + " was expected");
+            }
+            expected++;
+        }
+        long removeNanos = System.nanoTime() - start;
+        if (print) {
+            double n = values.length;
+            System.out.printf("%9d %10.1f %12.2f %10.1f %12.2f%n",
+                    values.length, buildNanos / NANOS_PER_MILLI,
+                    buildComparisons / n, removeNanos / NANOS_PER_MILLI,
+                    order.count / n);
+        }
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments; ignored
+     */
+    public static void main(String[] args) {
+        Integer[] warmup = shuffled(WARMUP_SIZE);
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            run(warmup, false);
+        }
+        System.out.println("(build: changeToExtractionMode; remove: removeFirst"
+                + " of every entry; cmp: comparisons per entry)");
+        System.out.printf("%9s %10s %12s %10s %12s%n", "entries", "build ms",
+                "build cmp", "remove ms", "remove cmp");
+        for (int n : SIZES) {
+            run(shuffled(n), true);
+        }
+    }
+
+}
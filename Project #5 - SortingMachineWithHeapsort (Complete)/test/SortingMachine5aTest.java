@@ -1,5 +1,7 @@
 import java.util.Comparator;
 
+import org.junit.Test;
+
 import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachine1L;
 
@@ -8,6 +10,12 @@ import components.sortingmachine.SortingMachine1L;
  */
 public final class SortingMachine5aTest extends SortingMachineTest {
 
+    /**
+     * Number of entries used by the large test; with assertions enabled, it
+     * only finishes quickly if checking the heap is not linear per call.
+     */
+    private static final int MANY_ENTRIES = 100000;
+
     @Override
     protected SortingMachine<String> constructorTest(Comparator<String> order) {
         return new SortingMachine5a<String>(order);
@@ -18,4 +26,15 @@ public final class SortingMachine5aTest extends SortingMachineTest {
         return new SortingMachine1L<String>(order);
     }
 
+    /**
+     * Testing .changeToExtractionMode() and .removeFirst() on many entries,
+     * added in an order that leaves the heap little sorted.
+     */
+    @Test
+    public final void testRemoveFirstManyEntries() {
+        checkRemoveFirstInOrder(
+                new SortingMachine5a<Integer>(Comparator.naturalOrder()),
+                MANY_ENTRIES);
+    }
+
 }
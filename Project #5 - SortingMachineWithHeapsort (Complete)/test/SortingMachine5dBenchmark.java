@@ -0,0 +1,260 @@
+import java.util.Comparator;
+import java.util.Random;
+
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Timing harness comparing {@code SortingMachine5a} with
+ * {@code SortingMachine5d} of several heap arities: for each number of entries
+ * and each kind of entry, adds a shuffled run of distinct entries, switches to
+ * extraction mode, and removes every entry again, reporting the time taken by
+ * {@code changeToExtractionMode} and by all the {@code removeFirst}s, and the
+ * number of comparisons per entry.
+ *
+ * <p>
+ * Two kinds of entry bracket the cost of a comparison: {@code Integer}s,
+ * which compare in a few instructions, so that the time is dominated by
+ * memory traffic; and {@code String}s sharing a long common prefix, which
+ * compare slowly, so that the time follows the number of comparisons. Run
+ * with {@code java -Xmx2g SortingMachine5dBenchmark}, without {@code -ea};
+ * this is a plain {@code main} program, not a JUnit fixture.
+ * </p>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public final class SortingMachine5dBenchmark {
+
+    /**
+     * Numbers of entries to sort.
+     */
+    private static final int[] SIZES = {100000, 1000000, 2000000};
+
+    /**
+     * Heap arities of the {@code SortingMachine5d}s to time.
+     */
+    private static final int[] ARITIES = {2, 4, 8, 16};
+
+    /**
+     * Prefix shared by every {@code String} entry, which makes comparing two
+     * of them slow.
+     */
+    private static final String PREFIX = ""
+            + "an-expensive-to-compare-common-prefix-"
+            + "an-expensive-to-compare-common-prefix-";
+
+    /**
+     * Number of entries in each untimed warm-up round.
+     */
+    private static final int WARMUP_SIZE = 200000;
+
+    /**
+     * Number of untimed warm-up rounds.
+     */
+    private static final int WARMUP_ROUNDS = 2;
+
+    /**
+     * Seed for the shuffle, so every run sees the same input.
+     */
+    private static final long SEED = 20240601L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Order that counts the comparisons made with it.
+     *
+     * @param <T>
+     *            type of entries compared
+     */
+    private static final class CountingOrder<T extends Comparable<T>>
+            implements Comparator<T> {
+
+        /**
+         * Number of comparisons made so far.
+         */
+        private long count;
+
+        @Override
+        public int compare(T o1, T o2) {
+            this.count++;
+            return o1.compareTo(o2);
+        }
+
+    }
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SortingMachine5dBenchmark() {
+    }
+
+    /**
+     * Returns the integers 0 through {@code n} - 1 in a random order.
+     *
+     * @param n
+     *            the number of integers
+     * @return the shuffled integers
+     */
+    private static int[] shuffled(int n) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        Random random = new Random(SEED);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the {@code Integer}s of {@code values}.
+     *
+     * @param values
+     *            the values
+     * @return the entries
+     */
+    private static Integer[] integers(int[] values) {
+        Integer[] entries = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            entries[i] = values[i];
+        }
+        return entries;
+    }
+
+    /**
+     * Returns {@code String}s of {@code values} behind {@code PREFIX}, padded
+     * so that they sort in the same order as the values.
+     *
+     * @param values
+     *            the values
+     * @return the entries
+     */
+    private static String[] strings(int[] values) {
+        String[] entries = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            entries[i] = PREFIX + String.format("%010d", values[i]);
+        }
+        return entries;
+    }
+
+    /**
+     * Returns a new, empty machine of the given arity ({@code SortingMachine5a}
+     * for arity 0) using {@code order}.
+     *
+     * @param <T>
+     *            type of entries
+     * @param arity
+     *            the heap arity, or 0 for {@code SortingMachine5a}
+     * @param order
+     *            the order
+     * @return the new machine
+     */
+    private static <T> SortingMachine<T> newMachine(int arity,
+            Comparator<T> order) {
+        SortingMachine<T> m;
+        if (arity == 0) {
+            m = new SortingMachine5a<T>(order);
+        } else {
+            m = new SortingMachine5d<T>(order, arity);
+        }
+        return m;
+    }
+
+    /**
+     * Sorts {@code entries} with a new machine of the given arity and, if
+     * {@code label} is not null, prints the cost of each phase.
+     *
+     * @param <T>
+     *            type of entries
+     * @param label
+     *            the label to print, or null not to print
+     * @param arity
+     *            the heap arity, or 0 for {@code SortingMachine5a}
+     * @param entries
+     *            the entries to sort
+     */
+    private static <T extends Comparable<T>> void run(String label, int arity,
+            T[] entries) {
+        CountingOrder<T> order = new CountingOrder<T>();
+        SortingMachine<T> m = newMachine(arity, order);
+        for (T x : entries) {
+            m.add(x);
+        }
+        long start = System.nanoTime();
+        m.changeToExtractionMode();
+        long buildNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        T previous = m.removeFirst();
+        while (m.size() > 0) {
+            T x = m.removeFirst();
+            if (previous.compareTo(x) > 0) {
+                throw new AssertionError("removeFirst out of order");
+            }
+            previous = x;
+        }
+        long removeNanos = System.nanoTime() - start;
+        if (label != null) {
+            String name = "5a";
+            if (arity != 0) {
+                name = "5d/" + arity;
+            }
+            System.out.printf("%-8s %9d %-6s %10.1f %10.1f %8.2f%n", label,
+                    entries.length, name, buildNanos / NANOS_PER_MILLI,
+                    removeNanos / NANOS_PER_MILLI,
+                    (double) order.count / entries.length);
+        }
+    }
+
+    /**
+     * Runs every machine on {@code entries}, labelling the results with
+     * {@code label}.
+     *
+     * @param <T>
+     *            type of entries
+     * @param label
+     *            the label to print
+     * @param entries
+     *            the entries to sort
+     */
+    private static <T extends Comparable<T>> void runAll(String label,
+            T[] entries) {
+        run(label, 0, entries);
+        for (int arity : ARITIES) {
+            run(label, arity, entries);
+        }
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments; ignored
+     */
+    public static void main(String[] args) {
+        int[] warmup = shuffled(WARMUP_SIZE);
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            run(null, 0, integers(warmup));
+            for (int arity : ARITIES) {
+                run(null, arity, integers(warmup));
+                run(null, arity, strings(warmup));
+            }
+        }
+        System.out.println("(build: changeToExtractionMode; remove: removeFirst"
+                + " of every entry; cmp: comparisons per entry)");
+        System.out.printf("%-8s %9s %-6s %10s %10s %8s%n", "entries", "count",
+                "heap", "build ms", "remove ms", "cmp");
+        for (int n : SIZES) {
+            int[] values = shuffled(n);
+            runAll("Integer", integers(values));
+            runAll("String", strings(values));
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5d} using the default
+ * heap arity (4).
+ */
+public final class SortingMachine5dTest extends SortingMachineTest {
+
+    /**
+     * Number of entries used by the large test.
+     */
+    private static final int MANY_ENTRIES = 100000;
+
+    /**
+     * Heap arities tried by the large test.
+     */
+    private static final int[] ARITIES = {2, 3, 4, 8, 16};
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5d<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Testing .arity() of the default constructor and of .newInstance().
+     */
+    @Test
+    public final void testArity() {
+        final int arity = 8;
+        SortingMachine5d<String> m = new SortingMachine5d<String>(
+                Comparator.naturalOrder());
+        SortingMachine5d<String> m8 = new SortingMachine5d<String>(
+                Comparator.naturalOrder(), arity);
+        assertEquals(4, m.arity());
+        assertEquals(arity,
+                ((SortingMachine5d<String>) m8.newInstance()).arity());
+    }
+
+    /**
+     * Testing .removeFirst() with an arity so large that the index of the
+     * first child of every entry but the root passes the greatest int.
+     */
+    @Test
+    public final void testRemoveFirstHugeArity() {
+        final int arity = 1 << 30;
+        SortingMachine<Integer> m = new SortingMachine5d<Integer>(
+                Comparator.naturalOrder(), arity);
+        for (int x : new int[] {4, 2, 5, 1, 3}) {
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(Integer.valueOf(i), m.removeFirst());
+        }
+    }
+
+    /**
+     * Testing .changeToExtractionMode() and .removeFirst() on many entries,
+     * for several heap arities.
+     */
+    @Test
+    public final void testRemoveFirstManyEntries() {
+        for (int arity : ARITIES) {
+            checkRemoveFirstInOrder(new SortingMachine5d<Integer>(
+                    Comparator.naturalOrder(), arity), MANY_ENTRIES);
+        }
+    }
+
+}
@@ -0,0 +1,304 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5e}, using a run
+ * length so short that the inherited tests spill to run files, along with
+ * tests of partly extracted machines and of merging in more than one pass.
+ */
+public final class SortingMachine5eTest extends SortingMachineTest {
+
+    /**
+     * Run length of the machines used by the inherited tests.
+     */
+    private static final int TEST_RUN_LENGTH = 2;
+
+    /**
+     * Number of entries added by the large test.
+     */
+    private static final int MANY_ENTRIES = 100000;
+
+    /**
+     * Run length of the large test, short enough to leave more runs than can
+     * be merged at once.
+     */
+    private static final int MANY_RUN_LENGTH = 100;
+
+    /**
+     * {@code Serializer} of {@code Integer}s.
+     */
+    private static final class IntegerSerializer
+            implements SortingMachine5e.Serializer<Integer> {
+
+        @Override
+        public void write(DataOutput out, Integer x) throws IOException {
+            out.writeInt(x);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+
+    }
+
+    /**
+     * {@code Serializer} of {@code Integer}s that fails once it has written,
+     * or read, a given number of entries.
+     */
+    private static final class FailingSerializer
+            implements SortingMachine5e.Serializer<Integer> {
+
+        /**
+         * Number of entries left to write before writing fails.
+         */
+        private int writesLeft = Integer.MAX_VALUE;
+
+        /**
+         * Number of entries left to read before reading fails.
+         */
+        private int readsLeft = Integer.MAX_VALUE;
+
+        @Override
+        public void write(DataOutput out, Integer x) throws IOException {
+            if (this.writesLeft == 0) {
+                throw new IOException("write failure");
+            }
+            this.writesLeft--;
+            out.writeInt(x);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            if (this.readsLeft == 0) {
+                throw new IOException("read failure");
+            }
+            this.readsLeft--;
+            return in.readInt();
+        }
+
+    }
+
+    /**
+     * Returns the number of run files in the temporary-file directory.
+     *
+     * @return the number of run files
+     */
+    private static int runFileCount() {
+        File[] files = new File(System.getProperty("java.io.tmpdir"))
+                .listFiles((dir, name) -> name.startsWith("SortingMachine5e")
+                        && name.endsWith(".run"));
+        return files.length;
+    }
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5e<String>(order,
+                new SortingMachine5e.StringSerializer(), TEST_RUN_LENGTH);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Testing .removeFirst() partway through the runs, comparing what is left
+     * (read back by the iterator) with the reference.
+     */
+    @Test
+    public final void testRemoveFirstPartway() {
+        SortingMachine<String> m = this.constructorTest(
+                Comparator.naturalOrder());
+        SortingMachine<String> mExpected = this.constructorRef(
+                Comparator.naturalOrder());
+        for (String x : new String[] {"red", "green", "blue", "yellow",
+                "black", "white", "orange"}) {
+            m.add(x);
+            mExpected.add(x);
+        }
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        assertEquals(mExpected, m);
+        assertEquals("black", m.removeFirst());
+        assertEquals("blue", m.removeFirst());
+        assertEquals("green", m.removeFirst());
+        mExpected.removeFirst();
+        mExpected.removeFirst();
+        mExpected.removeFirst();
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .removeFirst() and .clear() after iterators are abandoned partway
+     * through a run.
+     */
+    @Test
+    public final void testRemoveFirstAfterAbandonedIterator() {
+        SortingMachine<String> m = this.constructorTest(
+                Comparator.naturalOrder());
+        SortingMachine<String> mExpected = this.constructorRef(
+                Comparator.naturalOrder());
+        for (String x : new String[] {"red", "green", "blue", "yellow",
+                "black", "white", "orange"}) {
+            m.add(x);
+            mExpected.add(x);
+        }
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        Iterator<String> it = m.iterator();
+        it.next();
+        it.next();
+        assertEquals(mExpected.removeFirst(), m.removeFirst());
+        assertTrue(m.iterator().hasNext());
+        assertEquals(mExpected.removeFirst(), m.removeFirst());
+        assertEquals(mExpected, m);
+        assertTrue(m.iterator().hasNext());
+        m.clear();
+        mExpected.clear();
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .clear() of a machine that has spilled runs.
+     */
+    @Test
+    public final void testClearAfterSpill() {
+        SortingMachine<String> m = this.constructorTest(
+                Comparator.naturalOrder());
+        SortingMachine<String> mExpected = this.constructorRef(
+                Comparator.naturalOrder());
+        m.add("c");
+        m.add("b");
+        m.add("a");
+        m.clear();
+        m.add("d");
+        mExpected.add("d");
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .removeFirst() of many entries, added in an order that is far
+     * from sorted, with a run length that needs more than one merge pass.
+     */
+    @Test
+    public final void testRemoveFirstManyEntries() {
+        checkRemoveFirstInOrder(new SortingMachine5e<Integer>(
+                Comparator.naturalOrder(), new IntegerSerializer(),
+                MANY_RUN_LENGTH), MANY_ENTRIES);
+    }
+
+    /**
+     * Testing .add() when spilling the buffer fails, which leaves the entries
+     * in the buffer.
+     */
+    @Test
+    public final void testAddSpillFailure() {
+        FailingSerializer serializer = new FailingSerializer();
+        SortingMachine<Integer> m = new SortingMachine5e<Integer>(
+                Comparator.naturalOrder(), serializer, 2);
+        SortingMachine<Integer> mExpected = new SortingMachine1L<Integer>(
+                Comparator.naturalOrder());
+        m.add(3);
+        m.add(2);
+        mExpected.add(3);
+        mExpected.add(2);
+        int files = runFileCount();
+        serializer.writesLeft = 1;
+        try {
+            m.add(1);
+            fail("add did not report the write failure");
+        } catch (UncheckedIOException e) {
+            assertEquals(files, runFileCount());
+        }
+        assertEquals(mExpected, m);
+        serializer.writesLeft = Integer.MAX_VALUE;
+        m.add(1);
+        mExpected.add(1);
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .changeToExtractionMode() when reading fails partway through
+     * merging runs, which leaves this in insertion mode with every entry.
+     */
+    @Test
+    public final void testChangeToExtractionModeMergeFailure() {
+        final int runs = 70;
+        final int readsBeforeFailure = 80;
+        FailingSerializer serializer = new FailingSerializer();
+        SortingMachine<Integer> m = new SortingMachine5e<Integer>(
+                Comparator.naturalOrder(), serializer, 2);
+        SortingMachine<Integer> mExpected = new SortingMachine1L<Integer>(
+                Comparator.naturalOrder());
+        for (int i = 0; i < 2 * runs; i++) {
+            m.add(i % runs);
+            mExpected.add(i % runs);
+        }
+        int files = runFileCount();
+        serializer.readsLeft = readsBeforeFailure;
+        try {
+            m.changeToExtractionMode();
+            fail("changeToExtractionMode did not report the read failure");
+        } catch (UncheckedIOException e) {
+            assertEquals(files + 1, runFileCount());
+        }
+        assertTrue(m.isInInsertionMode());
+        serializer.readsLeft = Integer.MAX_VALUE;
+        assertEquals(mExpected, m);
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+    /**
+     * Testing .changeToExtractionMode() when opening the runs fails, which
+     * leaves this in insertion mode with every entry.
+     */
+    @Test
+    public final void testChangeToExtractionModeOpenFailure() {
+        FailingSerializer serializer = new FailingSerializer();
+        SortingMachine<Integer> m = new SortingMachine5e<Integer>(
+                Comparator.naturalOrder(), serializer, 2);
+        SortingMachine<Integer> mExpected = new SortingMachine1L<Integer>(
+                Comparator.naturalOrder());
+        for (int x : new int[] {5, 3, 1, 4, 2, 6}) {
+            m.add(x);
+            mExpected.add(x);
+        }
+        serializer.readsLeft = 1;
+        try {
+            m.changeToExtractionMode();
+            fail("changeToExtractionMode did not report the read failure");
+        } catch (UncheckedIOException e) {
+            assertTrue(m.isInInsertionMode());
+        }
+        serializer.readsLeft = Integer.MAX_VALUE;
+        assertEquals(mExpected, m);
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        assertFalse(m.isInInsertionMode());
+        assertEquals(mExpected, m);
+    }
+
+}
@@ -0,0 +1,122 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5k}, using a
+ * capacity larger than any of the inherited tests needs (so that those see an
+ * unbounded {@code SortingMachine}), along with tests of the bound itself.
+ */
+public final class SortingMachine5kTest extends SortingMachineTest {
+
+    /**
+     * Capacity of the machines used by the inherited tests.
+     */
+    private static final int TEST_CAPACITY = 100;
+
+    /**
+     * Number of entries added by the large test.
+     */
+    private static final int MANY_ENTRIES = 100000;
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5k<String>(order, TEST_CAPACITY);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Testing .capacity() of a new machine and of .newInstance().
+     */
+    @Test
+    public final void testCapacity() {
+        final int capacity = 3;
+        SortingMachine5k<String> m = new SortingMachine5k<String>(
+                Comparator.naturalOrder(), capacity);
+        assertEquals(capacity, m.capacity());
+        assertEquals(capacity,
+                ((SortingMachine5k<String>) m.newInstance()).capacity());
+    }
+
+    /**
+     * Testing .add() beyond the capacity, which keeps the entries that come
+     * first in order.
+     */
+    @Test
+    public final void testAddBeyondCapacity() {
+        final int capacity = 3;
+        SortingMachine<String> m = new SortingMachine5k<String>(
+                Comparator.naturalOrder(), capacity);
+        SortingMachine<String> mExpected = new SortingMachine1L<String>(
+                Comparator.naturalOrder());
+        for (String x : new String[] {"red", "green", "blue", "yellow",
+                "black", "white"}) {
+            m.add(x);
+        }
+        mExpected.add("black");
+        mExpected.add("blue");
+        mExpected.add("green");
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Testing .add() of equal entries beyond the capacity.
+     */
+    @Test
+    public final void testAddEqualBeyondCapacity() {
+        final int capacity = 2;
+        SortingMachine<String> m = new SortingMachine5k<String>(
+                Comparator.naturalOrder(), capacity);
+        m.add("b");
+        m.add("a");
+        m.add("b");
+        m.add("b");
+        m.changeToExtractionMode();
+        assertEquals(capacity, m.size());
+        assertEquals("a", m.removeFirst());
+        assertEquals("b", m.removeFirst());
+    }
+
+    /**
+     * Testing a capacity of one.
+     */
+    @Test
+    public final void testCapacityOne() {
+        SortingMachine<String> m = new SortingMachine5k<String>(
+                Comparator.naturalOrder(), 1);
+        m.add("green");
+        m.add("red");
+        m.add("blue");
+        assertEquals(1, m.size());
+        m.changeToExtractionMode();
+        assertEquals("blue", m.removeFirst());
+        assertEquals(0, m.size());
+    }
+
+    /**
+     * Testing the top 100 of many entries, added in an order that is far from
+     * sorted, in decreasing order.
+     */
+    @Test
+    public final void testTopOfManyEntries() {
+        SortingMachine<Integer> m = new SortingMachine5k<Integer>(
+                Comparator.reverseOrder(), TEST_CAPACITY);
+        addScrambled(m, MANY_ENTRIES);
+        assertEquals(TEST_CAPACITY, m.size());
+        m.changeToExtractionMode();
+        for (int i = 1; i <= TEST_CAPACITY; i++) {
+            assertEquals(Integer.valueOf(MANY_ENTRIES - i), m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+}
@@ -0,0 +1,166 @@
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Timing harness comparing {@code SortingMachine5a} with
+ * {@code SortingMachine5p} sorting in pools of increasing parallelism: for
+ * each number of entries, adds a shuffled run of distinct {@code Integer}s,
+ * switches to extraction mode, and removes every entry again, reporting the
+ * time taken by {@code changeToExtractionMode} and by all the
+ * {@code removeFirst}s, and the throughput, in millions of entries sorted per
+ * second, of the two together.
+ *
+ * <p>
+ * The parallelism doubles from 1 up to the number of available processors
+ * (which is always included), so the rows show how the sort scales with the
+ * number of cores. Run with {@code java -Xmx2g SortingMachine5pBenchmark},
+ * without {@code -ea}; this is a plain {@code main} program, not a JUnit
+ * fixture.
+ * </p>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public final class SortingMachine5pBenchmark {
+
+    /**
+     * Numbers of entries to sort.
+     */
+    private static final int[] SIZES = {1000000, 4000000};
+
+    /**
+     * Number of entries in each untimed warm-up round.
+     */
+    private static final int WARMUP_SIZE = 200000;
+
+    /**
+     * Number of untimed warm-up rounds.
+     */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Seed for the shuffle, so every run sees the same input.
+     */
+    private static final long SEED = 20240601L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SortingMachine5pBenchmark() {
+    }
+
+    /**
+     * Returns the integers 0 through {@code n} - 1 in a random order.
+     *
+     * @param n
+     *            the number of integers
+     * @return the shuffled integers
+     */
+    private static Integer[] shuffled(int n) {
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        Random random = new Random(SEED);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        return values;
+    }
+
+    /**
+     * Sorts {@code values} with a new machine, a {@code SortingMachine5a} if
+     * {@code pool} is null and otherwise a {@code SortingMachine5p} sorting in
+     * {@code pool}, and, if {@code label} is not null, prints the cost of each
+     * phase.
+     *
+     * @param label
+     *            the label to print, or null not to print
+     * @param pool
+     *            the pool, or null for {@code SortingMachine5a}
+     * @param values
+     *            the entries to sort
+     */
+    private static void run(String label, ForkJoinPool pool,
+            Integer[] values) {
+        Comparator<Integer> order = Comparator.naturalOrder();
+        SortingMachine<Integer> m;
+        if (pool == null) {
+            m = new SortingMachine5a<Integer>(order);
+        } else {
+            m = new SortingMachine5p<Integer>(order, pool);
+        }
+        for (Integer x : values) {
+            m.add(x);
+        }
+        long start = System.nanoTime();
+        m.changeToExtractionMode();
+        long buildNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        int expected = 0;
+        while (m.size() > 0) {
+            int x = m.removeFirst();
+            if (x != expected) {
+                throw new AssertionError("removeFirst returned " + x
+                        + " where " + expected + " was expected");
+            }
+            expected++;
+        }
+        long removeNanos = System.nanoTime() - start;
+        if (label != null) {
+            double totalMillis = (buildNanos + removeNanos) / NANOS_PER_MILLI;
+            System.out.printf("%9d %-6s %10.1f %10.1f %12.2f%n",
+                    values.length, label, buildNanos / NANOS_PER_MILLI,
+                    removeNanos / NANOS_PER_MILLI,
+                    values.length / totalMillis / 1000);
+        }
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments; ignored
+     */
+    public static void main(String[] args) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        Integer[] warmup = shuffled(WARMUP_SIZE);
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            run(null, null, warmup);
+            run(null, ForkJoinPool.commonPool(), warmup);
+        }
+        System.out.println("(" + processors + " processors; build:"
+                + " changeToExtractionMode; remove: removeFirst of every"
+                + " entry; Mops/s: millions of entries per second)");
+        System.out.printf("%9s %-6s %10s %10s %12s%n", "entries", "sort",
+                "build ms", "remove ms", "Mops/s");
+        for (int n : SIZES) {
+            Integer[] values = shuffled(n);
+            run("5a", null, values);
+            int parallelism = 1;
+            while (parallelism <= processors) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                run("5p/" + parallelism, pool, values);
+                pool.shutdown();
+                if (parallelism < processors
+                        && 2 * parallelism > processors) {
+                    parallelism = processors;
+                } else {
+                    parallelism *= 2;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5p}, along with tests
+ * with enough entries to be sorted in parallel.
+ */
+public final class SortingMachine5pTest extends SortingMachineTest {
+
+    /**
+     * Number of entries added by the large tests, which is enough for them to
+     * be sorted in parallel.
+     */
+    private static final int MANY_ENTRIES = 100000;
+
+    /**
+     * Number of distinct entries added by the test with duplicates.
+     */
+    private static final int DISTINCT_ENTRIES = 1000;
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5p<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Testing .removeFirst() of many entries, sorted in the common pool.
+     */
+    @Test
+    public final void testRemoveFirstManyEntries() {
+        checkRemoveFirstInOrder(
+                new SortingMachine5p<Integer>(Comparator.naturalOrder()),
+                MANY_ENTRIES);
+    }
+
+    /**
+     * Testing .removeFirst() of many entries, sorted in a pool of a given
+     * parallelism.
+     */
+    @Test
+    public final void testRemoveFirstManyEntriesPool() {
+        final int parallelism = 3;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            checkRemoveFirstInOrder(new SortingMachine5p<Integer>(
+                    Comparator.naturalOrder(), pool), MANY_ENTRIES);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Testing .removeFirst() of many entries with many duplicates, in
+     * decreasing order.
+     */
+    @Test
+    public final void testRemoveFirstManyDuplicates() {
+        SortingMachine<Integer> m = new SortingMachine5p<Integer>(
+                Comparator.reverseOrder());
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            m.add(i % DISTINCT_ENTRIES);
+        }
+        m.changeToExtractionMode();
+        final int copies = MANY_ENTRIES / DISTINCT_ENTRIES;
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            assertEquals(Integer.valueOf(DISTINCT_ENTRIES - 1 - i / copies),
+                    m.removeFirst());
+        }
+    }
+
+    /**
+     * Testing .newInstance() and .iterator() after sorting many entries.
+     */
+    @Test
+    public final void testIteratorManyEntries() {
+        SortingMachine<String> m = this.constructorTest(
+                Comparator.naturalOrder());
+        SortingMachine<String> mExpected = this.constructorRef(
+                Comparator.naturalOrder());
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            String x = Integer.toString(i);
+            m.add(x);
+            mExpected.add(x);
+        }
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        m.removeFirst();
+        mExpected.removeFirst();
+        assertEquals(mExpected, m);
+        assertEquals(mExpected.newInstance(), m.newInstance());
+    }
+
+}
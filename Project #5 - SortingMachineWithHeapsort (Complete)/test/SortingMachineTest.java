@@ -117,6 +117,61 @@ public abstract class SortingMachineTest {
      */
     private static final StringLT ORDER = new StringLT();
 
+    /**
+     * Prime step of the order in which {@code addScrambled} adds entries.
+     */
+    private static final int SCRAMBLE_STEP = 7919;
+
+    /**
+     * Adds the entries 0 through {@code n} - 1 to {@code m}, in the order far
+     * from sorted in which entry i is the (i * {@code SCRAMBLE_STEP} mod
+     * {@code n})-th one added.
+     *
+     * @param m
+     *            the machine to add the entries to
+     * @param n
+     *            the number of entries
+     * @updates m
+     * @requires <pre>
+     * m.insertion_mode  and  n > 0  and
+     * [n is not a multiple of SCRAMBLE_STEP]
+     * </pre>
+     * @ensures m.contents = #m.contents union {0, 1, ..., n - 1}
+     */
+    protected static void addScrambled(SortingMachine<Integer> m, int n) {
+        for (int i = 0; i < n; i++) {
+            m.add((int) ((long) i * SCRAMBLE_STEP % n));
+        }
+    }
+
+    /**
+     * Adds the entries 0 through {@code n} - 1 to the empty {@code m} with
+     * {@code addScrambled}, changes it to extraction mode, and checks that
+     * they are removed in increasing order.
+     *
+     * @param m
+     *            the machine to check, ordered by {@code Integer}'s natural
+     *            order
+     * @param n
+     *            the number of entries
+     * @updates m
+     * @requires <pre>
+     * m = (true, [natural order of Integer], {})  and  n > 0  and
+     * [n is not a multiple of SCRAMBLE_STEP]
+     * </pre>
+     * @ensures m = (false, [natural order of Integer], {})
+     */
+    protected static void checkRemoveFirstInOrder(SortingMachine<Integer> m,
+            int n) {
+        addScrambled(m, n);
+        m.changeToExtractionMode();
+        assertEquals(n, m.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(Integer.valueOf(i), m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
     /*
      * Complete and Systematic Test Cases:
      */
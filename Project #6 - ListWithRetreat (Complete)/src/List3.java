@@ -9,7 +9,27 @@ import components.list.ListSecondary;
  * implementations of primary methods and {@code retreat} secondary method.
  *
  * <p>
- * Execution-time performance of all methods implemented in this class is O(1).
+ * Execution-time performance of all methods implemented in this class is O(1),
+ * except for {@code moveTo}. {@code append}, {@code prepend}, and
+ * {@code splice} of another {@code List3} relink its nodes into this one
+ * without visiting them. {@code moveTo} walks from whichever of the start, the
+ * current position, and the finish is nearest to the new position, or, when
+ * that is far, builds an index of the nodes by position (in time linear in the
+ * length), which later calls use in O(1) time until an entry is added or
+ * removed. {@code rightFront} and {@code replaceRightFront} read and write the
+ * entry in place, so they keep the index.
+ * </p>
+ *
+ * <p>
+ * Checking the whole doubly linked list takes time linear in its length, so
+ * with assertions enabled the checks of the representation are sampled: every
+ * method checks the constant-time parts of the convention and the links of the
+ * nodes around $this.lastLeft, which are the only ones a method changes, but
+ * walks the whole list only once every ($this.leftLength + $this.rightLength
+ * + 1) calls, which keeps the cost of checking constant per call, amortized.
+ * Running with the system property {@code List3.fullChecks} set to
+ * {@code true} (and assertions enabled) walks the whole list on every call
+ * instead, as a debugging aid that makes iteration take quadratic time.
  * </p>
  *
  * @param <T>
@@ -28,7 +48,11 @@ import components.list.ListSecondary;
  * [for every node n in the doubly linked list of nodes, except the one
  *  pointed to by $this.preStart, n.previous.next = n]  and
  * [for every node n in the doubly linked list of nodes, except the one
- *  pointed to by $this.postFinish, n.next.previous = n]
+ *  pointed to by $this.postFinish, n.next.previous = n]  and
+ * [$this.index is null, or |$this.index| =
+ *  $this.leftLength + $this.rightLength + 1 and, for every i with
+ *  0 <= i < |$this.index|, $this.index[i] points to the (i + 1)-th node in
+ *  that doubly linked list]
  * </pre>
  * @correspondence <pre>
  * this =
@@ -43,6 +67,20 @@ import components.list.ListSecondary;
  */
 public class List3<T> extends ListSecondary<T> {
 
+    /**
+     * Whether {@code conventionHolds} walks the whole doubly linked list, and
+     * checks $this.index against it, on every call, rather than once every
+     * ($this.leftLength + $this.rightLength + 1) calls.
+     */
+    private static final boolean FULL_CHECKS = Boolean
+            .getBoolean("List3.fullChecks");
+
+    /**
+     * {@code moveTo} walks rather than building the index if the walk is no
+     * longer than the length divided by this.
+     */
+    private static final int INDEX_FRACTION = 8;
+
     /**
      * Node class for doubly linked list nodes.
      */
@@ -92,9 +130,26 @@ public class List3<T> extends ListSecondary<T> {
      */
     private int rightLength;
 
+    /**
+     * Number of calls to {@code conventionHolds} left before the next one
+     * walks the whole list; only used when assertions are enabled.
+     */
+    private int checksUntilFull;
+
+    /**
+     * Nodes of the doubly linked list by position, from $this.preStart up to
+     * the node before $this.postFinish, or null if they have not been indexed
+     * since the last entry was added or removed.
+     */
+    private Node[] index;
+
     /**
      * Checks that the part of the convention repeated below holds for the
-     * current representation.
+     * current representation. The parts that take constant time, and the
+     * links of the nodes next to $this.lastLeft, are checked on every call;
+     * the rest only on every call in full-checks mode, and otherwise once
+     * every ($this.leftLength + $this.rightLength + 1) calls (see the class
+     * comment).
      *
      * @return true if the convention holds (or if assertion checking is off);
      *         otherwise reports a violated assertion
@@ -112,7 +167,11 @@ public class List3<T> extends ListSecondary<T> {
      * [for every node n in the doubly linked list of nodes, except the one
      *  pointed to by $this.preStart, n.previous.next = n]  and
      * [for every node n in the doubly linked list of nodes, except the one
-     *  pointed to by $this.postFinish, n.next.previous = n]
+     *  pointed to by $this.postFinish, n.next.previous = n]  and
+     * [$this.index is null, or |$this.index| =
+     *  $this.leftLength + $this.rightLength + 1 and, for every i with
+     *  0 <= i < |$this.index|, $this.index[i] points to the (i + 1)-th node
+     *  in that doubly linked list]
      * </pre>
      */
     private boolean conventionHolds() {
@@ -122,11 +181,74 @@ public class List3<T> extends ListSecondary<T> {
         assert this.lastLeft != null : "Violation of: $this.lastLeft is not null";
         assert this.postFinish != null : "Violation of: $this.postFinish is not null";
 
+        /*
+         * Check the links around $this.lastLeft, and that it is at either end
+         * of the list exactly when one of the strings is empty
+         */
+        assert (this.lastLeft.next != null)
+                && (this.lastLeft.next.previous == this.lastLeft) : ""
+                        + "Violation of: [for every node n in the doubly linked"
+                        + " list of nodes, except the one pointed to by"
+                        + " $this.postFinish, n.next.previous = n]";
+        assert (this.lastLeft == this.preStart)
+                || (this.lastLeft.previous.next == this.lastLeft) : ""
+                        + "Violation of: [for every node n in the doubly linked"
+                        + " list of nodes, except the one pointed to by"
+                        + " $this.preStart, n.previous.next = n]";
+        assert (this.leftLength == 0) == (this.lastLeft == this.preStart) : ""
+                + "Violation of: [$this.lastLeft points to the"
+                + " ($this.leftLength + 1)-th node in that doubly linked list]";
+        assert (this.rightLength == 0)
+                == (this.lastLeft.next == this.postFinish) : ""
+                        + "Violation of: [$this.postFinish points to the last"
+                        + " node in that doubly linked list]";
+        assert (this.index == null) || (this.index.length == this.leftLength
+                + this.rightLength + 1) : ""
+                        + "Violation of: [$this.index is null, or"
+                        + " |$this.index| = $this.leftLength +"
+                        + " $this.rightLength + 1]";
+
+        if (FULL_CHECKS || this.checksUntilFull <= 0) {
+            this.checkWholeList();
+            this.checksUntilFull = this.leftLength + this.rightLength + 1;
+        } else {
+            this.checksUntilFull--;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks, by walking the whole doubly linked list, the part of the
+     * convention that cannot be checked in constant time.
+     *
+     * @convention <pre>
+     * [$this.preStart points to the first node of a doubly linked list
+     *  containing ($this.leftLength + $this.rightLength + 2) nodes]  and
+     * [$this.lastLeft points to the ($this.leftLength + 1)-th node in
+     *  that doubly linked list]  and
+     * [$this.postFinish points to the last node in that doubly linked list]  and
+     * [for every node n in the doubly linked list of nodes, except the one
+     *  pointed to by $this.preStart, n.previous.next = n]  and
+     * [for every node n in the doubly linked list of nodes, except the one
+     *  pointed to by $this.postFinish, n.next.previous = n]  and
+     * [$this.index is null, or, for every i with 0 <= i < |$this.index|,
+     *  $this.index[i] points to the (i + 1)-th node in that doubly linked
+     *  list]
+     * </pre>
+     */
+    private void checkWholeList() {
         int count = 0;
         boolean lastLeftFound = false;
         Node n = this.preStart;
         while ((count < this.leftLength + this.rightLength + 1)
                 && (n != this.postFinish)) {
+            /*
+             * Check $this.index[count] points to the (count + 1)-th node
+             */
+            assert (this.index == null) || (this.index[count] == n) : ""
+                    + "Violation of: [$this.index[i] points to the (i + 1)-th"
+                    + " node in that doubly linked list]";
             count++;
             if (n == this.lastLeft) {
                 /*
@@ -167,8 +289,6 @@ public class List3<T> extends ListSecondary<T> {
         assert n == this.postFinish : ""
                 + "Violation of: [$this.postFinish points to the last"
                 + " node in that doubly linked list]";
-
-        return true;
     }
 
     /**
@@ -182,6 +302,69 @@ public class List3<T> extends ListSecondary<T> {
         this.lastLeft = this.preStart;
         this.leftLength = 0;
         this.rightLength = 0;
+        this.checksUntilFull = 0;
+        this.index = null;
+    }
+
+    /**
+     * Links the nodes of {@code source} into the doubly linked list of this
+     * between {@code before} and the node after it, and empties
+     * {@code source}.
+     *
+     * @param before
+     *            the node to link the nodes of {@code source} after
+     * @param source
+     *            the list whose nodes are linked in
+     * @return the last node linked in, or {@code before} if {@code source}
+     *         was empty
+     * @requires <pre>
+     * source is not this  and
+     * [before is a node of the doubly linked list of this other than
+     *  $this.postFinish]
+     * </pre>
+     * @ensures <pre>
+     * [the doubly linked list of this has the nodes of #source, in order,
+     *  between before and #before.next]  and  source = (<>, <>)
+     * </pre>
+     */
+    private Node linkAfter(Node before, List3<T> source) {
+        Node last = before;
+        if (source.preStart.next != source.postFinish) {
+            Node first = source.preStart.next;
+            last = source.postFinish.previous;
+            last.next = before.next;
+            last.next.previous = last;
+            before.next = first;
+            first.previous = before;
+            this.index = null;
+        }
+        source.createNewRep();
+        return last;
+    }
+
+    /**
+     * Builds $this.index by walking the whole doubly linked list.
+     *
+     * @ensures <pre>
+     * |$this.index| = $this.leftLength + $this.rightLength + 1  and
+     * [for every i with 0 <= i < |$this.index|, $this.index[i] points to the
+     *  (i + 1)-th node in the doubly linked list]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void buildIndex() {
+        /*
+         * With "new Node[...]" in place of "new List3.Node[...]" it does not
+         * compile, Node being an inner class of a generic class; as shown, it
+         * results in a warning about an unchecked conversion, though it cannot
+         * fail.
+         */
+        this.index = new List3.Node[this.leftLength + this.rightLength + 1];
+        Node n = this.preStart;
+        for (int i = 0; i < this.index.length; i++) {
+            this.index[i] = n;
+            n = n.next;
+        }
     }
 
     /**
@@ -224,6 +407,8 @@ public class List3<T> extends ListSecondary<T> {
         this.postFinish = localSource.postFinish;
         this.leftLength = localSource.leftLength;
         this.rightLength = localSource.rightLength;
+        this.checksUntilFull = 0;
+        this.index = localSource.index;
         localSource.createNewRep();
         assert this.conventionHolds();
         assert localSource.conventionHolds();
@@ -239,6 +424,7 @@ public class List3<T> extends ListSecondary<T> {
         this.lastLeft.next = newNode;
         newNode.next.previous = newNode;
         this.rightLength++;
+        this.index = null;
         assert this.conventionHolds();
     }
 
@@ -249,6 +435,7 @@ public class List3<T> extends ListSecondary<T> {
         this.lastLeft.next = myNode.next;
         this.lastLeft.next.previous = this.lastLeft;
         this.rightLength--;
+        this.index = null;
         assert this.conventionHolds();
         return myNode.data;
     }
@@ -357,4 +544,145 @@ public class List3<T> extends ListSecondary<T> {
         assert this.conventionHolds();
     }
 
+    @Override
+    public final T rightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+        return this.lastLeft.next.data;
+    }
+
+    @Override
+    public final T replaceRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+        Node front = this.lastLeft.next;
+        T replaced = front.data;
+        front.data = x;
+        assert this.conventionHolds();
+        return replaced;
+    }
+
+    @Override
+    public final void append(List<T> l) {
+        assert l != null : "Violation of: l is not null";
+        assert l != this : "Violation of: l is not this";
+        if (l instanceof List3<?>) {
+            /*
+             * This cast cannot fail: l is of dynamic type List3<?>, and the ?
+             * must be T or the call would not have compiled.
+             */
+            List3<T> source = (List3<T>) l;
+            int length = source.leftLength + source.rightLength;
+            this.linkAfter(this.postFinish.previous, source);
+            this.rightLength += length;
+            assert this.conventionHolds();
+        } else {
+            super.append(l);
+        }
+    }
+
+    /*
+     * Additional methods -----------------------------------------------------
+     */
+
+    /**
+     * Inserts the entries of {@code l} at the front of {@code this.right},
+     * relinking the nodes of {@code l} in O(1) time.
+     *
+     * @param l
+     *            the list whose entries are inserted
+     * @updates this
+     * @clears l
+     * @requires l is not this
+     * @ensures this = (#this.left, #l.left * #l.right * #this.right)
+     */
+    public final void splice(List3<T> l) {
+        assert l != null : "Violation of: l is not null";
+        assert l != this : "Violation of: l is not this";
+        int length = l.leftLength + l.rightLength;
+        this.linkAfter(this.lastLeft, l);
+        this.rightLength += length;
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Inserts the entries of {@code l} at the front of {@code this.left},
+     * relinking the nodes of {@code l} in O(1) time.
+     *
+     * @param l
+     *            the list whose entries are inserted
+     * @updates this
+     * @clears l
+     * @requires l is not this
+     * @ensures this = (#l.left * #l.right * #this.left, #this.right)
+     */
+    public final void prepend(List3<T> l) {
+        assert l != null : "Violation of: l is not null";
+        assert l != this : "Violation of: l is not this";
+        int length = l.leftLength + l.rightLength;
+        Node last = this.linkAfter(this.preStart, l);
+        if (this.lastLeft == this.preStart) {
+            this.lastLeft = last;
+        }
+        this.leftLength += length;
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Moves the position to {@code position}, so that {@code this.left} has
+     * that length.
+     *
+     * @param position
+     *            the new length of {@code this.left}
+     * @updates this
+     * @requires 0 <= position <= |this.left| + |this.right|
+     * @ensures <pre>
+     * this.left * this.right = #this.left * #this.right  and
+     * |this.left| = position
+     * </pre>
+     */
+    public final void moveTo(int position) {
+        int length = this.leftLength + this.rightLength;
+        assert 0 <= position : "Violation of: 0 <= position";
+        assert position <= length : ""
+                + "Violation of: position <= |this.left| + |this.right|";
+
+        /*
+         * The walk from the nearest of the three known positions is taken if
+         * it is short next to the length; otherwise the index is built, which
+         * costs no more than a constant times that walk and makes later calls
+         * O(1) until an entry is added or removed.
+         */
+        int fromCursor = Math.abs(position - this.leftLength);
+        int distance = Math.min(Math.min(position, length - position),
+                fromCursor);
+        if (this.index == null && distance > length / INDEX_FRACTION) {
+            this.buildIndex();
+        }
+        if (this.index != null) {
+            this.lastLeft = this.index[position];
+        } else if (distance == fromCursor) {
+            while (this.leftLength < position) {
+                this.lastLeft = this.lastLeft.next;
+                this.leftLength++;
+            }
+            while (this.leftLength > position) {
+                this.lastLeft = this.lastLeft.previous;
+                this.leftLength--;
+            }
+        } else if (distance == position) {
+            this.lastLeft = this.preStart;
+            for (int i = 0; i < position; i++) {
+                this.lastLeft = this.lastLeft.next;
+            }
+        } else {
+            this.lastLeft = this.postFinish.previous;
+            for (int i = length; i > position; i--) {
+                this.lastLeft = this.lastLeft.previous;
+            }
+        }
+        this.leftLength = position;
+        this.rightLength = length - position;
+        assert this.conventionHolds();
+    }
+
 }
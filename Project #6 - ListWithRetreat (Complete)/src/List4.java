@@ -0,0 +1,618 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as an unrolled doubly linked list, done
+ * "bare-handed", with implementations of primary methods and {@code retreat}
+ * secondary method.
+ *
+ * <p>
+ * Each node holds up to {@code NODE_CAPACITY} entries in an array, so the
+ * overhead of a node (its header, links, and count) is shared by all of its
+ * entries, and walking the list reads consecutive entries from the same array
+ * rather than following a pointer per entry. The position between the left
+ * and right strings is a node and an index into it. When
+ * {@code addRightFront} finds the node full, the node is split in two (or, at
+ * the end of the node, a new node is started, so that adding entries in order
+ * fills every node); when {@code removeRightFront} leaves a node less than
+ * half full, the next node is merged into it if they fit in one.
+ * </p>
+ *
+ * <p>
+ * Execution-time performance of all methods implemented in this class is
+ * O(1), taking {@code NODE_CAPACITY} as a constant.
+ * </p>
+ *
+ * <p>
+ * Checking the whole chain of nodes takes time linear in its length, so with
+ * assertions enabled the checks of the representation are sampled: every
+ * method checks the constant-time parts of the convention and the links of the
+ * nodes around $this.cursor, which are the only ones a method changes, but
+ * walks the whole chain only once every ($this.leftLength + $this.rightLength
+ * + 1) calls. Running with the system property {@code List4.fullChecks} set to
+ * {@code true} (and assertions enabled) walks the whole chain on every call
+ * instead, which makes iterating over a long list take quadratic time.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @convention <pre>
+ * $this.leftLength >= 0  and
+ * [$this.rightLength >= 0] and
+ * [$this.preStart is not null]  and
+ * [$this.postFinish is not null]  and
+ * [$this.preStart points to the first node, and $this.postFinish to the
+ *  last node, of a doubly linked list]  and
+ * [$this.preStart and $this.postFinish have count = 0, and every other node
+ *  n in that doubly linked list has 0 < n.count <= NODE_CAPACITY, with
+ *  entries at n.entries[0, n.count) that are not null and the others null]
+ *  and
+ * [the counts of the nodes add up to $this.leftLength + $this.rightLength]
+ *  and
+ * [$this.cursor points to a node in that doubly linked list other than the
+ *  one pointed to by $this.postFinish]  and
+ * 0 <= $this.cursorIndex <= $this.cursor.count  and
+ * [the counts of the nodes before $this.cursor add up to
+ *  $this.leftLength - $this.cursorIndex]  and
+ * [for every node n in the doubly linked list of nodes, except the one
+ *  pointed to by $this.preStart, n.previous.next = n]  and
+ * [for every node n in the doubly linked list of nodes, except the one
+ *  pointed to by $this.postFinish, n.next.previous = n]
+ * </pre>
+ * @correspondence <pre>
+ * this =
+ *  ([entries in nodes starting at $this.preStart.next and running through
+ *    $this.cursor.previous] * $this.cursor.entries[0, $this.cursorIndex),
+ *   $this.cursor.entries[$this.cursorIndex, $this.cursor.count) *
+ *   [entries in nodes starting at $this.cursor.next and running through
+ *    $this.postFinish.previous])
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class List4<T> extends ListSecondary<T> {
+
+    /**
+     * Whether {@code conventionHolds} walks the whole chain of nodes on every
+     * call, rather than once every ($this.leftLength + $this.rightLength + 1)
+     * calls.
+     */
+    private static final boolean FULL_CHECKS = Boolean
+            .getBoolean("List4.fullChecks");
+
+    /**
+     * Greatest number of entries in a node.
+     */
+    private static final int NODE_CAPACITY = 32;
+
+    /**
+     * Node class for unrolled doubly linked list nodes.
+     */
+    private final class Node {
+
+        /**
+         * Entries in node, at [0, count); or, if this is a "smart" Node, none.
+         */
+        private final T[] entries;
+
+        /**
+         * Number of entries in node.
+         */
+        private int count;
+
+        /**
+         * Next node in doubly linked list, or, if this is a trailing "smart"
+         * Node, irrelevant.
+         */
+        private Node next;
+
+        /**
+         * Previous node in doubly linked list, or, if this is a leading "smart"
+         * Node, irrelevant.
+         */
+        private Node previous;
+
+        /**
+         * Constructor of a node with room for {@code capacity} entries.
+         *
+         * @param capacity
+         *            the number of entries the node can hold
+         */
+        @SuppressWarnings("unchecked")
+        private Node(int capacity) {
+            /*
+             * With "new T[...]" in place of "new Object[...]" it does not
+             * compile; as shown, it results in a warning about an unchecked
+             * cast, though it cannot fail.
+             */
+            this.entries = (T[]) (new Object[capacity]);
+        }
+
+    }
+
+    /**
+     * "Smart node" before start node of doubly linked list.
+     */
+    private Node preStart;
+
+    /**
+     * "Smart node" after finish node of linked list.
+     */
+    private Node postFinish;
+
+    /**
+     * Node holding the position between this.left and this.right.
+     */
+    private Node cursor;
+
+    /**
+     * Index in this.cursor of the first entry of this.right, if it is there.
+     */
+    private int cursorIndex;
+
+    /**
+     * Length of this.left.
+     */
+    private int leftLength;
+
+    /**
+     * Length of this.right.
+     */
+    private int rightLength;
+
+    /**
+     * Number of calls to {@code conventionHolds} left before the next one
+     * walks the whole chain of nodes; only used when assertions are enabled.
+     */
+    private int checksUntilFull;
+
+    /**
+     * Links a new, empty node into the doubly linked list after {@code n}.
+     *
+     * @param n
+     *            the node to link the new one after
+     * @return the new node
+     * @requires [n is in the doubly linked list and is not $this.postFinish]
+     */
+    private Node linkAfter(Node n) {
+        Node newNode = new Node(NODE_CAPACITY);
+        newNode.previous = n;
+        newNode.next = n.next;
+        n.next = newNode;
+        newNode.next.previous = newNode;
+        return newNode;
+    }
+
+    /**
+     * Unlinks {@code n} from the doubly linked list.
+     *
+     * @param n
+     *            the node to unlink
+     * @requires <pre>
+     * [n is in the doubly linked list and is neither $this.preStart nor
+     *  $this.postFinish]
+     * </pre>
+     */
+    private void unlink(Node n) {
+        n.previous.next = n.next;
+        n.next.previous = n.previous;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation. The parts that take constant time, and the
+     * links and counts around $this.cursor, are checked on every call; the
+     * rest only on every call in full-checks mode, and otherwise once every
+     * ($this.leftLength + $this.rightLength + 1) calls (see the class
+     * comment).
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.leftLength >= 0  and
+     * [$this.rightLength >= 0] and
+     * [$this.preStart is not null]  and
+     * [$this.postFinish is not null]  and
+     * [$this.preStart points to the first node, and $this.postFinish to the
+     *  last node, of a doubly linked list]  and
+     * [$this.preStart and $this.postFinish have count = 0, and every other
+     *  node n in that doubly linked list has 0 < n.count <= NODE_CAPACITY]
+     *  and
+     * [the counts of the nodes add up to $this.leftLength + $this.rightLength]
+     *  and
+     * [$this.cursor points to a node in that doubly linked list other than
+     *  the one pointed to by $this.postFinish]  and
+     * 0 <= $this.cursorIndex <= $this.cursor.count  and
+     * [the counts of the nodes before $this.cursor add up to
+     *  $this.leftLength - $this.cursorIndex]  and
+     * [for every node n in the doubly linked list of nodes, except the one
+     *  pointed to by $this.preStart, n.previous.next = n]  and
+     * [for every node n in the doubly linked list of nodes, except the one
+     *  pointed to by $this.postFinish, n.next.previous = n]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.leftLength >= 0 : "Violation of: $this.leftLength >= 0";
+        assert this.rightLength >= 0 : "Violation of: $this.rightLength >= 0";
+        assert this.preStart != null : "Violation of: $this.preStart is not null";
+        assert this.postFinish != null : "Violation of: $this.postFinish is not null";
+        assert this.preStart.count == 0 && this.postFinish.count == 0 : ""
+                + "Violation of: [$this.preStart and $this.postFinish have"
+                + " count = 0]";
+        assert 0 <= this.cursorIndex
+                && this.cursorIndex <= this.cursor.count : ""
+                        + "Violation of: 0 <= $this.cursorIndex <="
+                        + " $this.cursor.count";
+
+        /*
+         * Check the links and counts around $this.cursor, and that the nodes
+         * next to it are the "smart" ones exactly when the strings end there
+         */
+        assert this.cursor != this.postFinish : ""
+                + "Violation of: [$this.cursor points to a node in that doubly"
+                + " linked list other than the one pointed to by"
+                + " $this.postFinish]";
+        assert (this.cursor == this.preStart) || (0 < this.cursor.count
+                && this.cursor.count <= NODE_CAPACITY) : ""
+                        + "Violation of: [every node n other than"
+                        + " $this.preStart and $this.postFinish has"
+                        + " 0 < n.count <= NODE_CAPACITY]";
+        assert (this.cursor.next != null)
+                && (this.cursor.next.previous == this.cursor) : ""
+                        + "Violation of: [for every node n in the doubly linked"
+                        + " list of nodes, except the one pointed to by"
+                        + " $this.postFinish, n.next.previous = n]";
+        assert (this.cursor == this.preStart)
+                || (this.cursor.previous.next == this.cursor) : ""
+                        + "Violation of: [for every node n in the doubly linked"
+                        + " list of nodes, except the one pointed to by"
+                        + " $this.preStart, n.previous.next = n]";
+        assert (this.leftLength == this.cursorIndex)
+                == ((this.cursor == this.preStart)
+                        || (this.cursor.previous == this.preStart)) : ""
+                                + "Violation of: [the counts of the nodes"
+                                + " before $this.cursor add up to"
+                                + " $this.leftLength - $this.cursorIndex]";
+        assert (this.rightLength == this.cursor.count - this.cursorIndex)
+                == (this.cursor.next == this.postFinish) : ""
+                        + "Violation of: [the counts of the nodes add up to"
+                        + " $this.leftLength + $this.rightLength]";
+
+        if (FULL_CHECKS || this.checksUntilFull <= 0) {
+            this.checkWholeChain();
+            this.checksUntilFull = this.leftLength + this.rightLength + 1;
+        } else {
+            this.checksUntilFull--;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks, by walking the whole doubly linked list, the part of the
+     * convention that cannot be checked in constant time.
+     *
+     * @convention <pre>
+     * [$this.preStart points to the first node, and $this.postFinish to the
+     *  last node, of a doubly linked list]  and
+     * [every node n in that doubly linked list other than $this.preStart and
+     *  $this.postFinish has 0 < n.count <= NODE_CAPACITY]  and
+     * [the counts of the nodes add up to $this.leftLength + $this.rightLength]
+     *  and
+     * [$this.cursor points to a node in that doubly linked list other than the
+     *  one pointed to by $this.postFinish]  and
+     * [the counts of the nodes before $this.cursor add up to
+     *  $this.leftLength - $this.cursorIndex]  and
+     * [for every node n in the doubly linked list of nodes, except the one
+     *  pointed to by $this.postFinish, n.next.previous = n]
+     * </pre>
+     */
+    private void checkWholeChain() {
+        int length = this.leftLength + this.rightLength;
+        int count = 0;
+        boolean cursorFound = this.cursor == this.preStart;
+        Node n = this.preStart;
+        while ((count <= length) && (n.next != this.postFinish)) {
+            /*
+             * Check for every node n in the doubly linked list of nodes, except
+             * the one pointed to by $this.postFinish, n.next.previous = n
+             */
+            assert (n.next != null) && (n.next.previous == n) : ""
+                    + "Violation of: [for every node n in the doubly linked"
+                    + " list of nodes, except the one pointed to by"
+                    + " $this.postFinish, n.next.previous = n]";
+            n = n.next;
+            assert 0 < n.count && n.count <= NODE_CAPACITY : ""
+                    + "Violation of: [every node n other than $this.preStart"
+                    + " and $this.postFinish has 0 < n.count <= NODE_CAPACITY]";
+            if (n == this.cursor) {
+                assert count == this.leftLength - this.cursorIndex : ""
+                        + "Violation of: [the counts of the nodes before"
+                        + " $this.cursor add up to"
+                        + " $this.leftLength - $this.cursorIndex]";
+                cursorFound = true;
+            }
+            count += n.count;
+        }
+        assert n.next == this.postFinish
+                && this.postFinish.previous == n : ""
+                        + "Violation of: [$this.postFinish points to the last"
+                        + " node in that doubly linked list]";
+        assert count == length : ""
+                + "Violation of: [the counts of the nodes add up to"
+                + " $this.leftLength + $this.rightLength]";
+        assert cursorFound : ""
+                + "Violation of: [$this.cursor points to a node in that doubly"
+                + " linked list other than the one pointed to by"
+                + " $this.postFinish]";
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.preStart = new Node(0);
+        this.postFinish = new Node(0);
+        this.preStart.next = this.postFinish;
+        this.postFinish.previous = this.preStart;
+        this.cursor = this.preStart;
+        this.cursorIndex = 0;
+        this.leftLength = 0;
+        this.rightLength = 0;
+        this.checksUntilFull = 0;
+    }
+
+    /**
+     * No-argument constructor.
+     */
+    public List4() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List4<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source instanceof List4<?> : ""
+                + "Violation of: source is of dynamic type List4<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List4<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List4<T> localSource = (List4<T>) source;
+        this.preStart = localSource.preStart;
+        this.postFinish = localSource.postFinish;
+        this.cursor = localSource.cursor;
+        this.cursorIndex = localSource.cursorIndex;
+        this.leftLength = localSource.leftLength;
+        this.rightLength = localSource.rightLength;
+        this.checksUntilFull = 0;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        Node n = this.cursor;
+        int i = this.cursorIndex;
+        if (n == this.preStart) {
+            /*
+             * The new entry goes at the front of the first node, or of a new
+             * first node if there is none.
+             */
+            n = n.next;
+            if (n == this.postFinish) {
+                n = this.linkAfter(this.preStart);
+            }
+        }
+        if (n.count == NODE_CAPACITY) {
+            if (i == NODE_CAPACITY) {
+                n = this.linkAfter(n);
+                i = 0;
+            } else {
+                /*
+                 * The upper half of the full node moves to a new node after
+                 * it, and the new entry goes into whichever half holds its
+                 * position.
+                 */
+                int half = NODE_CAPACITY / 2;
+                Node upper = this.linkAfter(n);
+                System.arraycopy(n.entries, half, upper.entries, 0,
+                        NODE_CAPACITY - half);
+                for (int k = half; k < NODE_CAPACITY; k++) {
+                    n.entries[k] = null;
+                }
+                upper.count = NODE_CAPACITY - half;
+                n.count = half;
+                if (i > half) {
+                    n = upper;
+                    i -= half;
+                }
+            }
+        }
+        System.arraycopy(n.entries, i, n.entries, i + 1, n.count - i);
+        n.entries[i] = x;
+        n.count++;
+        this.cursor = n;
+        this.cursorIndex = i;
+        this.rightLength++;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+        if (this.cursorIndex == this.cursor.count) {
+            this.cursor = this.cursor.next;
+            this.cursorIndex = 0;
+        }
+        Node n = this.cursor;
+        int i = this.cursorIndex;
+        T removed = n.entries[i];
+        n.count--;
+        System.arraycopy(n.entries, i + 1, n.entries, i, n.count - i);
+        n.entries[n.count] = null;
+        if (n.count == 0) {
+            this.unlink(n);
+            this.cursor = n.previous;
+            this.cursorIndex = this.cursor.count;
+        } else if (n.count < NODE_CAPACITY / 2 && n.next != this.postFinish
+                && n.count + n.next.count <= NODE_CAPACITY) {
+            Node next = n.next;
+            System.arraycopy(next.entries, 0, n.entries, n.count, next.count);
+            n.count += next.count;
+            this.unlink(next);
+        }
+        this.rightLength--;
+        assert this.conventionHolds();
+        return removed;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+        if (this.cursorIndex == this.cursor.count) {
+            this.cursor = this.cursor.next;
+            this.cursorIndex = 0;
+        }
+        this.cursorIndex++;
+        this.leftLength++;
+        this.rightLength--;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+        this.cursor = this.preStart;
+        this.cursorIndex = 0;
+        this.rightLength += this.leftLength;
+        this.leftLength = 0;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int leftLength() {
+        assert this.conventionHolds();
+        return this.leftLength;
+    }
+
+    @Override
+    public final int rightLength() {
+        assert this.conventionHolds();
+        return this.rightLength;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List4}.
+     */
+    private final class List4Iterator implements Iterator<T> {
+
+        /**
+         * Current node in the linked list.
+         */
+        private Node current;
+
+        /**
+         * Index in the current node of the next entry.
+         */
+        private int currentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        private List4Iterator() {
+            this.current = List4.this.preStart.next;
+            this.currentIndex = 0;
+            assert List4.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != List4.this.postFinish;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.current.entries[this.currentIndex];
+            this.currentIndex++;
+            if (this.currentIndex == this.current.count) {
+                this.current = this.current.next;
+                this.currentIndex = 0;
+            }
+            assert List4.this.conventionHolds();
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final void moveToFinish() {
+        this.cursor = this.postFinish.previous;
+        this.cursorIndex = this.cursor.count;
+        this.leftLength += this.rightLength;
+        this.rightLength = 0;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength() > 0 : "Violation of: this.left /= <>";
+        if (this.cursorIndex == 0) {
+            this.cursor = this.cursor.previous;
+            this.cursorIndex = this.cursor.count;
+        }
+        this.cursorIndex--;
+        this.leftLength--;
+        this.rightLength++;
+        assert this.conventionHolds();
+    }
+
+}
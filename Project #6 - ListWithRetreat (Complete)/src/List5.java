@@ -0,0 +1,314 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as a gap buffer: an array holding this.left at its
+ * start and this.right at its end, with the unused slots (the "gap") between
+ * them, with implementations of primary methods and {@code retreat} secondary
+ * method.
+ *
+ * <p>
+ * The gap sits at the position between this.left and this.right, so
+ * {@code addRightFront} and {@code removeRightFront} only fill or free the slot
+ * at the end of the gap, and {@code advance} and {@code retreat} move a single
+ * entry from one side of the gap to the other; nothing is allocated per entry.
+ * These methods take O(1) time ({@code addRightFront} amortized, since a full
+ * array is replaced by one twice as long), as do {@code leftLength} and
+ * {@code rightLength}. {@code moveToStart} and {@code moveToFinish} move every
+ * entry on one side of the gap to the other, and so take time linear in the
+ * length of that side.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @convention <pre>
+ * [$this.entries is not null]  and
+ * |$this.entries| > 0  and
+ * 0 <= $this.gapStart <= $this.gapEnd <= |$this.entries|  and
+ * [the entries of $this.entries at [$this.gapStart, $this.gapEnd) are null,
+ *  and the others are not null]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.entries[0, $this.gapStart),
+ *         $this.entries[$this.gapEnd, |$this.entries|))
+ * </pre>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public class List5<T> extends ListSecondary<T> {
+
+    /**
+     * Length of the array of a new list.
+     */
+    private static final int INITIAL_LENGTH = 16;
+
+    /**
+     * Array holding this.left, the gap, and this.right, in that order.
+     */
+    private T[] entries;
+
+    /**
+     * Index of the first slot of the gap, which is the length of this.left.
+     */
+    private int gapStart;
+
+    /**
+     * Index just past the last slot of the gap, where this.right starts.
+     */
+    private int gapEnd;
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation. Only the parts that take constant time are
+     * checked, so that iterating over the list does not take quadratic time
+     * with assertion checking on.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * [$this.entries is not null]  and
+     * |$this.entries| > 0  and
+     * 0 <= $this.gapStart <= $this.gapEnd <= |$this.entries|
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.entries != null : "Violation of: $this.entries is not null";
+        assert this.entries.length > 0 : "Violation of: |$this.entries| > 0";
+        assert 0 <= this.gapStart : "Violation of: 0 <= $this.gapStart";
+        assert this.gapStart <= this.gapEnd : ""
+                + "Violation of: $this.gapStart <= $this.gapEnd";
+        assert this.gapEnd <= this.entries.length : ""
+                + "Violation of: $this.gapEnd <= |$this.entries|";
+
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep() {
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.entries = (T[]) (new Object[INITIAL_LENGTH]);
+        this.gapStart = 0;
+        this.gapEnd = INITIAL_LENGTH;
+    }
+
+    /**
+     * Replaces $this.entries by an array twice as long, with the extra slots
+     * added to the gap.
+     */
+    @SuppressWarnings("unchecked")
+    private void grow() {
+        int length = this.entries.length;
+        T[] grown = (T[]) (new Object[2 * length]);
+        int rightLength = length - this.gapEnd;
+        System.arraycopy(this.entries, 0, grown, 0, this.gapStart);
+        System.arraycopy(this.entries, this.gapEnd, grown,
+                grown.length - rightLength, rightLength);
+        this.entries = grown;
+        this.gapEnd = grown.length - rightLength;
+    }
+
+    /**
+     * No-argument constructor.
+     */
+    public List5() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List5<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source instanceof List5<?> : ""
+                + "Violation of: source is of dynamic type List5<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List5<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List5<T> localSource = (List5<T>) source;
+        this.entries = localSource.entries;
+        this.gapStart = localSource.gapStart;
+        this.gapEnd = localSource.gapEnd;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        if (this.gapStart == this.gapEnd) {
+            this.grow();
+        }
+        this.gapEnd--;
+        this.entries[this.gapEnd] = x;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+        T x = this.entries[this.gapEnd];
+        this.entries[this.gapEnd] = null;
+        this.gapEnd++;
+        assert this.conventionHolds();
+        return x;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+        /*
+         * The slot is cleared before it is filled, since with an empty gap the
+         * two are the same.
+         */
+        T x = this.entries[this.gapEnd];
+        this.entries[this.gapEnd] = null;
+        this.entries[this.gapStart] = x;
+        this.gapStart++;
+        this.gapEnd++;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+        int shift = this.gapEnd - this.gapStart;
+        System.arraycopy(this.entries, 0, this.entries, shift, this.gapStart);
+        for (int i = 0; i < Math.min(shift, this.gapStart); i++) {
+            this.entries[i] = null;
+        }
+        this.gapEnd = shift;
+        this.gapStart = 0;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int leftLength() {
+        assert this.conventionHolds();
+        return this.gapStart;
+    }
+
+    @Override
+    public final int rightLength() {
+        assert this.conventionHolds();
+        return this.entries.length - this.gapEnd;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List5Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List5}.
+     */
+    private final class List5Iterator implements Iterator<T> {
+
+        /**
+         * Index of the next entry in the array, skipping the gap.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private List5Iterator() {
+            this.current = 0;
+            if (List5.this.gapStart == 0) {
+                this.current = List5.this.gapEnd;
+            }
+            assert List5.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current < List5.this.entries.length;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = List5.this.entries[this.current];
+            this.current++;
+            if (this.current == List5.this.gapStart) {
+                this.current = List5.this.gapEnd;
+            }
+            assert List5.this.conventionHolds();
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final void moveToFinish() {
+        int length = this.entries.length;
+        int rightLength = length - this.gapEnd;
+        System.arraycopy(this.entries, this.gapEnd, this.entries,
+                this.gapStart, rightLength);
+        int stop = this.gapStart + rightLength;
+        for (int i = Math.max(stop, this.gapEnd); i < length; i++) {
+            this.entries[i] = null;
+        }
+        this.gapStart = stop;
+        this.gapEnd = length;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength() > 0 : "Violation of: this.left /= <>";
+        this.gapStart--;
+        this.gapEnd--;
+        T x = this.entries[this.gapStart];
+        this.entries[this.gapStart] = null;
+        this.entries[this.gapEnd] = x;
+        assert this.conventionHolds();
+    }
+
+}
@@ -1,3 +1,7 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
 import components.list.List;
 import components.list.List1L;
 
@@ -6,6 +10,24 @@ import components.list.List1L;
  */
 public class List3Test extends ListTest {
 
+    /**
+     * Number of entries added by the large test, too many for it to finish if
+     * every call walked the whole list.
+     */
+    private static final int MANY_ENTRIES = 100000;
+
+    /**
+     * Number of moves by the large {@code moveTo} test between an entry being
+     * removed and added back, each of which discards the index.
+     */
+    private static final int MOVES_PER_UPDATE = 1000;
+
+    /**
+     * Number of entries in the list the index tests start from, enough for a
+     * move to the middle to build the index.
+     */
+    private static final int INDEXED_ENTRIES = 64;
+
     @Override
     protected final List<String> constructorTest() {
         return new List3<String>();
@@ -16,4 +38,296 @@ public class List3Test extends ListTest {
         return new List1L<String>();
     }
 
+    /**
+     * Testing .addRightFront(), .advance(), .retreat(), and iteration over
+     * many entries.
+     */
+    @Test
+    public final void testIteratorManyEntries() {
+        List<String> lActual = this.constructorTest();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.addRightFront(Integer.toString(i));
+            lActual.advance();
+        }
+        for (int i = 0; i < MANY_ENTRIES / 2; i++) {
+            lActual.retreat();
+        }
+        assertEquals(MANY_ENTRIES / 2, lActual.leftLength());
+        assertEquals(MANY_ENTRIES / 2, lActual.rightLength());
+        int i = 0;
+        for (String x : lActual) {
+            assertEquals(Integer.toString(i), x);
+            i++;
+        }
+        assertEquals(MANY_ENTRIES, i);
+    }
+
+    /**
+     * Testing .splice() of a non-empty list in the middle.
+     */
+    @Test
+    public final void testSplice() {
+        List3<String> lActual = (List3<String>) this.createFromArgsTest(1,
+                "red", "blue");
+        List3<String> l = (List3<String>) this.createFromArgsTest(1, "green",
+                "yellow");
+        List<String> lExpected = this.createFromArgsRef(1, "red", "green",
+                "yellow", "blue");
+        List<String> lEmpty = this.createFromArgsRef(0);
+        lActual.splice(l);
+        assertEquals(lExpected, lActual);
+        assertEquals(lEmpty, l);
+    }
+
+    /**
+     * Testing .splice() of an empty list.
+     */
+    @Test
+    public final void testSpliceEmpty() {
+        List3<String> lActual = (List3<String>) this.createFromArgsTest(2,
+                "red", "blue");
+        List3<String> l = (List3<String>) this.createFromArgsTest(0);
+        List<String> lExpected = this.createFromArgsRef(2, "red", "blue");
+        lActual.splice(l);
+        assertEquals(lExpected, lActual);
+    }
+
+    /**
+     * Testing .prepend() to a list with an empty left string.
+     */
+    @Test
+    public final void testPrependLeftEmpty() {
+        List3<String> lActual = (List3<String>) this.createFromArgsTest(0,
+                "red", "blue");
+        List3<String> l = (List3<String>) this.createFromArgsTest(2, "green",
+                "yellow");
+        List<String> lExpected = this.createFromArgsRef(2, "green", "yellow",
+                "red", "blue");
+        lActual.prepend(l);
+        assertEquals(lExpected, lActual);
+    }
+
+    /**
+     * Testing .prepend() to a list with a non-empty left string.
+     */
+    @Test
+    public final void testPrependLeftNonEmpty() {
+        List3<String> lActual = (List3<String>) this.createFromArgsTest(1,
+                "red", "blue");
+        List3<String> l = (List3<String>) this.createFromArgsTest(0, "green");
+        List<String> lExpected = this.createFromArgsRef(2, "green", "red",
+                "blue");
+        lActual.prepend(l);
+        assertEquals(lExpected, lActual);
+    }
+
+    /**
+     * Testing .append() of a {@code List3}, which relinks its nodes.
+     */
+    @Test
+    public final void testAppendList3() {
+        List<String> lActual = this.createFromArgsTest(1, "red", "blue");
+        List<String> l = this.createFromArgsTest(1, "green", "yellow");
+        List<String> lExpected = this.createFromArgsRef(1, "red", "blue",
+                "green", "yellow");
+        List<String> lEmpty = this.createFromArgsRef(0);
+        lActual.append(l);
+        assertEquals(lExpected, lActual);
+        assertEquals(lEmpty, l);
+    }
+
+    /**
+     * Testing .append() of a list of another type.
+     */
+    @Test
+    public final void testAppendOtherList() {
+        List<String> lActual = this.createFromArgsTest(1, "red", "blue");
+        List<String> l = this.createFromArgsRef(0, "green");
+        List<String> lExpected = this.createFromArgsRef(1, "red", "blue",
+                "green");
+        lActual.append(l);
+        assertEquals(lExpected, lActual);
+    }
+
+    /**
+     * Testing .moveTo() to every position, near and far, of a short list.
+     */
+    @Test
+    public final void testMoveTo() {
+        String[] args = {"red", "green", "blue", "yellow", "orange"};
+        List3<String> lActual = (List3<String>) this.createFromArgsTest(2,
+                args);
+        for (int position : new int[] {0, 5, 3, 1, 4, 2, 2}) {
+            List<String> lExpected = this.createFromArgsRef(position, args);
+            lActual.moveTo(position);
+            assertEquals(lExpected, lActual);
+        }
+    }
+
+    /**
+     * Testing .moveTo() to every position of many entries, in scattered order,
+     * with an entry removed and added back every {@code MOVES_PER_UPDATE}
+     * moves.
+     */
+    @Test
+    public final void testMoveToManyEntries() {
+        final int step = 7919;
+        List3<String> lActual = new List3<String>();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.addRightFront(Integer.toString(i));
+            lActual.advance();
+        }
+        for (int k = 0; k < MANY_ENTRIES; k++) {
+            int position = (int) ((long) k * step % MANY_ENTRIES);
+            lActual.moveTo(position);
+            assertEquals(position, lActual.leftLength());
+            assertEquals(Integer.toString(position), lActual.rightFront());
+            if (k % MOVES_PER_UPDATE == 0) {
+                assertEquals(Integer.toString(position),
+                        lActual.removeRightFront());
+                lActual.addRightFront(Integer.toString(position));
+                lActual.moveTo(MANY_ENTRIES - 1 - position);
+                assertEquals(Integer.toString(MANY_ENTRIES - 1 - position),
+                        lActual.rightFront());
+            }
+        }
+    }
+
+    /**
+     * Testing .rightFront() and .replaceRightFront() between moves to every
+     * position of many entries, in scattered order, which only finishes
+     * quickly if neither discards the index.
+     */
+    @Test
+    public final void testMoveToRightFrontManyEntries() {
+        final int step = 7919;
+        List3<String> lActual = new List3<String>();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.addRightFront(Integer.toString(i));
+            lActual.advance();
+        }
+        for (int k = 0; k < MANY_ENTRIES; k++) {
+            int position = (int) ((long) k * step % MANY_ENTRIES);
+            lActual.moveTo(position);
+            assertEquals(Integer.toString(position),
+                    lActual.replaceRightFront("x" + position));
+            assertEquals("x" + position, lActual.rightFront());
+        }
+        assertEquals(MANY_ENTRIES,
+                lActual.leftLength() + lActual.rightLength());
+        lActual.moveToStart();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            assertEquals("x" + i, lActual.rightFront());
+            lActual.advance();
+        }
+    }
+
+    /**
+     * Testing .rightFront() and .replaceRightFront() at the front of
+     * this.right, near both ends and in the middle.
+     */
+    @Test
+    public final void testReplaceRightFront() {
+        String[] args = {"red", "green", "blue"};
+        List3<String> lActual = (List3<String>) this.createFromArgsTest(0,
+                args);
+        for (int position = 0; position < args.length; position++) {
+            lActual.moveTo(position);
+            assertEquals(args[position], lActual.rightFront());
+            assertEquals(args[position],
+                    lActual.replaceRightFront(args[position].toUpperCase()));
+        }
+        List<String> lExpected = this.createFromArgsRef(2, "RED", "GREEN",
+                "BLUE");
+        assertEquals(lExpected, lActual);
+    }
+
+    /**
+     * Returns the entries "{@code prefix}0", "{@code prefix}1", ..., up to
+     * {@code count} of them.
+     *
+     * @param prefix
+     *            the prefix of the entries
+     * @param count
+     *            the number of entries
+     * @return the entries
+     */
+    private static String[] entries(String prefix, int count) {
+        String[] result = new String[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = prefix + i;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the entries of {@code first} followed by those of
+     * {@code second}.
+     *
+     * @param first
+     *            the first entries
+     * @param second
+     *            the entries after them
+     * @return the entries of both
+     */
+    private static String[] concat(String[] first, String[] second) {
+        String[] result = new String[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Moves {@code lActual} to positions at and between both ends, near and
+     * far, checking it against a reference list with the entries
+     * {@code args} after each move.
+     *
+     * @param lActual
+     *            the list under test
+     * @param args
+     *            the entries of {@code lActual}
+     */
+    private void checkMoveTo(List3<String> lActual, String[] args) {
+        int length = args.length;
+        for (int position : new int[] {0, length, length / 2, 1, length - 1,
+            length / 4, 3 * length / 4, length / 2 + 1}) {
+            lActual.moveTo(position);
+            assertEquals(this.createFromArgsRef(position, args), lActual);
+        }
+    }
+
+    /**
+     * Testing .moveTo() after .splice(), .prepend(), and .append() relink nodes
+     * into a list whose index .moveTo() has built.
+     */
+    @Test
+    public final void testMoveToAfterRelinking() {
+        String[] args = entries("", INDEXED_ENTRIES);
+        List3<String> lActual = (List3<String>) this
+                .createFromArgsTest(INDEXED_ENTRIES, args);
+        lActual.moveTo(INDEXED_ENTRIES / 2);
+        this.checkMoveTo(lActual, args);
+
+        lActual.moveTo(INDEXED_ENTRIES / 2);
+        String[] spliced = entries("s", INDEXED_ENTRIES / 4);
+        lActual.splice((List3<String>) this.createFromArgsTest(0, spliced));
+        String[] left = new String[INDEXED_ENTRIES / 2];
+        String[] right = new String[INDEXED_ENTRIES - left.length];
+        System.arraycopy(args, 0, left, 0, left.length);
+        System.arraycopy(args, left.length, right, 0, right.length);
+        args = concat(concat(left, spliced), right);
+        assertEquals(this.createFromArgsRef(left.length, args), lActual);
+        this.checkMoveTo(lActual, args);
+
+        String[] prepended = entries("p", INDEXED_ENTRIES / 4);
+        lActual.prepend((List3<String>) this.createFromArgsTest(0, prepended));
+        args = concat(prepended, args);
+        this.checkMoveTo(lActual, args);
+
+        String[] appended = entries("a", INDEXED_ENTRIES / 4);
+        lActual.append(this.createFromArgsTest(0, appended));
+        args = concat(args, appended);
+        this.checkMoveTo(lActual, args);
+    }
+
 }
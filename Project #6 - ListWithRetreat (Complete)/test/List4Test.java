@@ -0,0 +1,163 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List4}, along with tests with
+ * enough entries to fill, split, and merge nodes.
+ */
+public class List4Test extends ListTest {
+
+    /**
+     * Number of entries added by the tests with many entries, enough for
+     * several nodes.
+     */
+    private static final int MANY_ENTRIES = 200;
+
+    /**
+     * Number of entries added by the large test, too many for it to finish if
+     * every call walked the whole chain of nodes.
+     */
+    private static final int LARGE_ENTRIES = 100000;
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List4<String>();
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+    /**
+     * Testing .addRightFront() at the finish, then .retreat() and .advance()
+     * across every node.
+     */
+    @Test
+    public final void testAddRightFrontAtFinishManyEntries() {
+        List<String> lActual = this.constructorTest();
+        List<String> lExpected = this.constructorRef();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.addRightFront(Integer.toString(i));
+            lActual.advance();
+            lExpected.addRightFront(Integer.toString(i));
+            lExpected.advance();
+        }
+        assertEquals(lExpected, lActual);
+        while (lActual.leftLength() > 0) {
+            lActual.retreat();
+        }
+        lExpected.moveToStart();
+        assertEquals(lExpected, lActual);
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.advance();
+        }
+        lExpected.moveToFinish();
+        assertEquals(lExpected, lActual);
+    }
+
+    /**
+     * Testing .addRightFront() in the middle, which splits full nodes.
+     */
+    @Test
+    public final void testAddRightFrontInMiddleManyEntries() {
+        List<String> lActual = this.constructorTest();
+        List<String> lExpected = this.constructorRef();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.addRightFront(Integer.toString(i));
+            lExpected.addRightFront(Integer.toString(i));
+            if (i % 2 == 0) {
+                lActual.advance();
+                lExpected.advance();
+            }
+        }
+        assertEquals(lExpected, lActual);
+        lActual.moveToStart();
+        lExpected.moveToStart();
+        assertEquals(lExpected, lActual);
+    }
+
+    /**
+     * Testing .removeRightFront() of every other entry, which merges nodes,
+     * and then of the rest.
+     */
+    @Test
+    public final void testRemoveRightFrontManyEntries() {
+        List<String> lActual = this.constructorTest();
+        List<String> lExpected = this.constructorRef();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.addRightFront(Integer.toString(i));
+            lActual.advance();
+            lExpected.addRightFront(Integer.toString(i));
+            lExpected.advance();
+        }
+        lActual.moveToStart();
+        lExpected.moveToStart();
+        while (lActual.rightLength() > 1) {
+            assertEquals(lExpected.removeRightFront(),
+                    lActual.removeRightFront());
+            lActual.advance();
+            lExpected.advance();
+        }
+        assertEquals(lExpected, lActual);
+        lActual.moveToStart();
+        lExpected.moveToStart();
+        while (lActual.rightLength() > 0) {
+            assertEquals(lExpected.removeRightFront(),
+                    lActual.removeRightFront());
+        }
+        assertEquals(lExpected, lActual);
+    }
+
+    /**
+     * Testing .removeRightFront() backwards from the finish, emptying nodes
+     * with entries to their left.
+     */
+    @Test
+    public final void testRemoveRightFrontFromFinishManyEntries() {
+        List<String> lActual = this.constructorTest();
+        List<String> lExpected = this.constructorRef();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.addRightFront(Integer.toString(i));
+            lActual.advance();
+            lExpected.addRightFront(Integer.toString(i));
+            lExpected.advance();
+        }
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.retreat();
+            lExpected.retreat();
+            assertEquals(lExpected.removeRightFront(),
+                    lActual.removeRightFront());
+        }
+        assertEquals(lExpected, lActual);
+    }
+
+    /**
+     * Testing .addRightFront(), .advance(), .retreat(), and iteration over
+     * enough entries that the checks of the representation must be sampled.
+     */
+    @Test
+    public final void testIteratorLargeEntries() {
+        List<String> lActual = this.constructorTest();
+        for (int i = 0; i < LARGE_ENTRIES; i++) {
+            lActual.addRightFront(Integer.toString(i));
+            lActual.advance();
+        }
+        for (int i = 0; i < LARGE_ENTRIES / 2; i++) {
+            lActual.retreat();
+        }
+        assertEquals(LARGE_ENTRIES / 2, lActual.leftLength());
+        assertEquals(LARGE_ENTRIES / 2, lActual.rightLength());
+        int i = 0;
+        for (String x : lActual) {
+            assertEquals(Integer.toString(i), x);
+            i++;
+        }
+        assertEquals(LARGE_ENTRIES, i);
+    }
+
+}
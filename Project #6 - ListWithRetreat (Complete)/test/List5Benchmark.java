@@ -0,0 +1,233 @@
+import java.util.Random;
+
+import components.list.List;
+
+/**
+ * Timing harness comparing {@code List3}, {@code List4}, and {@code List5} on
+ * cursor-heavy edit traces: starting from a document of {@code Character}s, a
+ * trace of random edits is replayed on each list, reporting the time taken
+ * and the throughput in millions of operations per second.
+ *
+ * <p>
+ * Each edit of the trace is one of: typing a burst of characters (one
+ * {@code addRightFront} and {@code advance} each); moving the cursor a short
+ * way in either direction (a run of {@code advance}s or {@code retreat}s);
+ * deleting forward ({@code removeRightFront}); or backspacing
+ * ({@code retreat} then {@code removeRightFront}). The same trace, generated
+ * once from a fixed seed, is replayed on every list. Run with
+ * {@code java List5Benchmark}, without {@code -ea} (with assertions enabled,
+ * {@code List3} and {@code List4} still walk the whole list on a sample of
+ * calls, and check their conventions on every one, which would be timed
+ * along with the edits); this is a plain {@code main} program, not a JUnit
+ * fixture.
+ * </p>
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public final class List5Benchmark {
+
+    /**
+     * Numbers of characters in the document before the edits.
+     */
+    private static final int[] SIZES = {10000, 1000000};
+
+    /**
+     * Number of edits in each trace.
+     */
+    private static final int EDITS = 1000000;
+
+    /**
+     * Greatest number of characters typed, or cursor steps taken, by a single
+     * edit.
+     */
+    private static final int MAX_RUN = 16;
+
+    /**
+     * Edit code: type a burst of characters.
+     */
+    private static final int TYPE = 0;
+
+    /**
+     * Edit code: move the cursor forward.
+     */
+    private static final int FORWARD = 1;
+
+    /**
+     * Edit code: move the cursor back.
+     */
+    private static final int BACK = 2;
+
+    /**
+     * Edit code: delete the character after the cursor.
+     */
+    private static final int DELETE = 3;
+
+    /**
+     * Edit code: delete the character before the cursor.
+     */
+    private static final int BACKSPACE = 4;
+
+    /**
+     * Number of edit codes.
+     */
+    private static final int CODES = 5;
+
+    /**
+     * Number of untimed warm-up rounds.
+     */
+    private static final int WARMUP_ROUNDS = 2;
+
+    /**
+     * Seed for the trace, so every run sees the same edits.
+     */
+    private static final long SEED = 20240601L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private List5Benchmark() {
+    }
+
+    /**
+     * Returns a trace of {@code EDITS} edits, as pairs of an edit code and a
+     * run length.
+     *
+     * @return the trace
+     */
+    private static int[] trace() {
+        Random random = new Random(SEED);
+        int[] edits = new int[2 * EDITS];
+        for (int i = 0; i < edits.length; i += 2) {
+            edits[i] = random.nextInt(CODES);
+            edits[i + 1] = 1 + random.nextInt(MAX_RUN);
+        }
+        return edits;
+    }
+
+    /**
+     * Returns a new, empty list of the given kind.
+     *
+     * @param kind
+     *            3, 4, or 5, for {@code List3}, {@code List4}, or
+     *            {@code List5}
+     * @return the new list
+     */
+    private static List<Character> newList(int kind) {
+        List<Character> list;
+        if (kind == 3) {
+            list = new List3<Character>();
+        } else if (kind == 4) {
+            list = new List4<Character>();
+        } else {
+            list = new List5<Character>();
+        }
+        return list;
+    }
+
+    /**
+     * Replays {@code edits} on a document of {@code size} characters in a new
+     * list of the given kind, with the cursor starting in the middle, and, if
+     * {@code print}, prints the cost; returns the number of characters left,
+     * so that the work cannot be optimized away.
+     *
+     * @param kind
+     *            3, 4, or 5, for {@code List3}, {@code List4}, or
+     *            {@code List5}
+     * @param size
+     *            the number of characters in the document
+     * @param edits
+     *            the trace
+     * @param print
+     *            whether to print the results
+     * @return the length of the document after the edits
+     */
+    private static int run(int kind, int size, int[] edits, boolean print) {
+        List<Character> list = newList(kind);
+        for (int i = 0; i < size; i++) {
+            list.addRightFront((char) ('a' + i % 26));
+        }
+        for (int i = 0; i < size / 2; i++) {
+            list.advance();
+        }
+        long operations = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < edits.length; i += 2) {
+            int run = edits[i + 1];
+            switch (edits[i]) {
+                case TYPE:
+                    for (int k = 0; k < run; k++) {
+                        list.addRightFront((char) ('a' + k));
+                        list.advance();
+                    }
+                    operations += 2 * run;
+                    break;
+                case FORWARD:
+                    for (int k = 0; k < run && list.rightLength() > 0; k++) {
+                        list.advance();
+                        operations++;
+                    }
+                    break;
+                case BACK:
+                    for (int k = 0; k < run && list.leftLength() > 0; k++) {
+                        list.retreat();
+                        operations++;
+                    }
+                    break;
+                case DELETE:
+                    if (list.rightLength() > 0) {
+                        list.removeRightFront();
+                        operations++;
+                    }
+                    break;
+                default:
+                    if (list.leftLength() > 0) {
+                        list.retreat();
+                        list.removeRightFront();
+                        operations += 2;
+                    }
+                    break;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        if (print) {
+            double millis = nanos / NANOS_PER_MILLI;
+            System.out.printf("%9d %-6s %12d %10.1f %10.2f%n", size,
+                    "List" + kind, operations, millis,
+                    operations / millis / 1000);
+        }
+        return list.leftLength() + list.rightLength();
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments; ignored
+     */
+    public static void main(String[] args) {
+        int[] edits = trace();
+        int check = 0;
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            for (int kind = 3; kind <= 5; kind++) {
+                check += run(kind, SIZES[0], edits, false);
+            }
+        }
+        System.out.println("(ops: kernel calls made by the trace of " + EDITS
+                + " edits; Mops/s: millions of calls per second)");
+        System.out.printf("%9s %-6s %12s %10s %10s%n", "size", "list", "ops",
+                "ms", "Mops/s");
+        for (int size : SIZES) {
+            for (int kind = 3; kind <= 5; kind++) {
+                check += run(kind, size, edits, true);
+            }
+        }
+        System.out.println("(final lengths: " + check + ")");
+    }
+
+}
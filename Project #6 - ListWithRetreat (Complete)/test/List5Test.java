@@ -0,0 +1,80 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List5}, along with tests with
+ * enough entries to grow the array and to move the gap across it.
+ */
+public class List5Test extends ListTest {
+
+    /**
+     * Number of entries added by the tests with many entries, enough for the
+     * array to grow several times.
+     */
+    private static final int MANY_ENTRIES = 200;
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List5<String>();
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+    /**
+     * Testing .addRightFront() in the middle, which grows the array, then
+     * .moveToStart() and .moveToFinish().
+     */
+    @Test
+    public final void testAddRightFrontInMiddleManyEntries() {
+        List<String> lActual = this.constructorTest();
+        List<String> lExpected = this.constructorRef();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.addRightFront(Integer.toString(i));
+            lExpected.addRightFront(Integer.toString(i));
+            if (i % 3 == 0) {
+                lActual.advance();
+                lExpected.advance();
+            }
+        }
+        assertEquals(lExpected, lActual);
+        lActual.moveToStart();
+        lExpected.moveToStart();
+        assertEquals(lExpected, lActual);
+        lActual.moveToFinish();
+        lExpected.moveToFinish();
+        assertEquals(lExpected, lActual);
+    }
+
+    /**
+     * Testing .retreat() and .removeRightFront() backwards from the finish of
+     * many entries.
+     */
+    @Test
+    public final void testRemoveRightFrontFromFinishManyEntries() {
+        List<String> lActual = this.constructorTest();
+        List<String> lExpected = this.constructorRef();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            lActual.addRightFront(Integer.toString(i));
+            lActual.advance();
+            lExpected.addRightFront(Integer.toString(i));
+            lExpected.advance();
+        }
+        for (int i = 0; i < MANY_ENTRIES / 2; i++) {
+            lActual.retreat();
+            lExpected.retreat();
+            assertEquals(lExpected.removeRightFront(),
+                    lActual.removeRightFront());
+            lActual.retreat();
+            lExpected.retreat();
+        }
+        assertEquals(lExpected, lActual);
+    }
+
+}
@@ -4,8 +4,6 @@ import components.map.Map;
 import components.map.Map1L;
 import components.queue.Queue;
 import components.queue.Queue1L;
-import components.set.Set;
-import components.set.Set1L;
 import components.simplereader.SimpleReader;
 import components.simplereader.SimpleReader1L;
 import components.simplewriter.SimpleWriter;
@@ -78,21 +76,23 @@ public final class TagCloudGenerator {
      * @requires in.is_open
      */
     public static Map<String, Integer> wordScrape(SimpleReader in,
-            Set<Character> separators) {
-        Map<String, Integer> wordCount = new Map1L<String, Integer>();
+            CharacterSet separators) {
+        StringCountMap counts = new StringCountMap();
         while (!in.atEOS()) {
             String line = in.nextLine();
             Queue<String> wordsInLine = nextWordsInLine(line, separators);
             for (String word : wordsInLine) {
-                String lowerCase = word.toLowerCase();
-                if (wordCount.hasKey(lowerCase)) {
-                    wordCount.replaceValue(lowerCase,
-                            wordCount.value(lowerCase) + 1);
-                } else {
-                    wordCount.add(lowerCase, 1);
-                }
+                counts.increment(word.toLowerCase());
             }
         }
+        /*
+         * Counting is done on unboxed ints; only the final count of each
+         * distinct word is boxed here.
+         */
+        Map<String, Integer> wordCount = new Map1L<String, Integer>();
+        for (String word : counts) {
+            wordCount.add(word, counts.count(word));
+        }
         return wordCount;
     }
 
@@ -103,7 +103,7 @@ public final class TagCloudGenerator {
      * @return words: Queue of all Strings in the line sequence.
      */
     public static Queue<String> nextWordsInLine(String line,
-            Set<Character> separators) {
+            CharacterSet separators) {
         Queue<String> words = new Queue1L<String>();
         StringBuilder word = new StringBuilder();
         for (int i = 0; i < line.length(); i++) {
@@ -135,8 +135,13 @@ public final class TagCloudGenerator {
             Map<String, Integer> m, int n) {
         Comparator<Map.Pair<String, Integer>> stringOrder = new StringLT();
         Comparator<Map.Pair<String, Integer>> integerOrder = new IntegerLT();
-        SortingMachine<Map.Pair<String, Integer>> countSort = new SortingMachine1L<>(
-                integerOrder);
+        /*
+         * The bounded machine only ever holds the n pairs with the largest
+         * counts seen so far (it needs room for at least one), so adding every
+         * pair of m takes O(|m| log n) time and O(n) space.
+         */
+        SortingMachine<Map.Pair<String, Integer>> countSort = new SortingMachine5k<>(
+                integerOrder, Math.max(n, 1));
         SortingMachine<Map.Pair<String, Integer>> alphaSort = new SortingMachine1L<>(
                 stringOrder);
         for (Map.Pair<String, Integer> pair : m) {
@@ -206,7 +211,7 @@ public final class TagCloudGenerator {
          * alphabetically.
          */
         char[] separators = " \t\n\r,-.!?[]';:/()".toCharArray();
-        Set<Character> set = new Set1L<>();
+        CharacterSet set = new CharacterSet();
         for (char x : separators) {
             set.add(x);
         }
@@ -0,0 +1,215 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * JUnit test fixture for {@code CharacterSet}, checked against
+ * {@code Set1L<Character>} with ASCII, Latin-1, and other Basic Multilingual
+ * Plane characters, including those at the edges of the 64-bit words of the
+ * bitset.
+ *
+ * @author Danny Kan (kan.74@osu.edu)
+ *
+ */
+public final class CharacterSetTest {
+
+    /**
+     * Characters used by the tests: the ends of the ASCII words, a few
+     * separators, Latin-1, the start of the characters held in
+     * {@code otherBits}, and characters far apart in the rest of the plane,
+     * up to the last one.
+     */
+    private static final char[] CHARACTERS = {'\u0000', ' ', '\t', ',', '?',
+        '@', 'a', 'z', '\u007f', '\u0080', '\u00bf', '\u00c0', '\u00e9',
+        '\u00ff', '\u0100', '\u2014', '\u4e2d', '\ufffe', '\uffff'};
+
+    /**
+     * Number of {@code char} values.
+     */
+    private static final int CHARACTER_COUNT = Character.MAX_VALUE + 1;
+
+    /**
+     * Returns a new {@code CharacterSet} with the given characters.
+     *
+     * @param chars
+     *            the characters
+     * @return the set
+     */
+    private static CharacterSet createFromArgsTest(char... chars) {
+        CharacterSet set = new CharacterSet();
+        for (char c : chars) {
+            set.add(c);
+        }
+        return set;
+    }
+
+    /**
+     * Returns a new {@code Set1L<Character>} with the given characters.
+     *
+     * @param chars
+     *            the characters
+     * @return the set
+     */
+    private static Set<Character> createFromArgsRef(char... chars) {
+        Set<Character> set = new Set1L<Character>();
+        for (char c : chars) {
+            set.add(c);
+        }
+        return set;
+    }
+
+    /**
+     * Checks that {@code contains(char)} of {@code s} agrees with
+     * {@code contains} of {@code expected} on every {@code char} value.
+     *
+     * @param expected
+     *            the reference set
+     * @param s
+     *            the set under test
+     */
+    private static void assertContainsAll(Set<Character> expected,
+            CharacterSet s) {
+        for (int i = 0; i < CHARACTER_COUNT; i++) {
+            char c = (char) i;
+            assertEquals("contains('\\u" + Integer.toHexString(i) + "')",
+                    expected.contains(c), s.contains(c));
+        }
+    }
+
+    /**
+     * Testing the constructor.
+     */
+    @Test
+    public void testConstructor() {
+        CharacterSet s = new CharacterSet();
+        assertEquals(createFromArgsRef(), s);
+        assertEquals(0, s.size());
+        assertFalse(s.iterator().hasNext());
+    }
+
+    /**
+     * Testing .add() and .contains() of every test character.
+     */
+    @Test
+    public void testAddContains() {
+        CharacterSet s = createFromArgsTest(CHARACTERS);
+        Set<Character> sExpected = createFromArgsRef(CHARACTERS);
+        assertEquals(sExpected, s);
+        assertEquals(CHARACTERS.length, s.size());
+        assertContainsAll(sExpected, s);
+        for (char c : CHARACTERS) {
+            assertTrue(s.contains(Character.valueOf(c)));
+        }
+    }
+
+    /**
+     * Testing .contains() of characters 64 apart, which share a bit position
+     * in different words.
+     */
+    @Test
+    public void testContainsSameBitOtherWord() {
+        CharacterSet s = createFromArgsTest('\u0001');
+        Set<Character> sExpected = createFromArgsRef('\u0001');
+        assertContainsAll(sExpected, s);
+        s.add('\u00c1');
+        sExpected.add('\u00c1');
+        assertContainsAll(sExpected, s);
+    }
+
+    /**
+     * Testing .remove() of every test character, in turn.
+     */
+    @Test
+    public void testRemove() {
+        CharacterSet s = createFromArgsTest(CHARACTERS);
+        Set<Character> sExpected = createFromArgsRef(CHARACTERS);
+        for (char c : CHARACTERS) {
+            assertEquals(sExpected.remove(c), s.remove(c));
+            assertEquals(sExpected, s);
+            assertFalse(s.contains(c));
+        }
+        assertEquals(0, s.size());
+        assertContainsAll(sExpected, s);
+    }
+
+    /**
+     * Testing .removeAny() until the set is empty.
+     */
+    @Test
+    public void testRemoveAny() {
+        CharacterSet s = createFromArgsTest(CHARACTERS);
+        Set<Character> sExpected = createFromArgsRef(CHARACTERS);
+        while (s.size() > 0) {
+            Character c = s.removeAny();
+            assertTrue(sExpected.contains(c));
+            sExpected.remove(c);
+            assertEquals(sExpected, s);
+        }
+        assertEquals(0, sExpected.size());
+    }
+
+    /**
+     * Testing .iterator() visits every character once, in increasing order,
+     * across the words of the bitset.
+     */
+    @Test
+    public void testIterator() {
+        CharacterSet s = createFromArgsTest(CHARACTERS);
+        Set<Character> seen = createFromArgsRef();
+        int previous = -1;
+        for (Character c : s) {
+            assertTrue(c > previous);
+            assertFalse(seen.contains(c));
+            seen.add(c);
+            previous = c;
+        }
+        assertEquals(createFromArgsRef(CHARACTERS), seen);
+    }
+
+    /**
+     * Testing .iterator() over characters only outside ASCII, far apart.
+     */
+    @Test
+    public void testIteratorOnlyOtherCharacters() {
+        CharacterSet s = createFromArgsTest('\uffff', '\u00e9', '\u4e2d');
+        Iterator<Character> it = s.iterator();
+        assertEquals(Character.valueOf('\u00e9'), it.next());
+        assertEquals(Character.valueOf('\u4e2d'), it.next());
+        assertEquals(Character.valueOf('\uffff'), it.next());
+        assertFalse(it.hasNext());
+    }
+
+    /**
+     * Testing .clear() and .transferFrom().
+     */
+    @Test
+    public void testClearTransferFrom() {
+        CharacterSet s = createFromArgsTest(CHARACTERS);
+        CharacterSet t = new CharacterSet();
+        t.transferFrom(s);
+        assertEquals(createFromArgsRef(CHARACTERS), t);
+        assertEquals(createFromArgsRef(), s);
+        t.clear();
+        assertEquals(createFromArgsRef(), t);
+        assertContainsAll(createFromArgsRef(), t);
+    }
+
+    /**
+     * Testing .newInstance().
+     */
+    @Test
+    public void testNewInstance() {
+        CharacterSet s = createFromArgsTest(CHARACTERS);
+        Set<Character> t = s.newInstance();
+        assertTrue(t instanceof CharacterSet);
+        assertEquals(createFromArgsRef(), t);
+    }
+
+}